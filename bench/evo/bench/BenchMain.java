@@ -0,0 +1,18 @@
+package evo.bench;
+
+/**
+ * Runs the micro-benchmarks, optionally restricted to those whose name contains a filter.
+ */
+public class BenchMain {
+
+  public static void main(String[] args) {
+    BenchRunner runner = new BenchRunner(args.length > 0 ? args[0] : "");
+
+    new EngineBench(3).run(runner);
+    new EngineBench(8).run(runner);
+    new FeedLoopBench().run(runner);
+    new JsonBench().run(runner);
+    new BinaryBench().run(runner);
+    new MoveGenBench().run(runner);
+  }
+}
@@ -0,0 +1,96 @@
+package evo.bench;
+
+import java.lang.management.ManagementFactory;
+import java.util.function.Supplier;
+
+/**
+ * A minimal micro-benchmark harness. Each benchmark is run for a number of untimed warmup
+ * iterations, so that the JIT has compiled it, and then for a number of measured iterations, and
+ * the average time and the average number of bytes allocated by the benchmarking thread are
+ * reported per operation.
+ *
+ * The result of every operation is written to a volatile field, so that the JIT cannot discard
+ * the work that produced it.
+ */
+public class BenchRunner {
+  private static final int WARMUP_ITERATIONS = 5;
+  private static final int MEASURED_ITERATIONS = 10;
+  private static final long ITERATION_NANOS = 200_000_000L;
+
+  private final String filter;
+  private final com.sun.management.ThreadMXBean threads;
+  private volatile Object sink;
+
+  /**
+   * Creates a runner that only runs benchmarks whose name contains the given filter
+   *
+   * @param filter the substring to filter benchmark names by (the empty string runs everything)
+   */
+  public BenchRunner(String filter) {
+    this.filter = filter;
+    this.threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    this.threads.setThreadAllocatedMemoryEnabled(true);
+  }
+
+  /**
+   * Effect: measures the given operation and prints its results, if its name passes the filter
+   *
+   * @param name the name of the benchmark
+   * @param op the operation to measure; its result is consumed so it cannot be optimized away
+   */
+  public void measure(String name, Supplier<?> op) {
+    measure(name, 0, op);
+  }
+
+  /**
+   * Same as {@link #measure(String, Supplier)}, but also reports the throughput of the items
+   * (e.g. generated moves) each operation produces
+   *
+   * @param itemsPerOp the number of items produced by one operation, or 0 to not report it
+   */
+  public void measure(String name, long itemsPerOp, Supplier<?> op) {
+    if (!name.contains(filter)) return;
+
+    int batch = calibrate(op);
+    for (int i = 0; i < WARMUP_ITERATIONS; i++) runBatch(op, batch);
+
+    long nanos = 0;
+    long bytes = 0;
+    long thread = Thread.currentThread().getId();
+    for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+      long startBytes = threads.getThreadAllocatedBytes(thread);
+      long start = System.nanoTime();
+      runBatch(op, batch);
+      nanos += System.nanoTime() - start;
+      bytes += threads.getThreadAllocatedBytes(thread) - startBytes;
+    }
+
+    long ops = (long) batch * MEASURED_ITERATIONS;
+    String result = String.format("%-40s %12.1f ns/op %12.1f B/op",
+            name, nanos / (double) ops, bytes / (double) ops);
+    if (itemsPerOp > 0)
+      result += String.format(" %14.0f items/s", itemsPerOp * ops * 1e9 / nanos);
+    System.out.println(result);
+  }
+
+  /**
+   * Finds a number of operations that takes roughly {@link #ITERATION_NANOS} to run
+   *
+   * @param op the operation to calibrate
+   * @return the number of operations to run per iteration
+   */
+  private int calibrate(Supplier<?> op) {
+    int batch = 1;
+    while (batch < Integer.MAX_VALUE / 2) {
+      long start = System.nanoTime();
+      runBatch(op, batch);
+      if (System.nanoTime() - start >= ITERATION_NANOS / 10) break;
+      batch *= 2;
+    }
+    return batch * 10;
+  }
+
+  private void runBatch(Supplier<?> op, int batch) {
+    for (int i = 0; i < batch; i++) sink = op.get();
+  }
+}
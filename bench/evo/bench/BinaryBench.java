@@ -0,0 +1,93 @@
+package evo.bench;
+
+import com.google.gson.stream.JsonWriter;
+import evo.binary.BinaryCodec;
+import evo.binary.DeltaCodec;
+import evo.game.*;
+import evo.game.list.PlayerList;
+import evo.game.list.SpeciesList;
+import evo.json.JUtils;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compares writing and reading a feedNext message in the JSON protocol with doing the same in the
+ * binary protocol, and with writing it in the delta protocol once the client has seen the state
+ * (i.e. the common feeding step where only a few boards change).
+ */
+public class BinaryBench {
+  private static final int NUM_PLAYERS = 8;
+  private static final long SEED = 17;
+
+  private final EvoPlayer player;
+  private final List<SpeciesList> allBoards;
+  private final StringWriter jsonOut = new StringWriter();
+  private final ByteArrayOutputStream binaryOut = new ByteArrayOutputStream();
+  private final DataOutputStream binaryData = new DataOutputStream(binaryOut);
+  private final byte[] binaryMsg;
+  private final DeltaCodec delta = new DeltaCodec();
+
+  public BinaryBench() {
+    Deck deck = Deck.shuffled(SEED);
+    List<EvoPlayer> list = new ArrayList<>(NUM_PLAYERS);
+    for (int i = 1; i <= NUM_PLAYERS; i++) {
+      list.add(EvoPlayer.builder().id(i).bag(i).hand(deck.draw(4)).boards(
+              SpeciesBoard.builder().pop(3).body(2).food(1).traits("carnivore", "ambush").build(),
+              SpeciesBoard.builder().pop(2).body(4).traits("fat-tissue").fat(2).build(),
+              SpeciesBoard.builder().pop(4).body(1).traits("climbing", "horns", "herding").build()
+      ).build());
+    }
+
+    PlayerList players = new PlayerList(list);
+    this.player = players.get(0);
+    this.allBoards = players.getAllBoards();
+    writeFeedNextBinary();
+    this.binaryMsg = binaryOut.toByteArray();
+  }
+
+  /**
+   * Effect: runs the JSON and binary variants of writing a feedNext message, and the binary
+   *         variant of reading one back
+   *
+   * @param runner the {@link BenchRunner} to measure with
+   */
+  public void run(BenchRunner runner) {
+    runner.measure("wire/feedNext/json", this::writeFeedNextJson);
+    runner.measure("wire/feedNext/binary", this::writeFeedNextBinary);
+    runner.measure("wire/readFeedNext/binary", this::readFeedNextBinary);
+    runner.measure("wire/feedNext/delta", this::writeFeedNextDelta);
+  }
+
+  private Object writeFeedNextJson() {
+    jsonOut.getBuffer().setLength(0);
+    try { JUtils.writeFeedNextMsg(new JsonWriter(jsonOut), player, allBoards, 3); }
+    catch (IOException e) { throw new UncheckedIOException(e); }
+    return jsonOut.getBuffer().length();
+  }
+
+  private Object writeFeedNextBinary() {
+    binaryOut.reset();
+    try { BinaryCodec.writeFeedNextMsg(binaryData, player, allBoards, 3); }
+    catch (IOException e) { throw new UncheckedIOException(e); }
+    return binaryOut.size();
+  }
+
+  private Object writeFeedNextDelta() {
+    binaryOut.reset();
+    try { delta.writeFeedNextMsg(binaryData, player, allBoards, 3); }
+    catch (IOException e) { throw new UncheckedIOException(e); }
+    return binaryOut.size();
+  }
+
+  private Object readFeedNextBinary() {
+    DataInputStream in = new DataInputStream(new ByteArrayInputStream(binaryMsg));
+    try {
+      BasePlayer state = BinaryCodec.readPlayerState(in);
+      BinaryCodec.readNat(in);
+      return BinaryCodec.readLOB(in).size() + state.getBag();
+    }
+    catch (IOException e) { throw new UncheckedIOException(e); }
+  }
+}
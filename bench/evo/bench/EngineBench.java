@@ -0,0 +1,163 @@
+package evo.bench;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import evo.game.*;
+import evo.game.choose.Action4;
+import evo.game.list.PlayerList;
+import evo.game.list.SpeciesList;
+import evo.json.JFactory;
+import evo.json.JUtils;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures the hot paths of the game engine for a table of the given number of
+ * {@link SillyPlayer}s: attack checks, feeding steps, the choose and feed steps of a turn, a
+ * whole game, reading a dealer configuration and writing a feedNext message.
+ *
+ * The positions are reached by playing a fixed number of turns from a deck shuffled with a fixed
+ * seed, so every run measures the same work. Steps that change the game are run on a fresh
+ * {@link Dealer} unpacked from a {@link PackedState} each time; unpacking is measured on its own
+ * ("copy") so that it can be subtracted from them.
+ */
+public class EngineBench {
+  private static final long SEED = 23;
+  private static final int TURNS_BEFORE = 2;
+  private static final int FEEDING_TOKENS = 30;
+
+  private final int numPlayers;
+  private final String prefix;
+  private final PackedState choosePosition;
+  private final List<Action4> choices;
+  private final PackedState feedPosition;
+  private final long feedSteps;
+  private final List<SpeciesList> allBoards;
+  private final EvoPlayer feeder;
+  private final List<SpeciesList> otherBoards;
+  private final String dealerJson;
+  private final StringWriter out = new StringWriter();
+
+  public EngineBench(int numPlayers) {
+    this.numPlayers = numPlayers;
+    this.prefix = "engine/" + numPlayers + "p/";
+
+    Deck deck = Deck.shuffled(SEED);
+    Dealer dealer = Dealer.builder().players(sillyPlayers(numPlayers)).deck(deck).quiet().build();
+    PlayerList players = dealer.getPlayers();
+    for (int turn = 0; turn < TURNS_BEFORE; turn++) {
+      players.startAll(dealer.getWHTokens(), deck);
+      dealer.step4(players.getChoices());
+      players.endTurn(deck);
+    }
+
+    players.startAll(dealer.getWHTokens(), deck);
+    this.choices = players.getChoices();
+    this.choosePosition = PackedState.of(dealer);
+    this.dealerJson = dealer.toJson().toString();
+
+    for (int i = 0; i < players.size(); i++)
+      choices.get(i).doAll(players.get(i), dealer.getWateringHole(), deck);
+    this.feedPosition = PackedState.of(Dealer.builder()
+            .players(players)
+            .deck(deck)
+            .wh(new WaterHole(FEEDING_TOKENS))
+            .quiet()
+            .build());
+    this.feedSteps = feedRound(feedPosition.toDealer());
+
+    this.allBoards = players.getAllBoards();
+    this.feeder = players.get(0);
+    this.otherBoards = allBoards.subList(1, allBoards.size());
+  }
+
+  /**
+   * Effect: runs every engine benchmark for this table
+   *
+   * @param runner the {@link BenchRunner} to measure with
+   */
+  public void run(BenchRunner runner) {
+    runner.measure(prefix + "canAttack", this::canAttack);
+    runner.measure(prefix + "copy", feedPosition::toDealer);
+    runner.measure(prefix + "feed1", feedSteps, () -> feedRound(feedPosition.toDealer()));
+    runner.measure(prefix + "step4", this::step4);
+    runner.measure(prefix + "runGame", this::runGame);
+    runner.measure(prefix + "readDealer", this::readDealer);
+    runner.measure(prefix + "writeFeedNext", this::writeFeedNext);
+  }
+
+  private static List<ExternalPlayer> sillyPlayers(int numPlayers) {
+    List<ExternalPlayer> result = new ArrayList<>(numPlayers);
+    for (int i = 0; i < numPlayers; i++) result.add(new SillyPlayer());
+    return result;
+  }
+
+  /**
+   * Checks whether every board can attack every board on the table
+   */
+  private Object canAttack() {
+    int attacks = 0;
+    for (SpeciesList attackers : allBoards) {
+      for (SpeciesBoard attacker : attackers) {
+        for (SpeciesList defenders : allBoards) {
+          for (int i = 0; i < defenders.size(); i++) {
+            if (attacker.canAttack(defenders.get(i), defenders.leftNeighborOf(i),
+                    defenders.rightNeighborOf(i)))
+              attacks++;
+          }
+        }
+      }
+    }
+    return attacks;
+  }
+
+  /**
+   * Effect: calls feed1 on the given dealer until its feeding round is over; a single step is too
+   *         short to measure next to unpacking the dealer, so the steps are reported per second
+   *
+   * @return the number of steps taken
+   */
+  private static long feedRound(Dealer dealer) {
+    long steps = 0;
+    while (dealer.getWHTokens() > 0 && !dealer.getFeedOrder().isEmpty()) {
+      dealer.feed1();
+      steps++;
+    }
+    return steps;
+  }
+
+  private Object step4() {
+    Dealer dealer = choosePosition.toDealer();
+    dealer.step4(choices);
+    return dealer;
+  }
+
+  /**
+   * Plays a whole game from the same seed. {@link Dealer#runGame()} exits when the game is over,
+   * so this plays it with {@link Dealer#playGame()}, which runs the same turns.
+   */
+  private Object runGame() {
+    return Dealer.builder()
+            .players(sillyPlayers(numPlayers))
+            .deck(Deck.shuffled(SEED))
+            .quiet()
+            .build()
+            .playGame();
+  }
+
+  private Object readDealer() {
+    return JFactory.fromJson(new JsonReader(new StringReader(dealerJson)), Dealer.class);
+  }
+
+  private Object writeFeedNext() {
+    out.getBuffer().setLength(0);
+    try { JUtils.writeFeedNextMsg(new JsonWriter(out), feeder, otherBoards, FEEDING_TOKENS); }
+    catch (IOException e) { throw new UncheckedIOException(e); }
+    return out.getBuffer().length();
+  }
+}
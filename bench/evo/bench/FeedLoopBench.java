@@ -0,0 +1,67 @@
+package evo.bench;
+
+import evo.game.AttackGraph;
+import evo.game.EvoPlayer;
+import evo.game.SpeciesBoard;
+import evo.game.list.PlayerList;
+import evo.game.list.PlayerRotation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compares the per-step setup of a feeding round (rotating the players so the player to feed is
+ * last, and building the attack graph against everyone else) when done by copying the
+ * {@link PlayerList}, as the dealer used to, and when done through a reused
+ * {@link PlayerRotation} and {@link AttackGraph}.
+ */
+public class FeedLoopBench {
+  private static final int NUM_PLAYERS = 8;
+
+  private final PlayerList players;
+  private final PlayerRotation rotation;
+  private final AttackGraph attacks = new AttackGraph();
+
+  public FeedLoopBench() {
+    List<EvoPlayer> list = new ArrayList<>(NUM_PLAYERS);
+    for (int i = 1; i <= NUM_PLAYERS; i++) {
+      list.add(EvoPlayer.builder().id(i).boards(
+              SpeciesBoard.builder().pop(3).body(2).traits("carnivore").build(),
+              SpeciesBoard.builder().pop(2).body(i % 7).traits("climbing").build(),
+              SpeciesBoard.builder().pop(4).body(1).build()
+      ).build());
+    }
+
+    this.players = new PlayerList(list);
+    this.rotation = players.rotation();
+  }
+
+  /**
+   * Effect: runs the copying and the rotating variants of one full cycle of feed steps
+   *
+   * @param runner the {@link BenchRunner} to measure with
+   */
+  public void run(BenchRunner runner) {
+    runner.measure("feedLoop/copy", this::copyCycle);
+    runner.measure("feedLoop/rotation", this::rotationCycle);
+  }
+
+  private Object copyCycle() {
+    int targets = 0;
+    for (EvoPlayer p : players) {
+      PlayerList otherPlayers = players.thisPlayerLast(p).removeLast();
+      targets += AttackGraph.of(p.getBoards(), otherPlayers.getAllBoards()).numTargets(0);
+    }
+    return targets;
+  }
+
+  private Object rotationCycle() {
+    int targets = 0;
+    for (int i = 0; i < players.size(); i++) {
+      EvoPlayer p = players.get(i);
+      rotation.focus(p);
+      targets += attacks.reset(p.getBoards(), rotation.otherBoards()).numTargets(0);
+    }
+    return targets;
+  }
+}
@@ -0,0 +1,96 @@
+package evo.bench;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import evo.game.*;
+import evo.game.list.PlayerList;
+import evo.game.list.SpeciesList;
+import evo.json.JFactory;
+import evo.json.JUtils;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compares writing and reading game messages through an intermediate {@link JsonElement} tree
+ * (the way the tree-model serializers worked) with streaming them directly to and from a
+ * {@link JsonWriter} or {@link JsonReader}.
+ */
+public class JsonBench {
+  private static final int NUM_PLAYERS = 8;
+  private static final long SEED = 17;
+
+  private final PlayerList players;
+  private final List<SpeciesList> allBoards;
+  private final String dealerJson;
+  private final StringWriter out = new StringWriter();
+
+  public JsonBench() {
+    Deck deck = Deck.shuffled(SEED);
+    List<EvoPlayer> list = new ArrayList<>(NUM_PLAYERS);
+    for (int i = 1; i <= NUM_PLAYERS; i++) {
+      list.add(EvoPlayer.builder().id(i).bag(i).hand(deck.draw(4)).boards(
+              SpeciesBoard.builder().pop(3).body(2).food(1).traits("carnivore", "ambush").build(),
+              SpeciesBoard.builder().pop(2).body(4).traits("fat-tissue").fat(2).build(),
+              SpeciesBoard.builder().pop(4).body(1).traits("climbing", "horns", "herding").build()
+      ).build());
+    }
+
+    this.players = new PlayerList(list);
+    this.allBoards = players.getAllBoards();
+    this.dealerJson = Dealer.builder().players(players).deck(deck).build().toJson().toString();
+  }
+
+  /**
+   * Effect: runs the tree and streaming variants of writing a feedNext message and of reading a
+   *         dealer configuration
+   *
+   * @param runner the {@link BenchRunner} to measure with
+   */
+  public void run(BenchRunner runner) {
+    runner.measure("json/feedNext/tree", this::writeFeedNextTree);
+    runner.measure("json/feedNext/stream", this::writeFeedNextStream);
+    runner.measure("json/readDealer/tree", this::readDealerTree);
+    runner.measure("json/readDealer/stream", this::readDealerStream);
+  }
+
+  private Object writeFeedNextTree() {
+    EvoPlayer player = players.get(0);
+    JsonArray msg = new JsonArray();
+    msg.add(new JsonPrimitive(player.getBag()));
+    msg.add(player.getBoards().toJson());
+    msg.add(player.getHand().toJson());
+    msg.add(new JsonPrimitive(3));
+    JsonArray boards = new JsonArray();
+    for (SpeciesList sl : allBoards) boards.add(sl.toJson());
+    msg.add(boards);
+
+    out.getBuffer().setLength(0);
+    JFactory.getGson().toJson(msg, new JsonWriter(out));
+    return out.getBuffer().length();
+  }
+
+  private Object writeFeedNextStream() {
+    out.getBuffer().setLength(0);
+    try { JUtils.writeFeedNextMsg(new JsonWriter(out), players.get(0), allBoards, 3); }
+    catch (IOException e) { throw new UncheckedIOException(e); }
+    return out.getBuffer().length();
+  }
+
+  private Object readDealerTree() {
+    JsonElement tree = new JsonParser().parse(dealerJson);
+    return JFactory.getGson().fromJson(tree, Dealer.class);
+  }
+
+  private Object readDealerStream() {
+    return JFactory.fromJson(new JsonReader(new StringReader(dealerJson)), Dealer.class);
+  }
+}
@@ -0,0 +1,62 @@
+package evo.bench;
+
+import evo.game.Deck;
+import evo.game.EvoPlayer;
+import evo.game.MoveGenerator;
+import evo.game.SpeciesBoard;
+import evo.game.list.SpeciesList;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Measures how fast the {@link MoveGenerator} produces legal moves for a mid-game position: the
+ * feeding moves against a table of seven other players, a bounded enumeration of the ways to play
+ * a full hand (counted without allocating them), and sampled random moves.
+ */
+public class MoveGenBench {
+  private static final int NUM_OTHERS = 7;
+  private static final int HAND_SIZE = 7;
+  private static final long ENUMERATION_LIMIT = 10_000;
+
+  private final EvoPlayer player;
+  private final List<SpeciesList> otherBoards = new ArrayList<>(NUM_OTHERS);
+  private final MoveGenerator generator;
+  private final SplittableRandom random = new SplittableRandom(42);
+  private final long feedMovesPerOp;
+  private final long action4sPerOp;
+
+  public MoveGenBench() {
+    this.player = EvoPlayer.builder().id(1).boards(
+            SpeciesBoard.builder().pop(3).body(2).food(1).traits("carnivore", "ambush").build(),
+            SpeciesBoard.builder().pop(4).body(3).food(2).traits("fat-tissue").build(),
+            SpeciesBoard.builder().pop(2).body(1).build()
+    ).hand(Deck.shuffled(42).draw(HAND_SIZE)).build();
+
+    for (int i = 0; i < NUM_OTHERS; i++) {
+      otherBoards.add(new SpeciesList(Arrays.asList(
+              SpeciesBoard.builder().pop(3).body(i % 5).traits("climbing").build(),
+              SpeciesBoard.builder().pop(2).body(1).build()
+      )));
+    }
+
+    this.generator = MoveGenerator.of(player);
+    this.feedMovesPerOp = MoveGenerator.feedMoves(player, otherBoards, 3).size();
+    this.action4sPerOp = generator.countAction4s(ENUMERATION_LIMIT);
+  }
+
+  /**
+   * Effect: measures the feeding moves, the enumerated choices and the random choices
+   *
+   * @param runner the {@link BenchRunner} to measure with
+   */
+  public void run(BenchRunner runner) {
+    runner.measure("moveGen/feedMoves", feedMovesPerOp,
+            () -> MoveGenerator.feedMoves(player, otherBoards, 3));
+    runner.measure("moveGen/countAction4s", action4sPerOp,
+            () -> generator.countAction4s(ENUMERATION_LIMIT));
+    runner.measure("moveGen/randomAction4", 1, () -> generator.randomAction4(random));
+  }
+}
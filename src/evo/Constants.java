@@ -23,9 +23,11 @@ public final class Constants {
 
   public static final int MAX_RESPONSE_TIME = 10;
   public static final TimeUnit TIME_UNIT = TimeUnit.SECONDS;
+  public static final long QUERY_THREAD_KEEP_ALIVE = 60;
   
   public static final long SIGNUP_DELAY = 3;
   public static final TimeUnit SIGNUP_UNIT = TimeUnit.SECONDS;
+  public static final int MAX_SIGNUP_SIZE = 1024;
 
   public static final int DEFAULT_FOOD_VAL = 0;
   public static final int DEFAULT_WH_VAL = 0;
@@ -7,6 +7,7 @@ import com.google.gson.stream.JsonToken;
 import evo.game.Dealer;
 import evo.game.EvoPlayer;
 import evo.game.IllegalResponseException;
+import evo.game.PackedState;
 import evo.game.SpeciesBoard;
 import evo.game.choose.Action4;
 import evo.game.feed.FeedResponse;
@@ -15,48 +16,267 @@ import evo.game.list.SpeciesList;
 import evo.json.JFactory;
 import evo.json.JUtils;
 
+import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Created by jackfriedson on 5/10/16.
  */
 public class TestHarnessMain {
+  private static final String PACKED_MODE = "packed";
+  private static final String STREAM_MODE = "stream";
+  private static final String BATCH_MODE = "batch";
+  private static final String INPUT_SUFFIX = "in.json";
+  private static final String OUTPUT_SUFFIX = "out.json";
+  private static final String TEST_DIR_SUFFIX = "_test_files";
 
+  /**
+   * Runs the harness of the given type on the JSON read from standard input. Passing "packed" as a
+   * second argument plays the attack, step and step4 harnesses on a {@link PackedState} instead
+   * of the {@link Dealer}, which must give the same results. Passing "stream" (as well, or instead)
+   * runs the harness on every JSON value read from standard input in turn (see
+   * {@link #runStream(String, boolean, Reader, Writer)}).
+   *
+   * Passing "batch" instead of a type, followed by an optional "packed" and any number of
+   * directories, runs every test case in them in this JVM (see {@link #runBatch(List, boolean)}),
+   * and exits with a non-zero status if any of them fails.
+   */
   public static void main(String[] args) {
-    if (args.length != 1) throw new IllegalArgumentException("Must specify the type of harness");
+    if (args.length >= 1 && args[0].equals(BATCH_MODE)) {
+      boolean packed = args.length > 1 && args[1].equals(PACKED_MODE);
+      List<Path> dirs = new ArrayList<>();
+      for (int i = packed ? 2 : 1; i < args.length; i++) dirs.add(Paths.get(args[i]));
+      if (dirs.isEmpty()) throw new IllegalArgumentException("Must specify a test directory");
+      System.exit(runBatch(dirs, packed) ? 0 : 1);
+    }
+
+    if (args.length < 1 || args.length > 3)
+      throw new IllegalArgumentException("Must specify the type of harness");
+    boolean packed = false;
+    boolean stream = false;
+    for (int i = 1; i < args.length; i++) {
+      if (args[i].equals(PACKED_MODE)) packed = true;
+      else if (args[i].equals(STREAM_MODE)) stream = true;
+      else throw new IllegalArgumentException("Unknown harness option: " + args[i]);
+    }
 
     String harnessType = args[0];
-    JsonReader reader = new JsonReader(new InputStreamReader(System.in));
+    if (packed && !hasPackedMode(harnessType))
+      throw new IllegalArgumentException("The " + harnessType + " harness has no packed mode");
+
+    if (stream) {
+      Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+      try { runStream(harnessType, packed, new InputStreamReader(System.in), out); }
+      catch (IOException e) { throw new UncheckedIOException(e); }
+      return;
+    }
+
+    String output = run(harnessType, packed, new InputStreamReader(System.in));
+    if (!output.isEmpty()) System.out.println(output);
+  }
 
+  /**
+   * Runs the harness of the given type on the JSON read from the given reader
+   *
+   * @param harnessType the type of harness: attack, feed, step, step4 or choose
+   * @param packed whether to play the harness on a {@link PackedState} (see {@link #main})
+   * @param input the {@link Reader} of the harness's input
+   * @return the harness's output as JSON, or the empty string if a player gave an illegal response
+   */
+  public static String run(String harnessType, boolean packed, Reader input) {
+    return run(harnessType, packed, new JsonReader(input));
+  }
+
+  /**
+   * Effect: runs the harness of the given type on each JSON value read from the given input in
+   *         turn, until the input ends, and writes each output (see
+   *         {@link #run(String, boolean, Reader)}) on a line of its own as soon as it is produced,
+   *         an empty line standing for an illegal response. The values may be separated by any
+   *         whitespace (or none); only one is held in memory at a time, so an input of any size
+   *         runs in constant memory. The output is flushed when the input ends.
+   *
+   * @param harnessType the type of harness: attack, feed, step, step4 or choose
+   * @param packed whether to play the harness on a {@link PackedState} (see {@link #main})
+   * @param input the {@link Reader} of the harness's inputs
+   * @param output the {@link Writer} to write the outputs to, which should be buffered
+   * @throws IOException if the input cannot be read or the output cannot be written
+   */
+  public static void runStream(String harnessType, boolean packed, Reader input, Writer output)
+          throws IOException {
+    JsonReader reader = new JsonReader(input);
+    reader.setLenient(true);
+    while (reader.peek() != JsonToken.END_DOCUMENT) {
+      output.write(run(harnessType, packed, reader));
+      output.write('\n');
+    }
+    output.flush();
+  }
+
+  /**
+   * Runs the harness of the given type on the next JSON value of the given reader
+   */
+  private static String run(String harnessType, boolean packed, JsonReader reader) {
     try {
       switch (harnessType) {
         case "attack":
-          JsonPrimitive output = new JsonPrimitive(interpretSituation(reader));
-          System.out.println(output);
-          break;
+          return new JsonPrimitive(interpretSituation(reader, packed)).toString();
         case "feed":
-          System.out.println(interpretFeeding(reader).toJson());
-          break;
+          return interpretFeeding(reader).toJson().toString();
         case "step":
-          System.out.println(interpretFeed1(reader).toJson());
-          break;
+          return interpretFeed1(reader, packed).toJson().toString();
         case "step4":
-          System.out.println(interpretStep4(reader).toJson());
-          break;
+          return interpretStep4(reader, packed).toJson().toString();
         case "choose":
-          Action4 playerResponse = interpretChoice(reader);
-          System.out.println(playerResponse.toJson());
-          break;
+          return interpretChoice(reader).toJson().toString();
         default:
           throw new IllegalArgumentException("Must specify a valid test harness type");
       }
     }
     catch (IllegalResponseException e) {
-      System.exit(0);
+      return "";
+    }
+  }
+
+  /**
+   * Determines whether the harness of the given type can be played on a {@link PackedState}
+   */
+  private static boolean hasPackedMode(String harnessType) {
+    return !harnessType.equals("feed") && !harnessType.equals("choose");
+  }
+
+  /**
+   * Effect: runs every test case in the given directories (and the directories below them) side
+   *         by side, and prints whether each one passed and how long it took, in order, followed
+   *         by the number of cases that passed and failed.
+   *
+   * A test case is a file whose name ends in {@value #INPUT_SUFFIX}, in a directory named after
+   * the type of its harness (e.g. attack{@value #TEST_DIR_SUFFIX}), and passes if the harness's
+   * output is the JSON in the file of the same name ending in {@value #OUTPUT_SUFFIX}, ignoring
+   * whitespace. In packed mode, the cases of harnesses that have no packed mode are run as usual.
+   *
+   * @param dirs the directories to look for test cases in
+   * @param packed whether to play the harnesses on a {@link PackedState} where they can be
+   * @return true if every test case passed
+   */
+  public static boolean runBatch(List<Path> dirs, boolean packed) {
+    List<Path> cases = new ArrayList<>();
+    for (Path dir : dirs) {
+      try (Stream<Path> files = Files.walk(dir)) {
+        cases.addAll(files.filter(TestHarnessMain::isTestCase).sorted()
+                .collect(Collectors.toList()));
+      }
+      catch (IOException e) { throw new UncheckedIOException(e); }
     }
+
+    long start = System.nanoTime();
+    int threads = Runtime.getRuntime().availableProcessors();
+    ExecutorService pool = Executors.newFixedThreadPool(threads);
+    int passed = 0;
+    int failed = 0;
+    try {
+      List<Future<CaseResult>> results = new ArrayList<>(cases.size());
+      for (Path testCase : cases) results.add(pool.submit(() -> runCase(testCase, packed)));
+      for (Future<CaseResult> future : results) {
+        CaseResult result = future.get();
+        if (result.failure.isEmpty()) {
+          passed++;
+          System.out.println(String.format("%s passed! (%.2f ms)", result.name, result.millis));
+        }
+        else {
+          failed++;
+          System.out.println(String.format("\n%s failed with result (%.2f ms):\n%s\n",
+                  result.name, result.millis, result.failure));
+        }
+      }
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Test run interrupted", e);
+    }
+    catch (ExecutionException e) { throw new IllegalStateException(e.getCause()); }
+    finally { pool.shutdownNow(); }
+
+    double seconds = (System.nanoTime() - start) / (double) TimeUnit.SECONDS.toNanos(1);
+    System.out.println(passed + " tests passed");
+    System.out.println(failed + " tests failed");
+    System.out.println(String.format("in %.2fs", seconds));
+    return failed == 0;
+  }
+
+  /**
+   * Determines whether the given file is a test case (see {@link #runBatch(List, boolean)})
+   */
+  private static boolean isTestCase(Path file) {
+    Path dir = file.getParent();
+    return file.getFileName().toString().endsWith(INPUT_SUFFIX) && dir != null
+            && dir.getFileName().toString().endsWith(TEST_DIR_SUFFIX);
+  }
+
+  /**
+   * The outcome of a test case: its name, how long its harness took, and how it failed (or the
+   * empty string if it passed)
+   */
+  private static final class CaseResult {
+    private final String name;
+    private final double millis;
+    private final String failure;
+
+    private CaseResult(String name, double millis, String failure) {
+      this.name = name;
+      this.millis = millis;
+      this.failure = failure;
+    }
+  }
+
+  /**
+   * Runs the given test case
+   *
+   * @return the {@link CaseResult} of the case
+   */
+  private static CaseResult runCase(Path testCase, boolean packed) throws IOException {
+    String dirName = testCase.getParent().getFileName().toString();
+    String harnessType = dirName.substring(0, dirName.length() - TEST_DIR_SUFFIX.length());
+    String fileName = testCase.getFileName().toString();
+    Path expectedFile = testCase.resolveSibling(
+            fileName.substring(0, fileName.length() - INPUT_SUFFIX.length()) + OUTPUT_SUFFIX);
+
+    long start = System.nanoTime();
+    String actual;
+    try (Reader input = Files.newBufferedReader(testCase)) {
+      actual = run(harnessType, packed && hasPackedMode(harnessType), input);
+    }
+    catch (RuntimeException e) {
+      actual = e.toString();
+    }
+    double millis = (System.nanoTime() - start) / (double) TimeUnit.MILLISECONDS.toNanos(1);
+
+    String expected = new String(Files.readAllBytes(expectedFile), StandardCharsets.UTF_8);
+    if (stripWhitespace(actual).equals(stripWhitespace(expected)))
+      return new CaseResult(fileName, millis, "");
+    return new CaseResult(fileName, millis, "expected " + stripWhitespace(expected)
+            + "\nbut got  " + stripWhitespace(actual));
+  }
+
+  /**
+   * Removes every whitespace character from the given string
+   */
+  private static String stripWhitespace(String s) {
+    return s.replaceAll("\\s", "");
   }
 
   /**
@@ -83,14 +303,19 @@ public class TestHarnessMain {
    *
    * Each Action4 specifies what the corresponding player object wishes to do with its cards.
    */
-  private static Dealer interpretStep4(JsonReader reader) {
+  private static Dealer interpretStep4(JsonReader reader, boolean packed) {
     try {
       reader.beginArray();
       Dealer dealer = JFactory.fromJson(reader, Dealer.class);
       List<Action4> action4List = JUtils.readList(reader, Action4.class);
-      dealer.step4(action4List);
       reader.endArray();
-      return dealer;
+      if (!packed) {
+        dealer.step4(action4List);
+        return dealer;
+      }
+      PackedState state = PackedState.of(dealer);
+      state.step4(action4List);
+      return state.toDealer();
     } catch (IOException e) { throw new JsonParseException(e); }
   }
 
@@ -104,10 +329,15 @@ public class TestHarnessMain {
    *
    * The list of cards is the remaining deck of cards; the cards are handed out in this order.
    */
-  private static Dealer interpretFeed1(JsonReader reader) {
+  private static Dealer interpretFeed1(JsonReader reader, boolean packed) {
     Dealer dealer = JFactory.fromJson(reader, Dealer.class);
-    dealer.feed1();
-    return dealer;
+    if (!packed) {
+      dealer.feed1();
+      return dealer;
+    }
+    PackedState state = PackedState.of(dealer);
+    state.feed1();
+    return state.toDealer();
   }
 
   /**
@@ -127,8 +357,11 @@ public class TestHarnessMain {
 
   /**
    * A Situation is [Species, Species, OptSpecies, OptSpecies]
+   *
+   * In packed mode, the defender and its neighbors are the boards of one player, and the attacker
+   * is the only board of another.
    */
-  private static boolean interpretSituation(JsonReader reader) {
+  private static boolean interpretSituation(JsonReader reader, boolean packed) {
     try {
       reader.beginArray();
       SpeciesBoard defender = JFactory.fromJson(reader, SpeciesBoard.class);
@@ -136,7 +369,17 @@ public class TestHarnessMain {
       Optional<SpeciesBoard> left = optSpeciesFromJson(reader);
       Optional<SpeciesBoard> right = optSpeciesFromJson(reader);
       reader.endArray();
-      return attacker.canAttack(defender, left, right);
+      if (!packed) return attacker.canAttack(defender, left, right);
+
+      SpeciesList defenders = new SpeciesList();
+      left.ifPresent(defenders::add);
+      defenders.add(defender);
+      right.ifPresent(defenders::add);
+      PlayerList players = new PlayerList();
+      players.add(EvoPlayer.builder().id(1).boards(defenders).build());
+      players.add(EvoPlayer.builder().id(2).boards(attacker).build());
+      PackedState state = PackedState.of(Dealer.builder().players(players).build());
+      return state.canAttack(1, 0, 0, left.isPresent() ? 1 : 0);
     } catch (IOException e) { throw new JsonParseException(e); }
   }
 
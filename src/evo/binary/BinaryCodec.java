@@ -0,0 +1,408 @@
+package evo.binary;
+
+import evo.Constants;
+import evo.game.BasePlayer;
+import evo.game.InvalidEvoElementException;
+import evo.game.SpeciesBoard;
+import evo.game.TraitCard;
+import evo.game.TraitName;
+import evo.game.choose.*;
+import evo.game.feed.*;
+import evo.game.list.CardList;
+import evo.game.list.SpeciesList;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads and writes game messages in the compact binary format, the binary counterpart of
+ * {@link evo.json.JUtils}.
+ *
+ * Every number is a varint: 7 bits per byte, lowest bits first, with the high bit set on every
+ * byte but the last, so the small numbers that make up a game state take a single byte. A list is
+ * its length followed by its elements, and a string is its length in bytes followed by its UTF-8
+ * bytes.
+ */
+public final class BinaryCodec {
+  private static final int VARINT_BITS = 7;
+  private static final int VARINT_MASK = 0x7f;
+  private static final int VARINT_MORE = 0x80;
+  private static final int MAX_VARINT_BYTES = 5;
+  private static final int STRING_CHUNK = 1 << 13;
+
+  private static final int CARN_CODES = Constants.MAX_CARN_FOODVAL - Constants.MIN_CARN_FOODVAL + 1;
+  private static final int VEG_CODES = Constants.MAX_VEG_FOODVAL - Constants.MIN_VEG_FOODVAL + 1;
+  private static final int NUM_CARD_CODES = CARN_CODES + (TraitName.values().length - 1) * VEG_CODES;
+
+  private static final int FIELD_BITS = 3;
+  private static final int FIELD_MASK = (1 << FIELD_BITS) - 1;
+  private static final int COUNT_BITS = 2;
+  private static final int COUNT_MASK = (1 << COUNT_BITS) - 1;
+  private static final int TRAIT_BITS = 4;
+  private static final int TRAIT_MASK = (1 << TRAIT_BITS) - 1;
+  private static final int BODY_SHIFT = FIELD_BITS;
+  private static final int POP_SHIFT = 2 * FIELD_BITS;
+  private static final int FAT_SHIFT = 3 * FIELD_BITS;
+  private static final int COUNT_SHIFT = 4 * FIELD_BITS;
+  private static final int TRAITS_SHIFT = COUNT_SHIFT + COUNT_BITS;
+
+  private static final int FEED_NOTHING = 0;
+  private static final int FEED_VEG = 1;
+  private static final int FEED_FAT = 2;
+  private static final int FEED_CARN = 3;
+
+  private BinaryCodec() { }
+
+  /**
+   * Effect: writes the given number as a varint
+   *
+   * @param out the {@link DataOutput} to write to
+   * @param value the number to write; negative numbers take the full five bytes
+   */
+  public static void writeVarint(DataOutput out, int value) throws IOException {
+    while ((value & ~VARINT_MASK) != 0) {
+      out.writeByte((value & VARINT_MASK) | VARINT_MORE);
+      value >>>= VARINT_BITS;
+    }
+    out.writeByte(value);
+  }
+
+  /**
+   * Reads the next varint
+   *
+   * @param in the {@link DataInput} to read from
+   * @return the number read
+   * @throws BinaryParseException if the varint is longer than an int allows
+   */
+  public static int readVarint(DataInput in) throws IOException {
+    int result = 0;
+    for (int i = 0; i < MAX_VARINT_BYTES; i++) {
+      int b = in.readUnsignedByte();
+      result |= (b & VARINT_MASK) << (i * VARINT_BITS);
+      if ((b & VARINT_MORE) == 0) return result;
+    }
+    throw new BinaryParseException("Varint is too long");
+  }
+
+  /**
+   * Reads the next varint, which must be a natural number
+   *
+   * @param in the {@link DataInput} to read from
+   * @return the natural number
+   */
+  public static int readNat(DataInput in) throws IOException {
+    int n = readVarint(in);
+    if (n < 0) throw new BinaryParseException("Natural numbers cannot be negative");
+    return n;
+  }
+
+  /**
+   * Effect: writes the given string as its length in bytes followed by its UTF-8 bytes, so unlike
+   *         {@link DataOutput#writeUTF(String)} it can be of any length
+   *
+   * @param out the {@link DataOutput} to write to
+   * @param value the string to write
+   */
+  public static void writeString(DataOutput out, String value) throws IOException {
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    writeVarint(out, bytes.length);
+    out.write(bytes);
+  }
+
+  /**
+   * Reads the next string (see {@link #writeString(DataOutput, String)}). The bytes are read a
+   * chunk at a time, so a corrupt length runs into the end of the input before much is allocated.
+   *
+   * @param in the {@link DataInput} to read from
+   * @return the string read
+   */
+  public static String readString(DataInput in) throws IOException {
+    int length = readNat(in);
+    byte[] chunk = new byte[Math.min(length, STRING_CHUNK)];
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(chunk.length);
+    int left = length;
+    while (left > 0) {
+      int n = Math.min(left, chunk.length);
+      in.readFully(chunk, 0, n);
+      bytes.write(chunk, 0, n);
+      left -= n;
+    }
+    return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+  }
+
+
+  /**
+   * A Card is a single code: carnivore cards take the first codes (one per food value), and each
+   * other trait takes a run of codes after those (one per food value, in {@link TraitName} order).
+   */
+
+  public static int cardCode(TraitCard card) {
+    if (!card.isValid()) throw new IllegalArgumentException("Invalid card: " + card);
+    TraitName name = card.getName();
+    if (name == TraitName.CARNIVORE)
+      return card.getFoodPoints() - Constants.MIN_CARN_FOODVAL;
+    return CARN_CODES + (name.ordinal() - 1) * VEG_CODES
+            + card.getFoodPoints() - Constants.MIN_VEG_FOODVAL;
+  }
+
+  public static TraitCard fromCardCode(int code) {
+    if (code < 0 || code >= NUM_CARD_CODES)
+      throw new BinaryParseException("Invalid card code: " + code);
+    if (code < CARN_CODES)
+      return new TraitCard(code + Constants.MIN_CARN_FOODVAL, TraitName.CARNIVORE);
+    int vegCode = code - CARN_CODES;
+    return new TraitCard(vegCode % VEG_CODES + Constants.MIN_VEG_FOODVAL,
+            TraitName.values()[vegCode / VEG_CODES + 1]);
+  }
+
+
+  /**
+   * A Species is a single number packing its food, body, population and fat food (3 bits each),
+   * the number of its traits (2 bits) and the ordinal of each trait (4 bits each, in board order,
+   * since replacing a trait refers to it by position). As on the JSON wire, trait cards on a board
+   * carry no food value.
+   */
+
+  public static int packBoard(SpeciesBoard board) {
+    CardList traits = board.getTraitCards();
+    int packed = field(board.getFoodSupply())
+            | field(board.getBodySize()) << BODY_SHIFT
+            | field(board.getPopulationSize()) << POP_SHIFT
+            | field(board.getFatFood()) << FAT_SHIFT
+            | traits.size() << COUNT_SHIFT;
+    for (int i = 0; i < traits.size(); i++)
+      packed |= traits.get(i).getName().ordinal() << (TRAITS_SHIFT + i * TRAIT_BITS);
+    return packed;
+  }
+
+  public static SpeciesBoard unpackBoard(int packed) {
+    List<TraitCard> traits = new ArrayList<>();
+    int count = packed >>> COUNT_SHIFT & COUNT_MASK;
+    for (int i = 0; i < count; i++) {
+      int ordinal = packed >>> (TRAITS_SHIFT + i * TRAIT_BITS) & TRAIT_MASK;
+      traits.add(new TraitCard(Constants.DEFAULT_FOOD_VAL, TraitName.values()[ordinal]));
+    }
+    if (packed >>> (TRAITS_SHIFT + count * TRAIT_BITS) != 0)
+      throw new BinaryParseException("Invalid species: " + packed);
+
+    try {
+      return SpeciesBoard.builder()
+              .food(packed & FIELD_MASK)
+              .body(packed >>> BODY_SHIFT & FIELD_MASK)
+              .pop(packed >>> POP_SHIFT & FIELD_MASK)
+              .fat(packed >>> FAT_SHIFT & FIELD_MASK)
+              .traits(traits)
+              .build();
+    }
+    catch (InvalidEvoElementException e) { throw new BinaryParseException(e); }
+  }
+
+  private static int field(int value) {
+    if ((value & ~FIELD_MASK) != 0) throw new IllegalArgumentException("Cannot pack: " + value);
+    return value;
+  }
+
+
+  /**
+   * A PlayerState is [Natural, LOS, Cards], i.e. the bag, boards and hand of a player.
+   * A LOB is [LOS, ...].
+   */
+
+  public static void writeBoards(DataOutput out, SpeciesList boards) throws IOException {
+    writeVarint(out, boards.size());
+    for (SpeciesBoard board : boards) writeVarint(out, packBoard(board));
+  }
+
+  public static SpeciesList readBoards(DataInput in) throws IOException {
+    int size = readNat(in);
+    SpeciesList result = new SpeciesList();
+    for (int i = 0; i < size; i++) result.add(unpackBoard(readVarint(in)));
+    return result;
+  }
+
+  public static void writeHand(DataOutput out, CardList hand) throws IOException {
+    writeVarint(out, hand.size());
+    for (TraitCard card : hand) out.writeByte(cardCode(card));
+  }
+
+  public static CardList readHand(DataInput in) throws IOException {
+    int size = readNat(in);
+    CardList result = new CardList();
+    for (int i = 0; i < size; i++) result.add(fromCardCode(in.readUnsignedByte()));
+    return result;
+  }
+
+  public static void writeLOB(DataOutput out, List<SpeciesList> lob) throws IOException {
+    writeVarint(out, lob.size());
+    for (SpeciesList boards : lob) writeBoards(out, boards);
+  }
+
+  public static List<SpeciesList> readLOB(DataInput in) throws IOException {
+    int size = readNat(in);
+    List<SpeciesList> result = new ArrayList<>();
+    for (int i = 0; i < size; i++) result.add(readBoards(in));
+    return result;
+  }
+
+  public static void writePlayerState(DataOutput out, BasePlayer player) throws IOException {
+    writeVarint(out, player.getBag());
+    writeBoards(out, player.getBoards());
+    writeHand(out, player.getHand());
+  }
+
+  public static BasePlayer readPlayerState(DataInput in) throws IOException {
+    BasePlayer.BasePlayerBuilder builder = BasePlayer.builder();
+    builder.bag(readNat(in));
+    builder.boards(readBoards(in));
+    builder.hand(readHand(in));
+    try { return builder.build(); }
+    catch (InvalidEvoElementException e) { throw new BinaryParseException(e); }
+  }
+
+
+  /**
+   * A StartMsg is [Natural, PlayerState], i.e. the watering hole and the player's state.
+   * A ChooseMsg is [LOB, LOB].
+   * A FeedNextMsg is [PlayerState, Natural, LOB], i.e. the player's state, the watering hole and
+   * everyone else's boards.
+   */
+
+  public static void writeStartMsg(DataOutput out, int wh, BasePlayer player) throws IOException {
+    writeVarint(out, wh);
+    writePlayerState(out, player);
+  }
+
+  public static void writeChooseMsg(DataOutput out, List<SpeciesList> before,
+                                    List<SpeciesList> after) throws IOException {
+    writeLOB(out, before);
+    writeLOB(out, after);
+  }
+
+  public static void writeFeedNextMsg(DataOutput out, BasePlayer player,
+                                      List<SpeciesList> allBoards, int tokens) throws IOException {
+    writePlayerState(out, player);
+    writeVarint(out, tokens);
+    writeLOB(out, allBoards);
+  }
+
+
+  /**
+   * An Action4 is [Natural, [GP, ...], [GB, ...], [BT, ...], [RT, ...]], where
+   * a GP or GB is [Natural, Natural] (species, card),
+   * a BT is [Natural, [Natural, ...]] (card, traits) and
+   * an RT is [Natural, Natural, Natural] (species, replaced trait, card).
+   */
+
+  public static void writeAction4(DataOutput out, Action4 action4) throws IOException {
+    writeVarint(out, action4.getFoodCardIdx());
+
+    writeVarint(out, action4.getGrowPops().size());
+    for (GrowPop gp : action4.getGrowPops()) {
+      writeVarint(out, gp.getSpeciesIdx());
+      writeVarint(out, gp.getCardIdx());
+    }
+
+    writeVarint(out, action4.getGrowBodies().size());
+    for (GrowBody gb : action4.getGrowBodies()) {
+      writeVarint(out, gb.getSpeciesIdx());
+      writeVarint(out, gb.getCardIdx());
+    }
+
+    writeVarint(out, action4.getBoardTrades().size());
+    for (BoardTrade bt : action4.getBoardTrades()) {
+      writeVarint(out, bt.getCardIdx());
+      writeVarint(out, bt.getTraitIdxs().size());
+      for (int traitIdx : bt.getTraitIdxs()) writeVarint(out, traitIdx);
+    }
+
+    writeVarint(out, action4.getReplaceTraits().size());
+    for (ReplaceTrait rt : action4.getReplaceTraits()) {
+      writeVarint(out, rt.getSpeciesIdx());
+      writeVarint(out, rt.getToReplaceIdx());
+      writeVarint(out, rt.getCardIdx());
+    }
+  }
+
+  public static Action4 readAction4(DataInput in) throws IOException {
+    Action4 result = new Action4(readNat(in));
+
+    for (int n = readNat(in); n > 0; n--) {
+      int speciesIdx = readNat(in);
+      result.addGrowPop(new GrowPop(readNat(in), speciesIdx));
+    }
+
+    for (int n = readNat(in); n > 0; n--) {
+      int speciesIdx = readNat(in);
+      result.addGrowBody(new GrowBody(readNat(in), speciesIdx));
+    }
+
+    for (int n = readNat(in); n > 0; n--) {
+      int cardIdx = readNat(in);
+      List<Integer> traitIdxs = new ArrayList<>();
+      for (int k = readNat(in); k > 0; k--) traitIdxs.add(readNat(in));
+      result.addBoardTrade(new BoardTrade(cardIdx, traitIdxs));
+    }
+
+    for (int n = readNat(in); n > 0; n--) {
+      int speciesIdx = readNat(in);
+      int toReplaceIdx = readNat(in);
+      result.addReplaceTrait(new ReplaceTrait(readNat(in), toReplaceIdx, speciesIdx));
+    }
+
+    return result;
+  }
+
+
+  /**
+   * A FeedingChoice is a tag followed by its indices:
+   * - 0 for no feeding
+   * - 1 and a Natural for a VegetarianChoice
+   * - 2 and [Natural, Nat+] for a FatTissueChoice
+   * - 3 and [Natural, Natural, Natural] for a CarnivoreChoice
+   */
+
+  public static void writeFeedResponse(DataOutput out, FeedResponse response) throws IOException {
+    if (response instanceof FeedVeg) {
+      writeVarint(out, FEED_VEG);
+      writeVarint(out, ((FeedVeg) response).getToFeedIdx());
+    }
+    else if (response instanceof FeedFat) {
+      FeedFat fat = (FeedFat) response;
+      writeVarint(out, FEED_FAT);
+      writeVarint(out, fat.getToStoreIdx());
+      writeVarint(out, fat.getNumTokens());
+    }
+    else if (response instanceof FeedCarn) {
+      FeedCarn carn = (FeedCarn) response;
+      writeVarint(out, FEED_CARN);
+      writeVarint(out, carn.getAttackerIdx());
+      writeVarint(out, carn.getVictimOwnerIdx());
+      writeVarint(out, carn.getVictimIdx());
+    }
+    else writeVarint(out, FEED_NOTHING);
+  }
+
+  public static FeedResponse readFeedResponse(DataInput in) throws IOException {
+    int tag = readNat(in);
+    switch (tag) {
+      case FEED_NOTHING:
+        return new FeedNothing();
+      case FEED_VEG:
+        return new FeedVeg(readNat(in));
+      case FEED_FAT:
+        int toStoreIdx = readNat(in);
+        return new FeedFat(toStoreIdx, readNat(in));
+      case FEED_CARN:
+        int attackerIdx = readNat(in);
+        int victimOwnerIdx = readNat(in);
+        return new FeedCarn(attackerIdx, victimOwnerIdx, readNat(in));
+      default:
+        throw new BinaryParseException("Invalid feeding choice: " + tag);
+    }
+  }
+}
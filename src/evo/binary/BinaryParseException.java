@@ -0,0 +1,16 @@
+package evo.binary;
+
+/**
+ * Thrown when a binary message cannot be decoded into the game element it should represent
+ */
+public class BinaryParseException extends IllegalArgumentException {
+
+  public BinaryParseException() {}
+  public BinaryParseException(String message) { super(message); }
+  public BinaryParseException(Throwable cause) {
+    super(cause);
+  }
+  public BinaryParseException(String message, Throwable cause) {
+    super(message, cause);
+  }
+}
@@ -0,0 +1,233 @@
+package evo.binary;
+
+import evo.game.BasePlayer;
+import evo.game.InvalidEvoElementException;
+import evo.game.TraitCard;
+import evo.game.list.CardList;
+import evo.game.list.SpeciesList;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reads and writes the delta-encoded game state of one connection. Both ends keep a mirror of the
+ * state the client last saw (the player's packed boards and hand, and the packed boards of every
+ * other player), so that a feedNext message only has to carry what changed since: the bag and the
+ * tokens, the boards that were removed, changed or added, and the hand if it changed at all.
+ *
+ * The start of every turn carries the player's full state, since dealing and playing cards has
+ * changed most of it; the other players' boards are only ever sent as changes, and so are sent in
+ * full the first time they are seen.
+ */
+public final class DeltaCodec {
+  private static final int[] NONE = new int[0];
+  private static final int HAND_UNCHANGED = 0;
+  private static final int HAND_CHANGED = 1;
+
+  private int[] boards = NONE;
+  private int[] hand = NONE;
+  private final List<int[]> others = new ArrayList<>();
+
+  /**
+   * A StartMsg is [Natural, PlayerState], exactly as in {@link BinaryCodec}.
+   * A FeedNextMsg is [PlayerDelta, Natural, [BoardsDelta, ...]], i.e. the changes to the player's
+   * state, the watering hole and the changes to everyone else's boards.
+   */
+
+  public void writeStartMsg(DataOutput out, int wh, BasePlayer player) throws IOException {
+    BinaryCodec.writeVarint(out, wh);
+    BinaryCodec.writeVarint(out, player.getBag());
+    boards = packBoards(player.getBoards());
+    writePacked(out, boards);
+    hand = cardCodes(player.getHand());
+    writePacked(out, hand);
+  }
+
+  public void writeFeedNextMsg(DataOutput out, BasePlayer player, List<SpeciesList> allBoards,
+                               int tokens) throws IOException {
+    BinaryCodec.writeVarint(out, player.getBag());
+    boards = writeBoardsDelta(out, boards, packBoards(player.getBoards()));
+
+    int[] newHand = cardCodes(player.getHand());
+    if (Arrays.equals(hand, newHand)) BinaryCodec.writeVarint(out, HAND_UNCHANGED);
+    else {
+      BinaryCodec.writeVarint(out, HAND_CHANGED);
+      writePacked(out, newHand);
+      hand = newHand;
+    }
+
+    BinaryCodec.writeVarint(out, tokens);
+
+    BinaryCodec.writeVarint(out, allBoards.size());
+    for (int i = 0; i < allBoards.size(); i++) {
+      int[] current = packBoards(allBoards.get(i));
+      if (i < others.size()) others.set(i, writeBoardsDelta(out, others.get(i), current));
+      else others.add(writeBoardsDelta(out, NONE, current));
+    }
+    others.subList(allBoards.size(), others.size()).clear();
+  }
+
+  /**
+   * Reads the player's state at the start of a turn, after the watering hole
+   *
+   * @param in the {@link DataInput} to read from
+   * @return the player's full state
+   */
+  public BasePlayer readStartState(DataInput in) throws IOException {
+    int bag = BinaryCodec.readNat(in);
+    boards = readPacked(in);
+    hand = readPacked(in);
+    return playerState(bag);
+  }
+
+  /**
+   * Reads the changes to the player's state at the start of a feedNext message, and applies them
+   * to the mirror
+   *
+   * @param in the {@link DataInput} to read from
+   * @return the player's updated state
+   */
+  public BasePlayer readFeedNextState(DataInput in) throws IOException {
+    int bag = BinaryCodec.readNat(in);
+    boards = readBoardsDelta(in, boards);
+    if (BinaryCodec.readNat(in) == HAND_CHANGED) hand = readPacked(in);
+    return playerState(bag);
+  }
+
+  /**
+   * Reads the changes to the other players' boards at the end of a feedNext message, after the
+   * watering hole, and applies them to the mirror
+   *
+   * @param in the {@link DataInput} to read from
+   * @return the other players' updated boards
+   */
+  public List<SpeciesList> readFeedNextBoards(DataInput in) throws IOException {
+    int size = BinaryCodec.readNat(in);
+    List<SpeciesList> result = new ArrayList<>();
+    for (int i = 0; i < size; i++) {
+      int[] current = readBoardsDelta(in, i < others.size() ? others.get(i) : NONE);
+      if (i < others.size()) others.set(i, current);
+      else others.add(current);
+      result.add(unpackBoards(current));
+    }
+    others.subList(size, others.size()).clear();
+    return result;
+  }
+
+
+  /**
+   * A BoardsDelta is [[Natural, ...], Natural, [[Natural, Species], ...]]: the positions of the
+   * removed boards in the old list, the size of the new list, and the position and value of every
+   * board of the new list that differs from what is left of the old one (which includes every
+   * added board).
+   *
+   * Boards only go extinct one at a time during feeding, so the removed boards are found by
+   * dropping the first boards that no longer line up; any other guess would still be correct,
+   * just larger.
+   */
+
+  private static int[] writeBoardsDelta(DataOutput out, int[] old, int[] current)
+          throws IOException {
+    int toRemove = Math.max(0, old.length - current.length);
+    int[] removed = new int[toRemove];
+    int[] kept = new int[old.length];
+    int numRemoved = 0;
+    int numKept = 0;
+    for (int i = 0; i < old.length; i++) {
+      if (numRemoved < toRemove && (numKept >= current.length || old[i] != current[numKept]))
+        removed[numRemoved++] = i;
+      else kept[numKept++] = old[i];
+    }
+
+    BinaryCodec.writeVarint(out, numRemoved);
+    for (int i = 0; i < numRemoved; i++) BinaryCodec.writeVarint(out, removed[i]);
+
+    BinaryCodec.writeVarint(out, current.length);
+    int numChanged = 0;
+    for (int i = 0; i < current.length; i++)
+      if (i >= numKept || kept[i] != current[i]) numChanged++;
+    BinaryCodec.writeVarint(out, numChanged);
+    for (int i = 0; i < current.length; i++) {
+      if (i >= numKept || kept[i] != current[i]) {
+        BinaryCodec.writeVarint(out, i);
+        BinaryCodec.writeVarint(out, current[i]);
+      }
+    }
+    return current;
+  }
+
+  private static int[] readBoardsDelta(DataInput in, int[] old) throws IOException {
+    int numRemoved = BinaryCodec.readNat(in);
+    if (numRemoved > old.length) throw new BinaryParseException("Too many removed boards");
+    int[] kept = new int[old.length - numRemoved];
+    int numKept = 0;
+    int next = 0;
+    for (int k = 0; k < numRemoved; k++) {
+      int removedIdx = BinaryCodec.readNat(in);
+      if (removedIdx < next || removedIdx >= old.length)
+        throw new BinaryParseException("Invalid removed board: " + removedIdx);
+      while (next < removedIdx) kept[numKept++] = old[next++];
+      next++;
+    }
+    while (next < old.length) kept[numKept++] = old[next++];
+
+    int size = BinaryCodec.readNat(in);
+    int[] result = Arrays.copyOf(kept, size);
+    int numChanged = BinaryCodec.readNat(in);
+    int numAdded = 0;
+    int last = -1;
+    for (int k = 0; k < numChanged; k++) {
+      int idx = BinaryCodec.readNat(in);
+      if (idx <= last || idx >= size) throw new BinaryParseException("Invalid changed board: " + idx);
+      result[idx] = BinaryCodec.readVarint(in);
+      if (idx >= numKept) numAdded++;
+      last = idx;
+    }
+    if (numAdded != Math.max(0, size - numKept))
+      throw new BinaryParseException("Missing added boards");
+    return result;
+  }
+
+
+  private static void writePacked(DataOutput out, int[] packed) throws IOException {
+    BinaryCodec.writeVarint(out, packed.length);
+    for (int value : packed) BinaryCodec.writeVarint(out, value);
+  }
+
+  private static int[] readPacked(DataInput in) throws IOException {
+    int[] result = new int[BinaryCodec.readNat(in)];
+    for (int i = 0; i < result.length; i++) result[i] = BinaryCodec.readVarint(in);
+    return result;
+  }
+
+  private static int[] packBoards(SpeciesList list) {
+    int[] result = new int[list.size()];
+    for (int i = 0; i < result.length; i++) result[i] = BinaryCodec.packBoard(list.get(i));
+    return result;
+  }
+
+  private static SpeciesList unpackBoards(int[] packed) {
+    SpeciesList result = new SpeciesList();
+    for (int value : packed) result.add(BinaryCodec.unpackBoard(value));
+    return result;
+  }
+
+  private static int[] cardCodes(CardList cards) {
+    int[] result = new int[cards.size()];
+    for (int i = 0; i < result.length; i++) result[i] = BinaryCodec.cardCode(cards.get(i));
+    return result;
+  }
+
+  private BasePlayer playerState(int bag) {
+    List<TraitCard> cards = new ArrayList<>();
+    for (int code : hand) cards.add(BinaryCodec.fromCardCode(code));
+    try {
+      return BasePlayer.builder().bag(bag).boards(unpackBoards(boards)).hand(cards).build();
+    }
+    catch (InvalidEvoElementException e) { throw new BinaryParseException(e); }
+  }
+}
@@ -0,0 +1,161 @@
+package evo.fuzz;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonPrimitive;
+import evo.Constants;
+import evo.game.*;
+import evo.game.list.PlayerList;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Generates random, valid inputs for the test harnesses (see {@link evo.TestHarnessMain}), in the
+ * JSON format of the harnesses: attack situations, and dealer configurations in the middle of a
+ * feeding round (for step) or at the end of a turn's choices (for step4).
+ *
+ * Every board has between 1 and 7 members of any body size, at most as much food as members, up
+ * to three different traits (with as much fat food as its body size allows, if it has fat
+ * tissue), and every card in a configuration's hands and deck is a different card of the game,
+ * so every input is one a dealer could be given. Carnivores are made more likely than the other
+ * traits, so that attacks, which most optimizations are about, come up often.
+ */
+public final class ConfigGenerator {
+  private static final TraitName[] TRAITS = TraitName.values();
+  private static final int MAX_BOARDS = 4;
+  private static final int MAX_HAND = 5;
+  private static final int MAX_BAG = 10;
+  private static final int MAX_WH = 15;
+  private static final int MAX_DECK = 20;
+  private static final double CARNIVORE_CHANCE = 0.35;
+  private static final double ATTACKER_CARNIVORE_CHANCE = 0.8;
+  private static final double NEIGHBOR_CHANCE = 0.5;
+
+  private final SplittableRandom random;
+
+  /**
+   * Creates a generator that draws everything it generates from the given random generator
+   *
+   * @param random the {@link SplittableRandom} to draw from
+   */
+  public ConfigGenerator(SplittableRandom random) {
+    this.random = random;
+  }
+
+  /**
+   * Generates an attack situation, i.e. [Species, Species, OptSpecies, OptSpecies]: a defender,
+   * an attacker (most often a carnivore), and the defender's neighbors, if any
+   */
+  public JsonElement attack() {
+    JsonArray result = new JsonArray();
+    result.add(board(false).toJson());
+    result.add(board(random.nextDouble() < ATTACKER_CARNIVORE_CHANCE).toJson());
+    for (int i = 0; i < 2; i++)
+      result.add(random.nextDouble() < NEIGHBOR_CHANCE
+              ? board(false).toJson() : new JsonPrimitive(false));
+    return result;
+  }
+
+  /**
+   * Generates a configuration in the middle of a feeding round, i.e. [LOP+, Natural, LOC], where
+   * the first player is the next to feed
+   */
+  public JsonElement step() {
+    return dealer(0).toJson();
+  }
+
+  /**
+   * Generates a step 4, i.e. [Configuration, [Action4, ..., Action4]]: a configuration whose
+   * players all have cards, and a legal {@link evo.game.choose.Action4} for each player
+   */
+  public JsonElement step4() {
+    Dealer dealer = dealer(1);
+    JsonArray actions = new JsonArray();
+    for (EvoPlayer player : dealer.getPlayers())
+      actions.add(MoveGenerator.of(player).randomAction4(random).toJson());
+
+    JsonArray result = new JsonArray();
+    result.add(dealer.toJson());
+    result.add(actions);
+    return result;
+  }
+
+  /**
+   * Generates a dealer with between 3 and 8 players, whose hands hold at least the given number of
+   * cards
+   */
+  private Dealer dealer(int minHand) {
+    List<TraitCard> cards = Deck.shuffled(random.nextLong()).getContents();
+    int next = 0;
+
+    int numPlayers = between(Constants.MIN_NUM_PLAYERS, Constants.MAX_NUM_PLAYERS);
+    PlayerList players = new PlayerList();
+    for (int p = 0; p < numPlayers; p++) {
+      List<SpeciesBoard> boards = new ArrayList<>();
+      for (int i = between(0, MAX_BOARDS); i > 0; i--)
+        boards.add(board(random.nextDouble() < CARNIVORE_CHANCE));
+      int handSize = between(minHand, MAX_HAND);
+      players.add(EvoPlayer.builder()
+              .id(Constants.MIN_ID + p)
+              .boards(boards)
+              .hand(new ArrayList<>(cards.subList(next, next + handSize)))
+              .bag(between(Constants.MIN_FOOD_BAG, MAX_BAG))
+              .build());
+      next += handSize;
+    }
+
+    int deckSize = between(0, Math.min(MAX_DECK, cards.size() - next));
+    return Dealer.builder()
+            .players(players)
+            .wh(new WaterHole(between(0, MAX_WH)))
+            .deck(new Deck(new ArrayList<>(cards.subList(next, next + deckSize))))
+            .quiet()
+            .build();
+  }
+
+  /**
+   * Generates a valid board, which has the carnivore trait if asked to
+   */
+  private SpeciesBoard board(boolean carnivore) {
+    List<TraitCard> traits = new ArrayList<>();
+    if (carnivore) traits.add(card(TraitName.CARNIVORE));
+    int numTraits = between(traits.size(), Constants.MAX_TRAITS_PER_BOARD);
+    while (traits.size() < numTraits) {
+      TraitName trait = TRAITS[random.nextInt(TRAITS.length)];
+      boolean taken = false;
+      for (TraitCard card : traits) taken |= card.getName() == trait;
+      if (!taken && (trait != TraitName.CARNIVORE || random.nextDouble() < CARNIVORE_CHANCE))
+        traits.add(card(trait));
+    }
+
+    int pop = between(Constants.MIN_POP_SIZE, Constants.MAX_POP_SIZE);
+    int body = between(Constants.MIN_BODY_SIZE, Constants.MAX_BODY_SIZE);
+    boolean fatTissue = false;
+    for (TraitCard card : traits) fatTissue |= card.getName() == TraitName.FAT_TISSUE;
+    return SpeciesBoard.builder()
+            .pop(pop)
+            .body(body)
+            .food(between(Constants.MIN_FOOD_SIZE, pop))
+            .fat(fatTissue ? between(Constants.MIN_FAT_FOOD, body) : 0)
+            .traits(traits)
+            .build();
+  }
+
+  /**
+   * Generates a card of the given trait, with any food value a card of that trait can have
+   */
+  private TraitCard card(TraitName trait) {
+    return trait == TraitName.CARNIVORE
+            ? new TraitCard(between(Constants.MIN_CARN_FOODVAL, Constants.MAX_CARN_FOODVAL), trait)
+            : new TraitCard(between(Constants.MIN_VEG_FOODVAL, Constants.MAX_VEG_FOODVAL), trait);
+  }
+
+  /**
+   * Picks a number between the given bounds, inclusive
+   */
+  private int between(int min, int max) {
+    return min + random.nextInt(max - min + 1);
+  }
+}
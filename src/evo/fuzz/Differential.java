@@ -0,0 +1,229 @@
+package evo.fuzz;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import evo.TestHarnessMain;
+import evo.game.AttackGraph;
+import evo.game.SpeciesBoard;
+import evo.game.list.SpeciesList;
+import evo.json.JFactory;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * A differential test of one test harness (see {@link TestHarnessMain}): random inputs for the
+ * harness are run through the reference implementation of the rules (the {@link evo.game.Dealer}
+ * and its players) and through each optimized implementation of the same rules, and any input on
+ * which an optimized implementation gives a different output (or fails) is a divergence.
+ *
+ * The outputs are compared in the harness's JSON format, so that a divergence can be saved as a
+ * test fixture whose expected output is the reference's.
+ */
+public final class Differential {
+  private final String harnessType;
+  private final Function<ConfigGenerator, JsonElement> generator;
+  private final Map<String, Function<String, String>> optimized;
+
+  private Differential(String harnessType, Function<ConfigGenerator, JsonElement> generator,
+                       Map<String, Function<String, String>> optimized) {
+    this.harnessType = harnessType;
+    this.generator = generator;
+    this.optimized = optimized;
+  }
+
+  /**
+   * Compares {@link SpeciesBoard#canAttack} with the packed game state's and the
+   * {@link AttackGraph}'s answers, on attack situations
+   */
+  public static Differential attack() {
+    Map<String, Function<String, String>> optimized = new LinkedHashMap<>();
+    optimized.put("packed", input -> TestHarnessMain.run("attack", true, new StringReader(input)));
+    optimized.put("graph", Differential::attackGraph);
+    return new Differential("attack", ConfigGenerator::attack, optimized);
+  }
+
+  /**
+   * Compares {@link evo.game.Dealer#feed1()} with the packed game state's, on configurations in
+   * the middle of a feeding round
+   */
+  public static Differential step() {
+    return packed("step", ConfigGenerator::step);
+  }
+
+  /**
+   * Compares {@link evo.game.Dealer#step4(List)} with the packed game state's, on configurations
+   * with a legal choice for every player
+   */
+  public static Differential step4() {
+    return packed("step4", ConfigGenerator::step4);
+  }
+
+  /**
+   * Creates the differential tests of every harness that has an optimized implementation
+   */
+  public static List<Differential> all() {
+    return Arrays.asList(attack(), step(), step4());
+  }
+
+  /**
+   * Creates the differential test of a harness whose only optimized implementation is its packed
+   * mode
+   */
+  private static Differential packed(String harnessType,
+                                     Function<ConfigGenerator, JsonElement> generator) {
+    return new Differential(harnessType, generator, Collections.singletonMap("packed",
+            input -> TestHarnessMain.run(harnessType, true, new StringReader(input))));
+  }
+
+  /**
+   * Answers an attack situation with an {@link AttackGraph} from the attacker to the defender and
+   * its neighbors, as the boards of one player
+   */
+  private static String attackGraph(String input) {
+    JsonReader reader = new JsonReader(new StringReader(input));
+    SpeciesBoard defender;
+    SpeciesList attacker = new SpeciesList();
+    Optional<SpeciesBoard> left;
+    Optional<SpeciesBoard> right;
+    try {
+      reader.beginArray();
+      defender = JFactory.fromJson(reader, SpeciesBoard.class);
+      attacker.add(JFactory.fromJson(reader, SpeciesBoard.class));
+      left = optSpecies(reader);
+      right = optSpecies(reader);
+      reader.endArray();
+    }
+    catch (IOException e) { throw new JsonParseException(e); }
+
+    SpeciesList defenders = new SpeciesList();
+    left.ifPresent(defenders::add);
+    defenders.add(defender);
+    right.ifPresent(defenders::add);
+    AttackGraph graph = AttackGraph.of(attacker, Collections.singletonList(defenders));
+    return new JsonPrimitive(graph.canAttack(0, 0, left.isPresent() ? 1 : 0)).toString();
+  }
+
+  /**
+   * Reads an OptSpecies, i.e. false or a Species
+   */
+  private static Optional<SpeciesBoard> optSpecies(JsonReader reader) throws IOException {
+    if (reader.peek() == JsonToken.BOOLEAN) {
+      if (reader.nextBoolean()) throw new JsonParseException("Illegal OptSpecies");
+      return Optional.empty();
+    }
+    return Optional.of(JFactory.fromJson(reader, SpeciesBoard.class));
+  }
+
+  /**
+   * Generates a random input for this test's harness
+   *
+   * @param random the {@link SplittableRandom} to draw the input from
+   * @return the input, as JSON
+   */
+  public String generate(SplittableRandom random) {
+    return generator.apply(new ConfigGenerator(random)).toString();
+  }
+
+  /**
+   * Runs the reference implementation of this test's harness on the given input
+   *
+   * @param input the harness's input, as JSON
+   * @return the reference output
+   * @throws RuntimeException if the input is not a valid input for the harness
+   */
+  public String reference(String input) {
+    return TestHarnessMain.run(harnessType, false, new StringReader(input));
+  }
+
+  /**
+   * Runs the given input through the reference and every optimized implementation
+   *
+   * @param input the harness's input, as JSON
+   * @return the first divergence from the reference, if any; inputs that the reference rejects
+   *         (as happens while shrinking) never diverge
+   */
+  public Optional<Divergence> check(String input) {
+    return check(input, optimized.keySet());
+  }
+
+  /**
+   * Runs the given input through the reference and the given optimized implementation only
+   *
+   * @param input the harness's input, as JSON
+   * @param implementation the name of the optimized implementation to compare
+   * @return the divergence of that implementation from the reference, if any
+   * @throws IllegalArgumentException if this test has no such implementation
+   */
+  public Optional<Divergence> check(String input, String implementation) {
+    if (!optimized.containsKey(implementation))
+      throw new IllegalArgumentException("No " + implementation + " implementation of "
+              + harnessType);
+    return check(input, Collections.singleton(implementation));
+  }
+
+  /**
+   * Runs the given input through the reference and the given optimized implementations, in order
+   */
+  private Optional<Divergence> check(String input, Set<String> implementations) {
+    String expected;
+    try { expected = reference(input); }
+    catch (RuntimeException e) { return Optional.empty(); }
+
+    for (String name : implementations) {
+      String actual;
+      try { actual = optimized.get(name).apply(input); }
+      catch (RuntimeException e) { actual = e.toString(); }
+      if (!actual.equals(expected))
+        return Optional.of(new Divergence(this, name, input, expected, actual));
+    }
+    return Optional.empty();
+  }
+
+  /******************
+   * Getter methods *
+   ******************/
+  public String getHarnessType() {
+    return harnessType;
+  }
+  public Set<String> getImplementations() {
+    return optimized.keySet();
+  }
+
+  /**
+   * An input on which an optimized implementation of a harness does not give the reference output
+   */
+  public static final class Divergence {
+    private final Differential test;
+    private final String implementation;
+    private final String input;
+    private final String expected;
+    private final String actual;
+
+    private Divergence(Differential test, String implementation, String input, String expected,
+                       String actual) {
+      this.test = test;
+      this.implementation = implementation;
+      this.input = input;
+      this.expected = expected;
+      this.actual = actual;
+    }
+
+    public Differential getTest() { return test; }
+    public String getImplementation() { return implementation; }
+    public String getInput() { return input; }
+    public String getExpected() { return expected; }
+    public String getActual() { return actual; }
+
+    @Override
+    public String toString() {
+      return test.getHarnessType() + " (" + implementation + "): " + input + "\n  expected "
+              + expected + "\n  but got  " + actual;
+    }
+  }
+}
@@ -0,0 +1,148 @@
+package evo.fuzz;
+
+import evo.fuzz.Differential.Divergence;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs the differential tests (see {@link Differential}) on a number of random inputs each, in
+ * parallel, and prints how many inputs were checked per second and every divergence found.
+ *
+ * The first divergences of each optimized implementation are shrunk (see {@link JsonShrinker})
+ * and the distinct results saved as test fixtures in the format of the test directories, e.g.
+ * fuzz/step_test_files/fuzz-&lt;seed&gt;-&lt;case&gt;-in.json, whose expected output is the
+ * reference's, so that "TestHarnessMain batch packed fuzz" fails until the divergence is fixed.
+ * TestHarnessMain only runs the packed implementations, so divergences of the others (the
+ * {@link evo.game.AttackGraph}) are saved with the implementation's name in the prefix, e.g.
+ * fuzz-graph-&lt;seed&gt;-&lt;case&gt;-in.json, and only the fuzzer itself re-checks them.
+ * Each input is drawn from a random generator seeded with the run's seed and the input's number,
+ * so a run can be repeated with its seed.
+ */
+public class FuzzMain {
+  private static final String ALL_TYPES = "all";
+  private static final int DEFAULT_CASES = 10000;
+  private static final String DEFAULT_DIR = "fuzz";
+  private static final int MAX_SAVED = 5;
+  private static final String HARNESS_IMPLEMENTATION = "packed";
+  private static final int BLOCK_SIZE = 1000;
+  private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+  /**
+   * Takes the type of harness to test (or "all", the default), the number of inputs to check for
+   * each (10000 by default), the seed of the run (random by default) and the directory to save
+   * fixtures in ("fuzz" by default), and exits with a non-zero status if any divergence is found.
+   */
+  public static void main(String[] args) throws IOException, InterruptedException {
+    String type = args.length > 0 ? args[0] : ALL_TYPES;
+    int numCases = args.length > 1 ? Integer.valueOf(args[1]) : DEFAULT_CASES;
+    long seed = args.length > 2 ? Long.valueOf(args[2]) : new SplittableRandom().nextLong();
+    Path dir = Paths.get(args.length > 3 ? args[3] : DEFAULT_DIR);
+
+    List<Differential> tests = new ArrayList<>();
+    for (Differential test : Differential.all())
+      if (type.equals(ALL_TYPES) || type.equals(test.getHarnessType())) tests.add(test);
+    if (tests.isEmpty())
+      throw new IllegalArgumentException("No differential test for harness: " + type);
+
+    long start = System.nanoTime();
+    Queue<Numbered> divergences = new ConcurrentLinkedQueue<>();
+    AtomicLong checked = new AtomicLong();
+    ExecutorService pool = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+    for (int block = 0; block < numCases; block += BLOCK_SIZE) {
+      int first = block;
+      int last = Math.min(numCases, block + BLOCK_SIZE);
+      pool.execute(() -> {
+        for (int n = first; n < last; n++) {
+          SplittableRandom random = new SplittableRandom(seed + n * GOLDEN_GAMMA);
+          for (Differential test : tests) {
+            Optional<Divergence> divergence = test.check(test.generate(random));
+            if (divergence.isPresent()) divergences.add(new Numbered(n, divergence.get()));
+            checked.incrementAndGet();
+          }
+        }
+      });
+    }
+    pool.shutdown();
+    pool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    double seconds = (System.nanoTime() - start) / (double) TimeUnit.SECONDS.toNanos(1);
+
+    System.out.println("Checked " + checked.get() + " inputs in " + String.format("%.2f", seconds)
+            + "s (" + String.format("%.0f", checked.get() / seconds) + " inputs/s)");
+    System.out.println("Seed: " + seed);
+    System.out.println("Divergences: " + divergences.size());
+
+    List<Numbered> sorted = new ArrayList<>(divergences);
+    sorted.sort(Comparator.comparingInt(d -> d.number));
+    Map<String, Integer> saved = new HashMap<>();
+    Set<String> shrunkInputs = new HashSet<>();
+    for (Numbered numbered : sorted) {
+      Divergence divergence = numbered.divergence;
+      String key = divergence.getTest().getHarnessType() + " " + divergence.getImplementation();
+      int count = saved.getOrDefault(key, 0);
+      if (count == MAX_SAVED) continue;
+      saved.put(key, count + 1);
+
+      Divergence shrunk = shrink(divergence);
+      if (!shrunkInputs.add(shrunk.getInput())) continue;
+      System.out.println(shrunk);
+      boolean harnessMode = shrunk.getImplementation().equals(HARNESS_IMPLEMENTATION);
+      String name = harnessMode ? "fuzz-" : "fuzz-" + shrunk.getImplementation() + "-";
+      Path fixture = save(dir, shrunk, name + seed + "-" + numbered.number + "-");
+      if (!harnessMode)
+        System.out.println("Saved as " + fixture + ", which TestHarnessMain does not run with the "
+                + shrunk.getImplementation() + " implementation; rerun the fuzzer with seed "
+                + seed + " to check it");
+    }
+    if (!divergences.isEmpty()) {
+      System.out.println("Fixtures saved in " + dir);
+      System.exit(1);
+    }
+  }
+
+  /**
+   * Shrinks the given divergence to a smaller input on which the same implementation diverges
+   */
+  private static Divergence shrink(Divergence divergence) {
+    Differential test = divergence.getTest();
+    String implementation = divergence.getImplementation();
+    String input = JsonShrinker.shrink(divergence.getInput(),
+            candidate -> test.check(candidate, implementation).isPresent());
+    return test.check(input, implementation).orElse(divergence);
+  }
+
+  /**
+   * Effect: saves the given divergence as a test case in the given directory, in the harness's
+   * test directory, with the reference output as its expected output
+   *
+   * @return the path of the saved input
+   */
+  private static Path save(Path dir, Divergence divergence, String prefix) throws IOException {
+    Path testDir = dir.resolve(divergence.getTest().getHarnessType() + "_test_files");
+    Files.createDirectories(testDir);
+    Path in = testDir.resolve(prefix + "in.json");
+    Files.write(in, divergence.getInput().getBytes(StandardCharsets.UTF_8));
+    Files.write(testDir.resolve(prefix + "out.json"),
+            divergence.getExpected().getBytes(StandardCharsets.UTF_8));
+    return in;
+  }
+
+  /**
+   * A divergence, with the number of the input it was found on
+   */
+  private static class Numbered {
+    private final int number;
+    private final Divergence divergence;
+
+    private Numbered(int number, Divergence divergence) {
+      this.number = number;
+      this.divergence = divergence;
+    }
+  }
+}
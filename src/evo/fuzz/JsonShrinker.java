@@ -0,0 +1,110 @@
+package evo.fuzz;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Shrinks a JSON input that makes a test fail to a smaller one that still does, by trying small
+ * changes to it one at a time and keeping any that keeps the test failing, until no change does:
+ *  - removing an element from an array (e.g. a player, a board, a card or a trait)
+ *  - replacing an array with false (e.g. a neighbor, as an OptSpecies)
+ *  - moving a number towards 0 (to 0, to half of it, or by one)
+ *
+ * Changes that make the input invalid (e.g. a board with more food than members, or a player
+ * left without its action) simply fail to reproduce the failure, so the test needs no knowledge
+ * of the input's format beyond rejecting invalid inputs.
+ */
+public final class JsonShrinker {
+  private static final int DEFAULT_MAX_CHECKS = 10000;
+
+  private final Predicate<String> failing;
+  private final int maxChecks;
+  private int checks = 0;
+
+  private JsonShrinker(Predicate<String> failing, int maxChecks) {
+    this.failing = failing;
+    this.maxChecks = maxChecks;
+  }
+
+  /**
+   * Shrinks the given failing input
+   *
+   * @param input the input, as JSON
+   * @param failing the test, which is true of the inputs that fail it
+   * @return the smallest failing input found
+   */
+  public static String shrink(String input, Predicate<String> failing) {
+    return new JsonShrinker(failing, DEFAULT_MAX_CHECKS).shrink(new JsonParser().parse(input))
+            .toString();
+  }
+
+  /**
+   * Applies changes to the given input for as long as one of them keeps it failing, or until the
+   * test has been run {@link #maxChecks} times
+   */
+  private JsonElement shrink(JsonElement input) {
+    JsonElement current = input;
+    boolean changed = true;
+    while (changed && checks < maxChecks) {
+      changed = false;
+      for (JsonElement candidate : candidates(current)) {
+        if (checks++ >= maxChecks) break;
+        if (failing.test(candidate.toString())) {
+          current = candidate;
+          changed = true;
+          break;
+        }
+      }
+    }
+    return current;
+  }
+
+  /**
+   * Gets every input that differs from the given one by a single change, removals first
+   */
+  private static List<JsonElement> candidates(JsonElement element) {
+    List<JsonElement> result = new ArrayList<>();
+    if (element.isJsonArray()) {
+      JsonArray array = element.getAsJsonArray();
+      for (int i = 0; i < array.size(); i++) result.add(without(array, i));
+      for (int i = 0; i < array.size(); i++)
+        if (array.get(i).isJsonArray()) result.add(with(array, i, new JsonPrimitive(false)));
+      for (int i = 0; i < array.size(); i++)
+        for (JsonElement child : candidates(array.get(i))) result.add(with(array, i, child));
+    }
+    else if (element.isJsonPrimitive() && element.getAsJsonPrimitive().isNumber()) {
+      int n = element.getAsInt();
+      int[] smaller = { 0, n / 2, n - Integer.signum(n) };
+      for (int i = 0; i < smaller.length; i++) {
+        boolean seen = smaller[i] == n;
+        for (int j = 0; j < i; j++) seen |= smaller[j] == smaller[i];
+        if (!seen) result.add(new JsonPrimitive(smaller[i]));
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Copies the given array without its element at the given index
+   */
+  private static JsonArray without(JsonArray array, int idx) {
+    JsonArray result = new JsonArray();
+    for (int i = 0; i < array.size(); i++) if (i != idx) result.add(array.get(i));
+    return result;
+  }
+
+  /**
+   * Copies the given array with its element at the given index replaced by the given element
+   */
+  private static JsonArray with(JsonArray array, int idx, JsonElement element) {
+    JsonArray result = new JsonArray();
+    for (int i = 0; i < array.size(); i++) result.add(i == idx ? element : array.get(i));
+    return result;
+  }
+}
@@ -0,0 +1,163 @@
+package evo.game;
+
+import evo.game.feed.IdxPair;
+import evo.game.list.SpeciesList;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The "can attack" relation between the {@link SpeciesBoard}s of one player (the attackers) and
+ * the {@link SpeciesBoard}s of every other player in the game (the defenders), at one step of a
+ * feeding round.
+ *
+ * The relation for an attacker is computed the first time it is queried, after which every
+ * "can A attack B" and "targets of A" query is answered in constant time. Only population, food
+ * and trait changes affect the relation, and every feeding action makes one of those changes, so
+ * a graph is only valid until the next board in the game is fed (or attacked). The dealer resets
+ * its graph at the start of every feed step.
+ */
+public class AttackGraph {
+  private SpeciesList attackers;
+  private List<SpeciesList> defenders;
+  private int[] offsets = new int[1];
+  private boolean[][] matrix = new boolean[0][];
+  private boolean[] computed = new boolean[0];
+  private int[] counts = new int[0];
+  private final List<List<IdxPair>> targets = new ArrayList<>();
+
+  /**
+   * Creates the attack graph between the given attacking boards and defending boards
+   *
+   * @param attackers the {@link SpeciesList} of the player whose boards are attacking
+   * @param defenders the {@link SpeciesList}s of every other player in the game
+   * @return the (lazily computed) {@link AttackGraph}
+   */
+  public static AttackGraph of(SpeciesList attackers, List<SpeciesList> defenders) {
+    return new AttackGraph().reset(attackers, defenders);
+  }
+
+  /**
+   * Effect: discards the relation computed so far and points this graph at the given boards,
+   *         reusing the memory of the previous relation wherever possible
+   *
+   * @param attackers the {@link SpeciesList} of the player whose boards are attacking
+   * @param defenders the {@link SpeciesList}s of every other player in the game
+   * @return this {@link AttackGraph}
+   */
+  public AttackGraph reset(SpeciesList attackers, List<SpeciesList> defenders) {
+    this.attackers = attackers;
+    this.defenders = defenders;
+
+    if (offsets.length < defenders.size() + 1) offsets = new int[defenders.size() + 1];
+    for (int p = 0; p < defenders.size(); p++)
+      offsets[p + 1] = offsets[p] + defenders.get(p).size();
+
+    int numAttackers = attackers.size();
+    if (matrix.length < numAttackers) {
+      matrix = Arrays.copyOf(matrix, numAttackers);
+      computed = new boolean[numAttackers];
+      counts = new int[numAttackers];
+    }
+    else Arrays.fill(computed, false);
+
+    targets.clear();
+    for (int i = 0; i < numAttackers; i++) targets.add(null);
+    return this;
+  }
+
+  /**
+   * Determines whether the attacker at the given index can attack the given defender
+   *
+   * @param attackerIdx the index of the attacking {@link SpeciesBoard}
+   * @param playerIdx the index of the defender's owner in the list of defenders
+   * @param speciesIdx the index of the defending {@link SpeciesBoard} in its owner's list
+   * @return true if the attack is possible
+   */
+  public boolean canAttack(int attackerIdx, int playerIdx, int speciesIdx) {
+    if (speciesIdx < 0 || speciesIdx >= defenders.get(playerIdx).size())
+      throw new IndexOutOfBoundsException("Species index out of range");
+    return row(attackerIdx)[offsets[playerIdx] + speciesIdx];
+  }
+
+  /**
+   * Determines whether the attacker at the given index can attack any defending board
+   *
+   * @param attackerIdx the index of the attacking {@link SpeciesBoard}
+   * @return true if there is at least one board that can be attacked
+   */
+  public boolean canAttackAny(int attackerIdx) {
+    return numTargets(attackerIdx) > 0;
+  }
+
+  /**
+   * Counts the boards that the attacker at the given index can attack
+   *
+   * @param attackerIdx the index of the attacking {@link SpeciesBoard}
+   * @return the number of attackable boards
+   */
+  public int numTargets(int attackerIdx) {
+    row(attackerIdx);
+    return counts[attackerIdx];
+  }
+
+  /**
+   * Gets every board that the attacker at the given index can attack, ordered by owner and then
+   * by position in the owner's list of boards
+   *
+   * @param attackerIdx the index of the attacking {@link SpeciesBoard}
+   * @return an unmodifiable list of {@link IdxPair}s identifying the attackable boards
+   */
+  public List<IdxPair> targetsOf(int attackerIdx) {
+    List<IdxPair> result = targets.get(attackerIdx);
+    if (result != null) return result;
+
+    boolean[] row = row(attackerIdx);
+    List<IdxPair> rowTargets = new ArrayList<>(counts[attackerIdx]);
+    for (int p = 0; p < defenders.size(); p++)
+      for (int i = 0; i < defenders.get(p).size(); i++)
+        if (row[offsets[p] + i]) rowTargets.add(new IdxPair(p, i));
+
+    result = Collections.unmodifiableList(rowTargets);
+    targets.set(attackerIdx, result);
+    return result;
+  }
+
+  /**
+   * Gets the row of the matrix for the given attacker, computing it if it hasn't been yet
+   *
+   * @param attackerIdx the index of the attacking {@link SpeciesBoard}
+   * @return the row of the attack matrix, indexed by {@code offsets[player] + species}
+   */
+  private boolean[] row(int attackerIdx) {
+    if (attackerIdx < 0 || attackerIdx >= attackers.size())
+      throw new IndexOutOfBoundsException("Attacker index out of range");
+
+    boolean[] row = matrix[attackerIdx];
+    if (computed[attackerIdx]) return row;
+
+    int numDefenders = offsets[defenders.size()];
+    if (row == null || row.length < numDefenders) row = matrix[attackerIdx] = new boolean[numDefenders];
+
+    int count = 0;
+    SpeciesBoard attacker = attackers.get(attackerIdx);
+    boolean carn = attacker.isCarn();
+
+    for (int p = 0; p < defenders.size(); p++) {
+      SpeciesList sl = defenders.get(p);
+      for (int i = 0; i < sl.size(); i++) {
+        SpeciesBoard left = i > 0 ? sl.get(i - 1) : null;
+        SpeciesBoard right = i < sl.size() - 1 ? sl.get(i + 1) : null;
+        boolean canAttack = carn && attacker.canAttack(sl.get(i), left, right);
+        row[offsets[p] + i] = canAttack;
+        if (canAttack) count++;
+      }
+    }
+
+    counts[attackerIdx] = count;
+    computed[attackerIdx] = true;
+    return row;
+  }
+}
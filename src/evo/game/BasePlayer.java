@@ -1,14 +1,16 @@
 package evo.game;
 
-import com.google.gson.*;
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import evo.Constants;
 import evo.game.list.CardList;
 import evo.game.list.PlayerList;
 import evo.game.list.SpeciesList;
-import evo.json.JFactory;
 import evo.json.JUtils;
 
-import java.lang.reflect.Type;
+import java.io.IOException;
 import java.util.*;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
@@ -190,9 +192,20 @@ public class BasePlayer extends EvoElement {
    * @return true if this {@link BasePlayer} has feedable boards
    */
   public boolean canFeed(PlayerList otherPlayers) {
-    for (SpeciesBoard s : getBoards()) {
+    return canFeed(AttackGraph.of(boards, otherPlayers.getAllBoards()));
+  }
+
+  /**
+   * Determines whether or not this {@link BasePlayer} has any {@link SpeciesBoard}s that can be fed
+   *
+   * @param attacks the {@link AttackGraph} from this player's boards to those of the other players
+   * @return true if this {@link BasePlayer} has feedable boards
+   */
+  public boolean canFeed(AttackGraph attacks) {
+    for (int i = 0; i < boards.size(); i++) {
+      SpeciesBoard s = boards.get(i);
       if (s.canStoreMore() || (s.canEatMore() && s.isVeg())
-              || (s.canEatMore() && s.isCarn() && s.canAttackAny(otherPlayers.getAllBoards())))
+              || (s.canEatMore() && s.isCarn() && attacks.canAttackAny(i)))
         return true;
     }
     return false;
@@ -206,17 +219,16 @@ public class BasePlayer extends EvoElement {
    *         {@link SpeciesBoard}s, -1 if there are more than 1 such board, -2 if there are none
    */
   protected int findUniqueIdx(Predicate<Integer> pred) {
-    Optional<Integer> optHungryIdx = Optional.empty();
+    int hungryIdx = -2;
 
     for (int i = 0; i < getBoards().size(); i++) {
       if (pred.test(i)) {
-        if (optHungryIdx.isPresent()) return -1;
-        else optHungryIdx = Optional.of(i);
+        if (hungryIdx != -2) return -1;
+        else hungryIdx = i;
       }
     }
 
-    if (!optHungryIdx.isPresent()) return -2;
-    else return optHungryIdx.get();
+    return hungryIdx;
   }
 
   /**
@@ -359,44 +371,49 @@ public class BasePlayer extends EvoElement {
    */
 
   private static final String BAG_STR = "bag";
-  private static final int BAG_IDX = 0;
   private static final String BRDS_STR = "species";
-  private static final int BRDS_IDX = 1;
   private static final String HAND_STR = "cards";
-  private static final int HAND_IDX = 2;
 
   public int getBag() {
     return this.bag;
   }
 
-  public static JsonSerializer serializer() { return new BasePlayerSerializer(); }
-  public static JsonDeserializer deserializer() { return new BasePlayerDeserializer(); }
+  public static TypeAdapter<? extends BasePlayer> adapter() { return ADAPTER; }
   public static BasePlayerBuilder builder() { return new BasePlayerBuilder(); }
 
-  private static class BasePlayerSerializer implements JsonSerializer<BasePlayer> {
+  private static final TypeAdapter<BasePlayer> ADAPTER = new BasePlayerAdapter().nullSafe();
+
+  /**
+   * Note: players are written as [["species", LOS], Natural, Cards], with the cards omitted when
+   *       the hand is empty, but are read in the Player format above.
+   */
+  private static class BasePlayerAdapter extends TypeAdapter<BasePlayer> {
     @Override
-    public JsonElement serialize(BasePlayer basePlayer, Type type,
-                                 JsonSerializationContext jsonSerializationContext) {
-      JsonArray result = new JsonArray();
-      result.add(JUtils.makeJsonField("species", basePlayer.getBoards().toJson()));
-      result.add(basePlayer.getBag());
-      if (!basePlayer.getHand().isEmpty()) result.add(basePlayer.getHand().toJson());
-      return result;
+    public void write(JsonWriter out, BasePlayer basePlayer) throws IOException {
+      out.beginArray();
+      JUtils.beginField(out, BRDS_STR);
+      SpeciesList.adapter().write(out, basePlayer.getBoards());
+      out.endArray();
+      out.value(basePlayer.getBag());
+      if (!basePlayer.getHand().isEmpty()) CardList.adapter().write(out, basePlayer.getHand());
+      out.endArray();
     }
-  }
 
-  private static class BasePlayerDeserializer implements JsonDeserializer<BasePlayer> {
     @Override
-    public BasePlayer deserialize(JsonElement jsonElement, Type type,
-                                  JsonDeserializationContext jsonDeserializationContext)
-            throws JsonParseException {
+    public BasePlayer read(JsonReader in) throws IOException {
       BasePlayerBuilder builder = builder();
-      JsonArray jsonPlayer = jsonElement.getAsJsonArray();
-      builder.bag(JUtils.getIntFromField(jsonPlayer, BAG_STR, BAG_IDX));
-      builder.boards(JFactory.fromJson(JUtils.getArrayFromField(jsonPlayer, BRDS_STR, BRDS_IDX),
-              SpeciesList.class));
-      builder.hand(JFactory.fromJson(JUtils.getArrayFromField(jsonPlayer, HAND_STR, HAND_IDX),
-              CardList.class));
+      in.beginArray();
+      builder.bag(JUtils.readIntField(in, BAG_STR));
+
+      JUtils.beginField(in, BRDS_STR);
+      builder.boards(SpeciesList.adapter().read(in));
+      in.endArray();
+
+      JUtils.beginField(in, HAND_STR);
+      builder.hand(CardList.adapter().read(in));
+      in.endArray();
+      in.endArray();
+
       try { return builder.build(); }
       catch (InvalidEvoElementException e) { throw new JsonParseException(e); }
     }
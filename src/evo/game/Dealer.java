@@ -1,16 +1,19 @@
 package evo.game;
 
-import com.google.gson.*;
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import evo.game.choose.Action4;
 import evo.game.feed.FeedResponse;
 import evo.game.list.CardList;
 import evo.game.list.PlayerList;
+import evo.game.list.PlayerRotation;
 import evo.gui.Displayable;
 import evo.gui.View;
-import evo.json.JFactory;
-import evo.json.JUtils;
 
-import java.lang.reflect.Type;
+import java.io.IOException;
+import java.io.PrintStream;
 import java.util.*;
 
 /**
@@ -21,31 +24,155 @@ public class Dealer extends EvoElement implements Displayable {
   private final Deck deck;
   private PlayerList feedOrder;
   private final WaterHole wh;
+  private final Optional<PrintStream> log;
+  private final PlayerRotation rotation;
+  private final AttackGraph attacks = new AttackGraph();
+  private final boolean pipelined;
+  private final GameObserver observer;
+  private int turn;
+  private long turnStart;
 
   private Dealer(PlayerList players, Deck deck, PlayerList feedOrder,
-                 WaterHole wh) throws InvalidEvoElementException {
+                 WaterHole wh, Optional<PrintStream> log, boolean pipelined,
+                 GameObserver observer, int turn)
+          throws InvalidEvoElementException {
     this.players = players;
     this.deck = deck;
     this.feedOrder = feedOrder;
     this.wh = wh;
+    this.log = log;
+    this.pipelined = pipelined;
+    this.observer = observer;
+    this.turn = turn;
+    this.rotation = players.rotation();
     if (!isValid()) throw new InvalidEvoElementException("Invalid Dealer: " +
             toString());
+    for (EvoPlayer p : players) p.setObserver(observer);
   }
 
   /**
-   * todo
+   * Effect: plays an entire game with the current players, then prints the results and exits
    */
   public void runGame() {
     System.out.println("Starting game...");
+    observer.gameStarted(this);
+    playTurns();
+    gameOver();
+  }
 
+  /**
+   * Plays an entire game with the current players and returns the final rankings. Unlike
+   * {@link #runGame()}, this neither prints the results nor exits, so many games can be played
+   * one after another (or side by side) in the same JVM.
+   *
+   * @return the {@link PlayerScore}s of the players left at the end of the game, highest first
+   */
+  public List<PlayerScore> playGame() {
+    observer.gameStarted(this);
+    playTurns();
+    observer.gameEnded(players.size());
+    return endGame();
+  }
+
+  /**
+   * Plays the rest of a game that was set up at the choose step of a turn, i.e. whose players
+   * have already been dealt their cards and sent the start message for the turn. This lets a game
+   * be simulated from any position a player has seen, e.g. by {@link MctsPlayer}.
+   *
+   * @return the {@link PlayerScore}s of the players left at the end of the game, highest first
+   */
+  public List<PlayerScore> resumeAtChoose() {
+    turnStart = System.nanoTime();
+    step4(chooseAll());
+    endTurn();
+    playTurns();
+    return endGame();
+  }
+
+  /**
+   * Plays the rest of a game that was set up in the middle of a feeding round, where the first
+   * player of the feed order is the next to feed
+   *
+   * @return the {@link PlayerScore}s of the players left at the end of the game, highest first
+   */
+  public List<PlayerScore> resumeAtFeeding() {
+    turnStart = System.nanoTime();
+    feedAll();
+    endTurn();
+    playTurns();
+    return endGame();
+  }
+
+  /**
+   * Plays the rest of a game restored from a {@link DealerCheckpoint}: if the checkpoint was
+   * taken in the middle of a feeding round, the round and its turn are finished first, and the
+   * game goes on from there as if it had been started at the next turn (which is when the
+   * observer is told that the game started).
+   *
+   * @return the {@link PlayerScore}s of the players left at the end of the game, highest first
+   */
+  public List<PlayerScore> resumeGame() {
+    if (!feedOrder.isEmpty()) {
+      turnStart = System.nanoTime();
+      feedAll();
+      endTurn();
+    }
+    return playGame();
+  }
+
+  /**
+   * Effect: tells every player that the game is over
+   *
+   * @return the final {@link PlayerScore}s of the players left, highest first
+   */
+  private List<PlayerScore> endGame() {
+    List<PlayerScore> rankings = players.getRankings();
+    players.gameOver();
+    return rankings;
+  }
+
+  /**
+   * Effect: plays turns until every player has been kicked or there are not enough cards left in
+   *         the deck to start another turn
+   */
+  private void playTurns() {
     while (!players.isEmpty() && deck.size() > players.totalCardsNeeded()) {
-      players.startAll(wh.getFood(), deck);
-      List<Action4> cardChoices = players.getChoices();
-      step4(cardChoices);
-      players.endTurn(deck);
+      startTurn();
+      step4(chooseAll());
+      endTurn();
     }
+  }
 
-    gameOver();
+  /**
+   * Effect: deals the players their cards for a new turn
+   */
+  void startTurn() {
+    turnStart = System.nanoTime();
+    observer.turnStarted();
+    players.startAll(wh.getFood(), deck, pipelined);
+  }
+
+  /**
+   * Queries every player for its choice of actions for this turn, kicking those that fail to
+   * make a legal one
+   *
+   * @return the {@link Action4} of each player left, in order
+   */
+  List<Action4> chooseAll() {
+    List<Action4> choices = players.getChoices(log, observer);
+    for (int i = 0; i < players.size(); i++)
+      observer.playerChose(players.get(i).getId(), choices.get(i));
+    return choices;
+  }
+
+  /**
+   * Effect: ends the current turn, moving the food the players' boards ate into their bags and
+   *         dealing cards to the players who have no boards left
+   */
+  void endTurn() {
+    players.endTurn(deck);
+    turn++;
+    observer.turnEnded(System.nanoTime() - turnStart);
   }
 
 
@@ -62,6 +189,15 @@ public class Dealer extends EvoElement implements Displayable {
    *                perform before the feed round starts
    */
   public void step4(List<Action4> actions) {
+    startFeeding(actions);
+    feedAll();
+  }
+
+  /**
+   * Effect: carries out the given {@link Action4}s and the automatic feeding at the start of the
+   *         feed round (fertile boards, long necks and fat-tissue boards eating from storage)
+   */
+  void startFeeding(List<Action4> actions) {
     for (int i = 0; i < players.size(); i++)
       actions.get(i).doAll(players.get(i), wh, deck);
 
@@ -69,10 +205,35 @@ public class Dealer extends EvoElement implements Displayable {
     feedOrder.populateFertiles();
     feedOrder.feedLongNecks(wh);
     feedOrder.eatFromStorage();
+  }
 
-    while (!wh.isEmpty() && !feedOrder.isEmpty())
+  /**
+   * Effect: calls the feed1 method until there are no bag tokens left at the watering hole or all
+   *         players cannot/don't want to continue feed, then ends the feed round
+   */
+  private void feedAll() {
+    int steps = 0;
+    while (isFeeding()) {
       feed1();
+      steps++;
+    }
+
+    endFeeding();
+    observer.feedRoundEnded(steps);
+  }
+
+  /**
+   * Determines whether the feed round goes on, i.e. whether there are tokens left at the watering
+   * hole and players left to feed
+   */
+  boolean isFeeding() {
+    return !wh.isEmpty() && !feedOrder.isEmpty();
+  }
 
+  /**
+   * Effect: ends the feed round, leaving no one to feed
+   */
+  void endFeeding() {
     feedOrder.clear();
   }
 
@@ -88,14 +249,20 @@ public class Dealer extends EvoElement implements Displayable {
    */
   public void feed1() {
     EvoPlayer playerToFeed = feedOrder.first();
-    PlayerList rotatedPlayers = players.thisPlayerLast(playerToFeed);
-    PlayerList otherPlayers = rotatedPlayers.removeLast();
-
-    if (!playerToFeed.canFeed(otherPlayers)) feedOrder.remove(playerToFeed);
-    else if (playerToFeed.autoFeed(rotatedPlayers, wh, deck)) feedOrder.rotate();
+    rotation.focus(playerToFeed);
+    PlayerList rotatedPlayers = rotation.allPlayers();
+    PlayerList otherPlayers = rotation.otherPlayers();
+    attacks.reset(playerToFeed.getBoards(), rotation.otherBoards());
+
+    if (!playerToFeed.canFeed(attacks)) feedOrder.remove(playerToFeed);
+    else if (playerToFeed.autoFeed(rotatedPlayers, attacks, wh, deck)) {
+      observer.playerAutoFed(playerToFeed.getId());
+      feedOrder.rotate();
+    }
     else {
       try {
         FeedResponse playerResponse = playerToFeed.feedNext(otherPlayers, wh.getFood());
+        observer.playerAnswered(playerToFeed.getId(), playerResponse);
         if (!playerResponse.feedAction(playerToFeed, rotatedPlayers, wh, deck))
           feedOrder.remove(playerToFeed);
         else feedOrder.rotate();
@@ -103,16 +270,18 @@ public class Dealer extends EvoElement implements Displayable {
       catch (IllegalResponseException e) {
         feedOrder.remove(playerToFeed);
         players.remove(playerToFeed);
-        System.out.println("Kicked player " + playerToFeed.getId() +
-                " from the game: " + e.getMessage());
+        observer.playerKicked(playerToFeed.getId(), e.getMessage());
+        log.ifPresent(out -> out.println("Kicked player " + playerToFeed.getId() +
+                " from the game: " + e.getMessage()));
       }
     }
   }
 
   /**
-   * todo
+   * Effect: prints the results of the game, notifies the players that it is over, and exits
    */
   private void gameOver() {
+    observer.gameEnded(players.size());
     if (players.isEmpty()) {
       System.out.println("All players kicked from game");
       System.exit(0);
@@ -161,6 +330,7 @@ public class Dealer extends EvoElement implements Displayable {
   }
   public WaterHole getWateringHole() { return wh; }
   public int getWHTokens() { return wh.getFood(); }
+  public int getTurn() { return turn; }
 
   @Override
   public void display(View view) { view.displayDealer(this); }
@@ -170,36 +340,29 @@ public class Dealer extends EvoElement implements Displayable {
    * A Configuration is [LOP+, Natural, LOC].
    */
 
-  private static final int LOP_IDX = 0;
-  private static final int WH_IDX = 1;
-  private static final int LOC_IDX = 2;
+  public static TypeAdapter<Dealer> adapter() { return ADAPTER; }
+  private static final TypeAdapter<Dealer> ADAPTER = new DealerAdapter().nullSafe();
 
-  public static JsonSerializer serializer() { return new EvoDealerSerializer(); }
-  private static class EvoDealerSerializer implements JsonSerializer<Dealer> {
+  private static class DealerAdapter extends TypeAdapter<Dealer> {
     @Override
-    public JsonElement serialize(Dealer dealer, Type type,
-                                 JsonSerializationContext jsonSerializationContext) {
-      JsonArray config = new JsonArray();
-      config.add(JUtils.listToJArray(dealer.getPlayers()));
-      config.add(new JsonPrimitive(dealer.wh.getFood()));
-      config.add(JUtils.listToJArray(dealer.deck.getContents()));
-      return config;
+    public void write(JsonWriter out, Dealer dealer) throws IOException {
+      out.beginArray();
+      PlayerList.adapter().write(out, dealer.players);
+      out.value(dealer.wh.getFood());
+      out.beginArray();
+      for (TraitCard tc : dealer.deck.getContents()) TraitCard.adapter().write(out, tc);
+      out.endArray();
+      out.endArray();
     }
-  }
 
-  public static JsonDeserializer deserializer() { return new EvoDealerDeserializer(); }
-  private static class EvoDealerDeserializer implements JsonDeserializer<Dealer> {
     @Override
-    public Dealer deserialize(JsonElement jsonElement, Type type,
-                              JsonDeserializationContext jsonDeserializationContext)
-            throws JsonParseException {
-      JsonArray configuration = jsonElement.getAsJsonArray();
+    public Dealer read(JsonReader in) throws IOException {
       DealerBuilder builder = new DealerBuilder();
-      builder.players(JFactory.fromJson(configuration.get(LOP_IDX).getAsJsonArray(),
-              PlayerList.class));
-      builder.wh(new WaterHole(configuration.get(WH_IDX).getAsInt()));
-      builder.deck(new Deck(JFactory.fromJson(configuration.get(LOC_IDX).getAsJsonArray(),
-              CardList.class)));
+      in.beginArray();
+      builder.players(PlayerList.adapter().read(in));
+      builder.wh(new WaterHole(in.nextInt()));
+      builder.deck(new Deck(CardList.adapter().read(in)));
+      in.endArray();
 
       try { return builder.build(); }
       catch (InvalidEvoElementException e) { throw new JsonParseException(e); }
@@ -212,10 +375,14 @@ public class Dealer extends EvoElement implements Displayable {
     private Deck deck = new Deck();
     private Optional<PlayerList> feedOrder = Optional.empty();
     private WaterHole wh = new WaterHole();
+    private Optional<PrintStream> log = Optional.of(System.out);
+    private boolean pipelined = false;
+    private GameObserver observer = GameObserver.NONE;
+    private int turn = 0;
 
     public Dealer build() throws InvalidEvoElementException {
-      if (feedOrder.isPresent()) return new Dealer(players, deck, feedOrder.get(), wh);
-      else return new Dealer(players, deck, players.makeCopy(), wh);
+      return new Dealer(players, deck, feedOrder.orElseGet(players::makeCopy), wh, log, pipelined,
+              observer, turn);
     }
 
     public DealerBuilder players(PlayerList players) {
@@ -228,6 +395,11 @@ public class Dealer extends EvoElement implements Displayable {
       return this;
     }
 
+    public DealerBuilder players(List<ExternalPlayer> players, QueryService queries) {
+      this.players = PlayerList.fromExternalPlayers(Objects.requireNonNull(players), queries);
+      return this;
+    }
+
     public DealerBuilder deck(Deck deck) {
       this.deck = Objects.requireNonNull(deck);
       return this;
@@ -242,6 +414,48 @@ public class Dealer extends EvoElement implements Displayable {
       this.wh = Objects.requireNonNull(wh);
       return this;
     }
+
+    /**
+     * Sets the number of turns already played in the game (0 by default)
+     */
+    public DealerBuilder turn(int turn) {
+      if (turn < 0) throw new IllegalArgumentException("Turn number cannot be negative");
+      this.turn = turn;
+      return this;
+    }
+
+    public DealerBuilder log(PrintStream log) {
+      this.log = Optional.of(log);
+      return this;
+    }
+
+    /**
+     * Stops the dealer from logging kicked players during the game, e.g. so that many games can
+     * run in parallel without contending for {@code System.out}
+     */
+    public DealerBuilder quiet() {
+      this.log = Optional.empty();
+      return this;
+    }
+
+    /**
+     * Sets whether each turn's start messages are sent together with the choose queries that
+     * follow them, rather than on their own, which saves remote players a network round-trip
+     * per turn
+     */
+    public DealerBuilder pipelined(boolean pipelined) {
+      this.pipelined = pipelined;
+      return this;
+    }
+
+    /**
+     * Sets the {@link GameObserver} that is told about the game as it is played (nothing by
+     * default); it is also given the response times of the dealer's players
+     */
+    public DealerBuilder observer(GameObserver observer) {
+      this.observer = Objects.requireNonNull(observer);
+      return this;
+    }
   }
 
   @Override
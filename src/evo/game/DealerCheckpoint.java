@@ -0,0 +1,325 @@
+package evo.game;
+
+import evo.binary.BinaryCodec;
+import evo.binary.BinaryParseException;
+import evo.game.list.CardList;
+import evo.game.list.PlayerList;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * A snapshot of the full state of a {@link Dealer}, from which the game can be resumed (see
+ * {@link Dealer#resumeGame()}): the number of turns played, every player's id, name, boards, hand
+ * and bag, the feed order, the watering hole and the cards left in the deck, in order. The deck
+ * is the only random part of a game, so its order stands in for the state of the random number
+ * generator it was shuffled with.
+ *
+ * The players' {@link ExternalPlayer}s cannot be saved, so a restored game is played by the
+ * external players it is given, in the order of the saved players (e.g. new
+ * {@link SillyPlayer}s standing in for clients that were lost with the server).
+ *
+ * A Checkpoint is [Int, Natural, Natural, [Natural, String, PlayerState], ..., [Natural, ...],
+ * Natural, Hand], i.e. {@link #MAGIC}, {@link #VERSION}, the turn number, the players' ids, names
+ * and states, the positions of the players in the feed order, the watering hole and the deck,
+ * with numbers, strings, states and hands in the format of {@link BinaryCodec}.
+ */
+public final class DealerCheckpoint {
+  static final int MAGIC = 0x45564f43;
+  static final int VERSION = 2;
+
+  private final int turn;
+  private final List<Integer> ids;
+  private final List<String> names;
+  private final List<BasePlayer> states;
+  private final List<Integer> feedOrder;
+  private final int wh;
+  private final CardList deck;
+
+  private DealerCheckpoint(int turn, List<Integer> ids, List<String> names,
+                           List<BasePlayer> states, List<Integer> feedOrder, int wh,
+                           CardList deck) {
+    this.turn = turn;
+    this.ids = ids;
+    this.names = names;
+    this.states = states;
+    this.feedOrder = feedOrder;
+    this.wh = wh;
+    this.deck = deck;
+  }
+
+  /**
+   * Takes a snapshot of the current state of the given {@link Dealer}
+   *
+   * @param dealer the {@link Dealer} to snapshot, which is not modified
+   * @return the new {@link DealerCheckpoint}
+   */
+  public static DealerCheckpoint of(Dealer dealer) {
+    PlayerList players = dealer.getPlayers();
+    List<Integer> ids = new ArrayList<>(players.size());
+    List<String> names = new ArrayList<>(players.size());
+    List<BasePlayer> states = new ArrayList<>(players.size());
+    for (EvoPlayer player : players) {
+      ids.add(player.getId());
+      names.add(player.getExternal().getName());
+      states.add(BasePlayer.builder().boards(player.getBoards().makeCopy())
+              .hand(player.getHand().makeCopy()).bag(player.getBag()).build());
+    }
+
+    List<Integer> feedOrder = new ArrayList<>();
+    for (EvoPlayer player : dealer.getFeedOrder()) {
+      int p = 0;
+      while (p < players.size() && players.get(p) != player) p++;
+      if (p == players.size())
+        throw new IllegalArgumentException("Feed order contains a player not in the game");
+      feedOrder.add(p);
+    }
+
+    return new DealerCheckpoint(dealer.getTurn(), ids, names, states, feedOrder,
+            dealer.getWHTokens(), new CardList(dealer.getDeckContents()));
+  }
+
+  /**
+   * Creates a {@link GameObserver} that saves a checkpoint of its game to the given path at the
+   * end of every given number of turns, and deletes it when the game ends. Each checkpoint
+   * atomically replaces the one before it (see {@link #write(Path)}), so the file always holds a
+   * whole checkpoint of the last turn saved. The observer must observe a single game.
+   *
+   * @param turns the number of turns between checkpoints
+   * @param path the path of the checkpoint file
+   * @param onError told about the first error checkpointing the game (see
+   *                {@link #every(int, Sink, Consumer)})
+   * @return the new {@link GameObserver}
+   */
+  public static GameObserver every(int turns, Path path, Consumer<? super IOException> onError) {
+    return every(turns, toFile(path), onError);
+  }
+
+  /**
+   * Creates a {@link GameObserver} that saves a checkpoint of its game to the given sink at the
+   * end of every given number of turns, and clears it when the game ends. The observer must
+   * observe a single game.
+   *
+   * Checkpointing never ends a game: if a checkpoint cannot be taken or saved, the error is
+   * handed to onError, and the game goes on without being checkpointed any more. The sink is
+   * still cleared when the game ends, so that the game is not resumed from a stale checkpoint;
+   * if that fails too, the error is only handed on if it is the first.
+   *
+   * @param turns the number of turns between checkpoints
+   * @param sink where the game's checkpoints are kept
+   * @param onError told about the first error checkpointing the game
+   * @return the new {@link GameObserver}
+   */
+  public static GameObserver every(int turns, Sink sink, Consumer<? super IOException> onError) {
+    if (turns < 1) throw new IllegalArgumentException("Turns between checkpoints must be positive");
+    return new GameObserver() {
+      private Dealer dealer;
+      private boolean failed = false;
+
+      @Override
+      public void gameStarted(Dealer dealer) { this.dealer = dealer; }
+
+      @Override
+      public void turnEnded(long nanos) {
+        if (failed || dealer == null || dealer.getTurn() % turns != 0) return;
+        try { sink.save(DealerCheckpoint.of(dealer)); }
+        catch (IOException | RuntimeException e) { fail("Stopped checkpointing game", e); }
+      }
+
+      @Override
+      public void gameEnded(int numPlayers) {
+        try { sink.clear(); }
+        catch (IOException | RuntimeException e) { fail("Could not clear checkpoint", e); }
+      }
+
+      /**
+       * Effect: stops checkpointing the game, handing the error on if it is the first
+       */
+      private void fail(String message, Exception e) {
+        if (failed) return;
+        failed = true;
+        onError.accept(e instanceof IOException ? (IOException) e
+                : new IOException(message + ": " + e, e));
+      }
+    };
+  }
+
+  /**
+   * Creates a {@link Sink} that keeps the checkpoints of a game in a file at the given path,
+   * which each checkpoint atomically replaces (see {@link #write(Path)}) and which is deleted
+   * when cleared
+   *
+   * @param path the path of the checkpoint file
+   * @return the new {@link Sink}
+   */
+  public static Sink toFile(Path path) {
+    return new Sink() {
+      @Override
+      public void save(DealerCheckpoint checkpoint) throws IOException { checkpoint.write(path); }
+
+      @Override
+      public void clear() throws IOException { Files.deleteIfExists(path); }
+    };
+  }
+
+  /**
+   * Where the checkpoints of a game are kept: each checkpoint saved replaces the one before it
+   */
+  public interface Sink {
+    /**
+     * Effect: saves the given checkpoint in place of the last one
+     */
+    void save(DealerCheckpoint checkpoint) throws IOException;
+
+    /**
+     * Effect: removes the last checkpoint saved, once the game has ended
+     */
+    void clear() throws IOException;
+  }
+
+  /**
+   * Rebuilds the checkpointed game, with the given external players in the saved players' seats
+   *
+   * @param externals the {@link ExternalPlayer} of each saved player, in order
+   * @param queries the {@link QueryService} to query the players with
+   * @return a {@link Dealer.DealerBuilder} set up with the checkpointed state, to which options
+   *         such as an observer can be added
+   * @throws IllegalArgumentException if the number of external players is not the number of saved
+   *                                  players
+   */
+  public Dealer.DealerBuilder toDealer(List<ExternalPlayer> externals, QueryService queries) {
+    if (externals.size() != ids.size())
+      throw new IllegalArgumentException("Checkpoint has " + ids.size() + " players, not "
+              + externals.size());
+
+    PlayerList players = new PlayerList();
+    for (int p = 0; p < ids.size(); p++) {
+      BasePlayer state = states.get(p);
+      players.add(EvoPlayer.builder()
+              .id(ids.get(p))
+              .external(externals.get(p))
+              .queries(queries)
+              .boards(state.getBoards().makeCopy())
+              .hand(state.getHand().makeCopy())
+              .bag(state.getBag())
+              .build());
+    }
+    PlayerList order = new PlayerList();
+    for (int p : feedOrder) order.add(players.get(p));
+
+    return Dealer.builder().players(players).order(order).wh(new WaterHole(wh))
+            .deck(new Deck(deck.makeCopy())).turn(turn);
+  }
+
+  /**
+   * Effect: writes this checkpoint to the given path, atomically: the bytes are written to a
+   *         temporary file next to it and forced to disk, which then replaces the file at the
+   *         path, so a crash at any point leaves either the old checkpoint or the new one
+   *
+   * @param path the path of the checkpoint file
+   * @throws IOException if the checkpoint cannot be written
+   */
+  public void write(Path path) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    writeTo(new DataOutputStream(bytes));
+
+    Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+    try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+      ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+      while (buffer.hasRemaining()) channel.write(buffer);
+      channel.force(false);
+    }
+    Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+  }
+
+  /**
+   * Reads the checkpoint at the given path
+   *
+   * @param path the path of the checkpoint file
+   * @return the {@link DealerCheckpoint}
+   * @throws IOException if the checkpoint cannot be read
+   * @throws BinaryParseException if the file is not a valid checkpoint
+   */
+  public static DealerCheckpoint read(Path path) throws IOException {
+    try (DataInputStream in = new DataInputStream(
+            new ByteArrayInputStream(Files.readAllBytes(path)))) {
+      return readFrom(in);
+    }
+    catch (EOFException e) { throw new BinaryParseException("Checkpoint is cut short"); }
+  }
+
+  /**
+   * Effect: writes this checkpoint in the binary format (see {@link DealerCheckpoint})
+   */
+  void writeTo(DataOutput out) throws IOException {
+    out.writeInt(MAGIC);
+    BinaryCodec.writeVarint(out, VERSION);
+    BinaryCodec.writeVarint(out, turn);
+    BinaryCodec.writeVarint(out, ids.size());
+    for (int p = 0; p < ids.size(); p++) {
+      BinaryCodec.writeVarint(out, ids.get(p));
+      BinaryCodec.writeString(out, names.get(p));
+      BinaryCodec.writePlayerState(out, states.get(p));
+    }
+    BinaryCodec.writeVarint(out, feedOrder.size());
+    for (int p : feedOrder) BinaryCodec.writeVarint(out, p);
+    BinaryCodec.writeVarint(out, wh);
+    BinaryCodec.writeHand(out, deck);
+  }
+
+  /**
+   * Reads a checkpoint in the binary format (see {@link DealerCheckpoint})
+   */
+  static DealerCheckpoint readFrom(DataInput in) throws IOException {
+    if (in.readInt() != MAGIC) throw new BinaryParseException("Not a dealer checkpoint");
+    int version = BinaryCodec.readNat(in);
+    if (version != VERSION)
+      throw new BinaryParseException("Unsupported checkpoint version: " + version);
+
+    int turn = BinaryCodec.readNat(in);
+    int numPlayers = BinaryCodec.readNat(in);
+    List<Integer> ids = new ArrayList<>(numPlayers);
+    List<String> names = new ArrayList<>(numPlayers);
+    List<BasePlayer> states = new ArrayList<>(numPlayers);
+    for (int p = 0; p < numPlayers; p++) {
+      ids.add(BinaryCodec.readNat(in));
+      names.add(BinaryCodec.readString(in));
+      states.add(BinaryCodec.readPlayerState(in));
+    }
+
+    int orderSize = BinaryCodec.readNat(in);
+    List<Integer> feedOrder = new ArrayList<>(orderSize);
+    for (int i = 0; i < orderSize; i++) {
+      int p = BinaryCodec.readNat(in);
+      if (p >= numPlayers) throw new BinaryParseException("Invalid player in feed order: " + p);
+      feedOrder.add(p);
+    }
+
+    int wh = BinaryCodec.readNat(in);
+    CardList deck = BinaryCodec.readHand(in);
+    return new DealerCheckpoint(turn, ids, names, states, feedOrder, wh, deck);
+  }
+
+  /******************
+   * Getter methods *
+   ******************/
+  public int getTurn() {
+    return turn;
+  }
+  public int getNumPlayers() {
+    return ids.size();
+  }
+  public List<String> getNames() {
+    return Collections.unmodifiableList(names);
+  }
+}
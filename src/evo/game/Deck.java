@@ -4,28 +4,43 @@ import evo.Constants;
 import evo.game.compare.TraitCardLexOrder;
 import evo.game.list.CardList;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Objects;
+import java.util.*;
 
 /**
- * Created by jackfriedson on 3/12/16.
+ * The deck of {@link TraitCard}s that players draw from.
+ *
+ * The cards are kept in an array with a cursor marking the top of the deck, so drawing a card is
+ * a constant-time operation. Shuffling with a seeded {@link SplittableRandom} makes the order of
+ * the deck reproducible: two decks shuffled with the same seed always deal the same cards.
  */
 public class Deck {
-  private final CardList contents;
+  private static final TraitCard[] ALL_CARDS = allCards();
+
+  private final TraitCard[] cards;
+  private int top;
 
   public Deck() {
-    this.contents = new CardList();
-    init();
-    contents.sort(new TraitCardLexOrder());
+    this.cards = ALL_CARDS.clone();
   }
 
   public Deck(CardList contents) {
-    this.contents = Objects.requireNonNull(contents);
+    this(Objects.requireNonNull(contents).getContents());
   }
 
   public Deck(List<TraitCard> contents) {
-    this.contents = new CardList(Objects.requireNonNull(contents));
+    this.cards = Objects.requireNonNull(contents).toArray(new TraitCard[0]);
+  }
+
+  /**
+   * Creates a deck containing every card in the game, shuffled with the given seed
+   *
+   * @param seed the seed of the {@link SplittableRandom} used to shuffle the deck
+   * @return the shuffled {@link Deck}
+   */
+  public static Deck shuffled(long seed) {
+    Deck result = new Deck();
+    result.shuffle(new SplittableRandom(seed));
+    return result;
   }
 
   /**
@@ -33,7 +48,7 @@ public class Deck {
    *
    * @return the number of cards remaining in the deck
    */
-  public int size() { return this.contents.size(); }
+  public int size() { return cards.length - top; }
 
   /**
    * Attempts to draw the given number of {@link TraitCard}s from this {@link Deck}, and return
@@ -46,19 +61,32 @@ public class Deck {
    * @return the list of drawn {@link TraitCard}s
    */
   public List<TraitCard> draw(int numCards) {
-    List<TraitCard> result = new ArrayList<>();
+    int numDrawn = Math.max(0, Math.min(numCards, size()));
+    List<TraitCard> result = new ArrayList<>(numDrawn);
 
-    int i = 0;
-    while (!this.isEmpty() && i++ < numCards)
-      result.add(contents.remove(0));
+    for (int i = 0; i < numDrawn; i++)
+      result.add(cards[top++]);
 
     return result;
   }
 
   /**
-   * Effect: initializes this {@link Deck} to contain every card in the game
+   * Creates every card in the game, in lexicographic order. Cards are immutable, so every new
+   * full deck shares them.
+   */
+  private static TraitCard[] allCards() {
+    CardList contents = new CardList();
+    init(contents);
+    contents.sort(new TraitCardLexOrder());
+    return contents.getContents().toArray(new TraitCard[0]);
+  }
+
+  /**
+   * Effect: initializes the given list to contain every card in the game
+   *
+   * @param contents the {@link CardList} to add the cards to
    */
-  private void init() {
+  private static void init(CardList contents) {
     for (int i = Constants.MIN_CARN_FOODVAL; i <= Constants.MAX_CARN_FOODVAL; i++)
       contents.add(new TraitCard(i, TraitName.CARNIVORE));
 
@@ -68,9 +96,24 @@ public class Deck {
   }
 
   /**
-   * Effect: shuffles this {@link Deck}
+   * Effect: shuffles the cards remaining in this {@link Deck}
+   */
+  public void shuffle() { shuffle(new SplittableRandom()); }
+
+  /**
+   * Effect: shuffles the cards remaining in this {@link Deck} with the given generator, so that
+   *         the resulting order only depends on the generator's state
+   *
+   * @param rng the {@link SplittableRandom} to shuffle with
    */
-  public void shuffle() { contents.shuffle(); }
+  public void shuffle(SplittableRandom rng) {
+    for (int i = cards.length - 1; i > top; i--) {
+      int j = top + rng.nextInt(i - top + 1);
+      TraitCard temp = cards[i];
+      cards[i] = cards[j];
+      cards[j] = temp;
+    }
+  }
 
   /**
    * Determines whether this {@link Deck} is empty
@@ -78,13 +121,15 @@ public class Deck {
    * @return true if this {@link Deck} is empty
    */
   public boolean isEmpty() {
-    return contents.isEmpty();
+    return size() == 0;
   }
 
   /******************
    * Getter methods *
    ******************/
-  public List<TraitCard> getContents() { return contents.getContents(); }
+  public List<TraitCard> getContents() {
+    return Collections.unmodifiableList(Arrays.asList(cards).subList(top, cards.length));
+  }
 
   @Override
   public boolean equals(Object o) {
@@ -105,7 +150,7 @@ public class Deck {
   @Override
   public String toString() {
     return "Deck{" +
-            "contents=" + contents +
+            "contents=" + getContents() +
             '}';
   }
 }
@@ -1,6 +1,9 @@
 package evo.game;
 
-import com.google.gson.*;
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import evo.Constants;
 import evo.game.choose.Action4;
 import evo.game.feed.FeedResponse;
@@ -10,10 +13,9 @@ import evo.game.list.PlayerList;
 import evo.game.list.SpeciesList;
 import evo.gui.Displayable;
 import evo.gui.View;
-import evo.json.JFactory;
 import evo.json.JUtils;
 
-import java.lang.reflect.Type;
+import java.io.IOException;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
@@ -25,11 +27,15 @@ import java.util.concurrent.*;
 public class EvoPlayer extends BasePlayer implements Displayable {
   private final int id;
   private final ExternalPlayer external;
+  private final QueryService queries;
+  private GameObserver observer = GameObserver.NONE;
 
-  private EvoPlayer(int id, ExternalPlayer external, SpeciesList boards, CardList hand, int bag) {
+  private EvoPlayer(int id, ExternalPlayer external, QueryService queries, SpeciesList boards,
+                    CardList hand, int bag) {
     super(boards, hand, bag);
     this.id = id;
     this.external = Objects.requireNonNull(external);
+    this.queries = Objects.requireNonNull(queries);
     if (!isValid()) throw new InvalidEvoElementException("Invalid EvoPlayer: " + toString());
   }
 
@@ -49,9 +55,18 @@ public class EvoPlayer extends BasePlayer implements Displayable {
    * @return true if this player updated its state successfully, false if the deck ran out
    */
   public void start(int wh, List<TraitCard> toAdd) {
+    start(wh, toAdd, false);
+  }
+
+  /**
+   * Same as {@link #start(int, List)}, but if pipelined, the start message may be held back until
+   * this player's choose query (see {@link ExternalPlayer#startPipelined(int, BasePlayer)})
+   */
+  public void start(int wh, List<TraitCard> toAdd, boolean pipelined) {
     if (getBoards().isEmpty()) this.addNewSpecies();
     getHand().addAll(toAdd);
-    external.start(wh, this);
+    if (pipelined) external.startPipelined(wh, this);
+    else external.start(wh, this);
   }
 
   /**
@@ -66,7 +81,52 @@ public class EvoPlayer extends BasePlayer implements Displayable {
    */
   public Action4 choose(List<SpeciesList> playersBefore, List<SpeciesList> playersAfter)
           throws IllegalResponseException {
-    Action4 response = queryExternal(() -> external.choose(playersBefore, playersAfter));
+    return checkChoice(queryExternal(() -> external.choose(playersBefore, playersAfter)));
+  }
+
+  /**
+   * Starts querying this {@link EvoPlayer} for the actions it would like to take (as in
+   * {@link #choose(List, List)}) without waiting for the response, so that every player can be
+   * queried at once
+   *
+   * @param playersBefore the {@link SpeciesList} of each {@link EvoPlayer} that comes before
+   *                      this one
+   * @param playersAfter the {@link SpeciesList} of each {@link EvoPlayer} that comes after
+   *                      this one
+   * @return the pending response, to pass to {@link #finishChoose(Future, long)}
+   */
+  public Future<Action4> startChoose(List<SpeciesList> playersBefore,
+                                     List<SpeciesList> playersAfter) {
+    long start = System.nanoTime();
+    return queries.submit(() -> {
+      Action4 response = external.choose(playersBefore, playersAfter);
+      observer.playerResponded(id, System.nanoTime() - start);
+      return response;
+    });
+  }
+
+  /**
+   * Waits until the given deadline for the response to a query started with
+   * {@link #startChoose(List, List)}
+   *
+   * @param pending the pending response
+   * @param deadline the {@link System#nanoTime()} by which the player must have responded
+   * @return an {@link Action4} representing the actions this player would like to take
+   */
+  public Action4 finishChoose(Future<Action4> pending, long deadline)
+          throws IllegalResponseException {
+    try { return checkChoice(queries.await(pending, deadline)); }
+    catch (TimeoutException | ExecutionException | InterruptedException e) {
+      throw queryFailure(e);
+    }
+  }
+
+  /**
+   * Checks that the given {@link Action4} is a legal response for this player
+   *
+   * @return the response, if it is legal
+   */
+  private Action4 checkChoice(Action4 response) throws IllegalResponseException {
     if (!response.isValid(this))
       throw new IllegalResponseException("Illegal response: " + response.toJson().toString());
     else return response;
@@ -101,6 +161,23 @@ public class EvoPlayer extends BasePlayer implements Displayable {
    * @return true if the feed step has been completed automatically
    */
   public boolean autoFeed(PlayerList allPlayers, WaterHole wh, Deck deck) {
+    PlayerList otherPlayers = allPlayers.removeLast();
+    return autoFeed(allPlayers, AttackGraph.of(getBoards(), otherPlayers.getAllBoards()), wh, deck);
+  }
+
+  /**
+   * Same as {@link #autoFeed(PlayerList, WaterHole, Deck)}, but uses an {@link AttackGraph} that
+   * has already been built for this feed step instead of recomputing which boards can be attacked
+   *
+   * @param allPlayers the list of all {@link EvoPlayer}s in this game, rotated so that this
+   *                       player is at the end
+   * @param attacks the {@link AttackGraph} from this player's boards to those of the other
+   *                players, in the same order as {@code allPlayers}
+   * @param wh the {@link WaterHole} to feed from
+   * @param deck the {@link Deck} to draw cards from if necessary
+   * @return true if the feed step has been completed automatically
+   */
+  public boolean autoFeed(PlayerList allPlayers, AttackGraph attacks, WaterHole wh, Deck deck) {
     // Invariant: autofeed is only ever called when canFeed returns true, thus it is never the
     //            case that autofeed will be called when there are 0 species to be fed
     int hungryIdx = findUniqueIdx(i -> idxToBoard(i).canEatMore() || idxToBoard(i).canStoreMore());
@@ -114,15 +191,14 @@ public class EvoPlayer extends BasePlayer implements Displayable {
       return true;
     }
     else {
-      PlayerList otherPlayers = allPlayers.removeLast();
-      if (!hungry.canAttackAny(otherPlayers.getAllBoards()))
+      if (!attacks.canAttackAny(hungryIdx))
         throw new IllegalStateException("Invariant broken");
 
-      List<IdxPair> attackables = Utils.getAllAttackables(hungry, otherPlayers.getAllBoards());
-      if (attackables.size() != 1) return false;
+      if (attacks.numTargets(hungryIdx) != 1) return false;
       else {
-        EvoPlayer victimOwner = otherPlayers.get(attackables.get(0).getPlayerIdx());
-        if (feedCarnivore(hungryIdx, victimOwner, attackables.get(0).getSpeciesIdx(), wh, deck))
+        IdxPair victim = attacks.targetsOf(hungryIdx).get(0);
+        EvoPlayer victimOwner = allPlayers.get(victim.getPlayerIdx());
+        if (feedCarnivore(hungryIdx, victimOwner, victim.getSpeciesIdx(), wh, deck))
           allPlayers.feedScavengers(this, wh);
         return true;
       }
@@ -132,6 +208,9 @@ public class EvoPlayer extends BasePlayer implements Displayable {
   /**
    * Queries this {@link EvoPlayer}'s corresponding {@link ExternalPlayer} to take some action,
    * and returns the response, or times out after a specified time interval (defined in Constants).
+   * The query runs on this player's {@link QueryService}. An {@link IllegalResponseException}
+   * thrown by the query itself (e.g. by a player that enforces its own deadline) is passed on.
+   * The time a response took is reported to this player's {@link GameObserver}.
    *
    * @param call the {@link Callable} query to the {@link ExternalPlayer}
    * @param <T> the type of the response from the {@link ExternalPlayer}, must extend
@@ -140,16 +219,29 @@ public class EvoPlayer extends BasePlayer implements Displayable {
    */
   private <T extends PlayerResponse> T queryExternal(Callable<T> call)
           throws IllegalResponseException {
-    ExecutorService executor = Executors.newSingleThreadExecutor();
-    Future<T> future = executor.submit(call);
-
-    try { return future.get(Constants.MAX_RESPONSE_TIME, Constants.TIME_UNIT); }
-    catch (TimeoutException e) { throw new IllegalResponseException("Player timeout"); }
-    catch (InterruptedException | ExecutionException e) {
-      e.printStackTrace();
-      throw new IllegalResponseException("Other player exception");
+    long start = System.nanoTime();
+    try {
+      T response = queries.query(call, Constants.MAX_RESPONSE_TIME, Constants.TIME_UNIT);
+      observer.playerResponded(id, System.nanoTime() - start);
+      return response;
+    }
+    catch (TimeoutException | ExecutionException | InterruptedException e) {
+      throw queryFailure(e);
     }
-    finally { executor.shutdownNow(); }
+  }
+
+  /**
+   * Gets the exception to report for a query that did not produce a response
+   *
+   * @param e the exception thrown by the {@link QueryService}
+   * @return the {@link IllegalResponseException} to kick the player with
+   */
+  private static IllegalResponseException queryFailure(Exception e) {
+    if (e instanceof TimeoutException) return new IllegalResponseException("Player timeout");
+    if (e.getCause() instanceof IllegalResponseException)
+      return (IllegalResponseException) e.getCause();
+    e.printStackTrace();
+    return new IllegalResponseException("Other player exception");
   }
 
   /**
@@ -183,6 +275,19 @@ public class EvoPlayer extends BasePlayer implements Displayable {
   public int getId() {
     return this.id;
   }
+  ExternalPlayer getExternal() {
+    return this.external;
+  }
+  QueryService getQueries() {
+    return this.queries;
+  }
+
+  /**
+   * Effect: reports the response times of this player's queries to the given observer from now on
+   */
+  void setObserver(GameObserver observer) {
+    this.observer = Objects.requireNonNull(observer);
+  }
 
   /**
    * A Player+ is one of
@@ -195,49 +300,51 @@ public class EvoPlayer extends BasePlayer implements Displayable {
    */
 
   private static final String ID_STR = "id";
-  private static final int ID_IDX = 0;
   private static final String BRDS_STR = "species";
-  private static final int BRDS_IDX = 1;
   private static final String BAG_STR = "bag";
-  private static final int BAG_IDX = 2;
   private static final String HAND_STR = "cards";
-  private static final int HAND_IDX = 3;
 
+  public static TypeAdapter<EvoPlayer> adapter() { return ADAPTER; }
+  private static final TypeAdapter<EvoPlayer> ADAPTER = new EvoPlayerAdapter().nullSafe();
 
-  public static JsonSerializer serializer() { return new EvoPlayerSerializer(); }
-  private static class EvoPlayerSerializer implements JsonSerializer<EvoPlayer> {
+  private static class EvoPlayerAdapter extends TypeAdapter<EvoPlayer> {
     @Override
-    public JsonElement serialize(EvoPlayer evoPlayer, Type type,
-                                 JsonSerializationContext jsonSerializationContext) {
-      JsonArray playerJson = new JsonArray();
-      playerJson.add(JUtils.makeIntField(ID_STR, evoPlayer.getId()));
-      playerJson.add(JUtils.makeListField(BRDS_STR, evoPlayer.getBoards()));
-      playerJson.add(JUtils.makeIntField(BAG_STR, evoPlayer.getBag()));
+    public void write(JsonWriter out, EvoPlayer evoPlayer) throws IOException {
+      out.beginArray();
+      JUtils.writeIntField(out, ID_STR, evoPlayer.getId());
 
-      if (!evoPlayer.getHand().isEmpty())
-        playerJson.add(JUtils.makeListField(HAND_STR, evoPlayer.getHand()));
+      JUtils.beginField(out, BRDS_STR);
+      SpeciesList.adapter().write(out, evoPlayer.getBoards());
+      out.endArray();
 
-      return playerJson;
+      JUtils.writeIntField(out, BAG_STR, evoPlayer.getBag());
+
+      if (!evoPlayer.getHand().isEmpty()) {
+        JUtils.beginField(out, HAND_STR);
+        CardList.adapter().write(out, evoPlayer.getHand());
+        out.endArray();
+      }
+      out.endArray();
     }
-  }
 
-  public static JsonDeserializer deserializer() { return new EvoPlayerDeserializer(); }
-  private static class EvoPlayerDeserializer implements JsonDeserializer<EvoPlayer> {
     @Override
-    public EvoPlayer deserialize(JsonElement jsonElement, Type type,
-                                 JsonDeserializationContext jsonDeserializationContext)
-            throws JsonParseException {
-
-      JsonArray jsonPlayer = jsonElement.getAsJsonArray();
+    public EvoPlayer read(JsonReader in) throws IOException {
       EvoPlayerBuilder builder = builder();
-      builder.id(JUtils.getIntFromField(jsonPlayer, ID_STR, ID_IDX));
-      builder.boards(JFactory.fromJson(JUtils.getArrayFromField(jsonPlayer, BRDS_STR, BRDS_IDX),
-              SpeciesList.class));
-      builder.bag(JUtils.getIntFromField(jsonPlayer, BAG_STR, BAG_IDX));
+      in.beginArray();
+      builder.id(JUtils.readIntField(in, ID_STR));
+
+      JUtils.beginField(in, BRDS_STR);
+      builder.boards(SpeciesList.adapter().read(in));
+      in.endArray();
 
-      if (jsonPlayer.size() == 4)
-        builder.hand(JFactory.fromJson(JUtils.getArrayFromField(jsonPlayer, HAND_STR, HAND_IDX),
-                CardList.class));
+      builder.bag(JUtils.readIntField(in, BAG_STR));
+
+      if (in.hasNext()) {
+        JUtils.beginField(in, HAND_STR);
+        builder.hand(CardList.adapter().read(in));
+        in.endArray();
+      }
+      in.endArray();
 
       try { return builder.build(); }
       catch (InvalidEvoElementException e) { throw new JsonParseException(e); }
@@ -248,9 +355,10 @@ public class EvoPlayer extends BasePlayer implements Displayable {
   public static class EvoPlayerBuilder extends BasePlayerBuilder {
     private int id = Constants.MIN_ID;
     private ExternalPlayer external = new SillyPlayer();
+    private QueryService queries = QueryService.shared();
 
     public EvoPlayer build() throws InvalidEvoElementException {
-      return new EvoPlayer(id, external, boards, hand, bag);
+      return new EvoPlayer(id, external, queries, boards, hand, bag);
     }
 
     public EvoPlayerBuilder id(int id) {
@@ -263,6 +371,11 @@ public class EvoPlayer extends BasePlayer implements Displayable {
       return this;
     }
 
+    public EvoPlayerBuilder queries(QueryService queries) {
+      this.queries = Objects.requireNonNull(queries);
+      return this;
+    }
+
     public EvoPlayerBuilder boards(SpeciesBoard... species) {
       this.boards.addAll(Arrays.asList(species));
       return this;
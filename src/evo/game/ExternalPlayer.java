@@ -20,6 +20,15 @@ public interface ExternalPlayer {
    */
   void start(int wh, BasePlayer myState);
 
+  /**
+   * Same as {@link #start(int, BasePlayer)}, but the message may be held back until the
+   * {@link #choose(List, List)} query that always follows it in the same turn, so that a remote
+   * player can receive both at once
+   *
+   * @param myState a representation of this player's internal state
+   */
+  default void startPipelined(int wh, BasePlayer myState) { start(wh, myState); }
+
   /**
    * Chooses actions to take with the cards in this {@link ExternalPlayer}'s hand, given info
    * about the {@link SpeciesList}s of the other players in the game
@@ -0,0 +1,355 @@
+package evo.game;
+
+import evo.binary.BinaryCodec;
+import evo.game.choose.Action4;
+import evo.game.feed.FeedResponse;
+import evo.game.list.CardList;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An append-only binary journal of games, from which a {@link JournalReplayer} can rebuild the
+ * exact state of any of them at any step. Every game is journaled by its own {@link Recorder}
+ * (see {@link #recorder()}): the dealer's initial state (the players, the watering hole and the
+ * whole deck, in order, so that the seed the deck was shuffled with is not needed), then every
+ * decision made during the game, in order.
+ *
+ * Games journaled at once (e.g. on different threads) can share a journal: each recorder collects
+ * its game's records in memory, and appends them to the journal as a chunk tagged with the game's
+ * number at the end of the game, and at the end of any turn by which it has collected
+ * {@link #CHUNK_SIZE} bytes. The journal writes the chunks to its {@link FileChannel} in batches
+ * of {@link #WRITE_SIZE} bytes (and when it is flushed or closed), so recording a game costs a
+ * few microseconds, and a journal cut short (e.g. by a crash) still holds every game up to the
+ * end of the last turn it wrote out.
+ *
+ * A Journal is [Int, Natural, Chunk, ...], i.e. {@link #MAGIC}, {@link #VERSION} and the chunks,
+ * where a Chunk is [Natural, Natural, Byte, ...], i.e. the game's number, the number of bytes and
+ * the bytes. The bytes of a game's chunks, in order, are its records, where a Record is a type
+ * byte followed by its fields:
+ *  - [GAME_START, Natural, [Natural, String, PlayerState], ..., Natural, Hand], i.e. the players'
+ *    ids, names and states, the watering hole and the deck
+ *  - [TURN_START]
+ *  - [CHOSE, Natural, Action4], i.e. a player's id and choice for the turn
+ *  - [AUTO_FEED, Natural], i.e. the id of a player fed automatically
+ *  - [FEED, Natural, FeedResponse], i.e. the id of a player queried to feed and its response
+ *  - [KICK, Natural, String], i.e. the id of a kicked player and the reason
+ *  - [TURN_END]
+ *  - [GAME_END, Natural], i.e. the number of players left
+ * with numbers, strings, states and responses in the format of {@link BinaryCodec}.
+ *
+ * Journaling never ends a game: if a recorder cannot record its game (e.g. because the journal
+ * could not be written), it stops recording that game, which is then read back as if it had been
+ * cut short, and hands the error to the journal. After a failed write, the journal takes no more
+ * chunks, so the games it already holds stay readable. Errors reach the journal's owner through
+ * {@link #flush()} and {@link #close()}, which throw each one once (a failed write by the call
+ * that made it, and the first game lost since by the next call), and through
+ * {@link #getError()}.
+ */
+public final class GameJournal implements Closeable {
+  static final int MAGIC = 0x45564f4a;
+  static final int VERSION = 2;
+
+  static final int GAME_START = 1;
+  static final int TURN_START = 2;
+  static final int CHOSE = 3;
+  static final int AUTO_FEED = 4;
+  static final int FEED = 5;
+  static final int KICK = 6;
+  static final int TURN_END = 7;
+  static final int GAME_END = 8;
+
+  private static final int CHUNK_SIZE = 1 << 12;
+  private static final int WRITE_SIZE = 1 << 16;
+  private static final int INITIAL_SIZE = 1 << 9;
+
+  private final FileChannel channel;
+  private final ByteBuffer pending = ByteBuffer.allocate(WRITE_SIZE);
+  private final AtomicInteger games = new AtomicInteger();
+  private boolean failed = false;
+  private Optional<IOException> error = Optional.empty();
+  private Optional<IOException> unreported = Optional.empty();
+
+  private GameJournal(FileChannel channel) throws IOException {
+    this.channel = channel;
+    ByteArrayOutputStream header = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(header);
+    out.writeInt(MAGIC);
+    BinaryCodec.writeVarint(out, VERSION);
+    append(ByteBuffer.wrap(header.toByteArray()));
+  }
+
+  /**
+   * Creates a journal in a new file at the given path, which must not exist yet, so that no
+   * journal is ever overwritten
+   *
+   * @param path the path of the journal file
+   * @return the new {@link GameJournal}
+   * @throws IOException if the file cannot be created
+   */
+  public static GameJournal create(Path path) throws IOException {
+    return new GameJournal(FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+            StandardOpenOption.WRITE, StandardOpenOption.APPEND));
+  }
+
+  /**
+   * Creates a {@link Recorder} that journals the next game; it must observe a single game
+   *
+   * @return the new {@link Recorder}
+   */
+  public Recorder recorder() {
+    return new Recorder(games.getAndIncrement());
+  }
+
+  /**
+   * Effect: appends the given bytes to the end of the journal, in one piece; they are written to
+   *         the file once {@link #WRITE_SIZE} bytes are pending
+   */
+  private synchronized void append(ByteBuffer... bytes) throws IOException {
+    if (failed) throw new IOException("Journal stopped after a failed write");
+    long size = 0;
+    for (ByteBuffer b : bytes) size += b.remaining();
+    if (size > pending.remaining()) writePending();
+    if (size > pending.remaining()) write(bytes);
+    else for (ByteBuffer b : bytes) pending.put(b);
+  }
+
+  /**
+   * Gets the first error that stopped the journal or one of its recorders, if any
+   */
+  public synchronized Optional<IOException> getError() { return error; }
+
+  /**
+   * Effect: notes that a recorder stopped recording the given game because of the given error,
+   *         which is thrown by the next flush or close unless it is not the journal's first
+   */
+  private synchronized void lost(int game, Exception e) {
+    if (error.isPresent()) return;
+    error = Optional.of(new IOException("Stopped journaling game " + game + ": " + e, e));
+    unreported = error;
+  }
+
+  /**
+   * Effect: throws the error that has not been reported to the journal's owner yet, if any
+   */
+  private void reportError() throws IOException {
+    Optional<IOException> e = unreported;
+    unreported = Optional.empty();
+    if (e.isPresent()) throw e.get();
+  }
+
+  /**
+   * Effect: writes the chunks appended so far to the file, unless a write has already failed
+   *
+   * @throws IOException if the write fails, or the journal's first error has not been thrown yet
+   */
+  public synchronized void flush() throws IOException {
+    if (!failed) {
+      try { writePending(); }
+      catch (IOException | RuntimeException e) {
+        unreported = Optional.empty();
+        throw e;
+      }
+    }
+    reportError();
+  }
+
+  /**
+   * Effect: writes the chunks appended so far to the file
+   */
+  private void writePending() throws IOException {
+    pending.flip();
+    try { write(pending); }
+    finally { pending.clear(); }
+  }
+
+  /**
+   * Effect: writes all of the given bytes to the file; if that fails, the file may end in part of
+   *         a chunk, so the journal stops taking chunks
+   */
+  private void write(ByteBuffer... bytes) throws IOException {
+    long remaining = 0;
+    for (ByteBuffer b : bytes) remaining += b.remaining();
+    try {
+      while (remaining > 0) remaining -= channel.write(bytes);
+    }
+    catch (IOException | RuntimeException e) {
+      failed = true;
+      if (!error.isPresent()) {
+        error = Optional.of(e instanceof IOException
+                ? (IOException) e : new IOException("Journal write failed: " + e, e));
+        unreported = error;
+      }
+      throw e;
+    }
+  }
+
+  /**
+   * Effect: writes the chunks appended so far and closes the journal; the games still being
+   *         recorded lose the records they have not appended yet
+   *
+   * @throws IOException as {@link #flush()} does
+   */
+  @Override
+  public synchronized void close() throws IOException {
+    if (!channel.isOpen()) return;
+    try { flush(); }
+    finally { channel.close(); }
+  }
+
+  /**
+   * A {@link GameObserver} that journals one game. The events of a game are reported on the
+   * thread playing it, so a recorder only synchronizes with the others when it appends a chunk.
+   */
+  public final class Recorder implements GameObserver {
+    private final int game;
+    private final Records records = new Records();
+    private final DataOutputStream out = new DataOutputStream(records);
+    private boolean stopped = false;
+
+    private Recorder(int game) {
+      this.game = game;
+    }
+
+    @Override
+    public void gameStarted(Dealer dealer) {
+      record(() -> {
+        out.writeByte(GAME_START);
+        BinaryCodec.writeVarint(out, dealer.getPlayers().size());
+        for (EvoPlayer player : dealer.getPlayers()) {
+          BinaryCodec.writeVarint(out, player.getId());
+          BinaryCodec.writeString(out, player.getExternal().getName());
+          BinaryCodec.writePlayerState(out, player);
+        }
+        BinaryCodec.writeVarint(out, dealer.getWHTokens());
+        BinaryCodec.writeHand(out, new CardList(dealer.getDeckContents()));
+      });
+    }
+
+    @Override
+    public void turnStarted() {
+      record(() -> out.writeByte(TURN_START));
+    }
+
+    @Override
+    public void playerChose(int playerId, Action4 choice) {
+      record(() -> {
+        out.writeByte(CHOSE);
+        BinaryCodec.writeVarint(out, playerId);
+        BinaryCodec.writeAction4(out, choice);
+      });
+    }
+
+    @Override
+    public void playerAutoFed(int playerId) {
+      record(() -> {
+        out.writeByte(AUTO_FEED);
+        BinaryCodec.writeVarint(out, playerId);
+      });
+    }
+
+    @Override
+    public void playerAnswered(int playerId, FeedResponse response) {
+      record(() -> {
+        out.writeByte(FEED);
+        BinaryCodec.writeVarint(out, playerId);
+        BinaryCodec.writeFeedResponse(out, response);
+      });
+    }
+
+    @Override
+    public void playerKicked(int playerId, String reason) {
+      record(() -> {
+        out.writeByte(KICK);
+        BinaryCodec.writeVarint(out, playerId);
+        BinaryCodec.writeString(out, reason == null ? "" : reason);
+      });
+    }
+
+    @Override
+    public void turnEnded(long nanos) {
+      record(() -> {
+        out.writeByte(TURN_END);
+        if (records.size() >= CHUNK_SIZE) appendChunk();
+      });
+    }
+
+    @Override
+    public void gameEnded(int numPlayers) {
+      record(() -> {
+        out.writeByte(GAME_END);
+        BinaryCodec.writeVarint(out, numPlayers);
+        appendChunk();
+      });
+    }
+
+    /**
+     * Effect: writes a record with the given writer, unless recording has stopped. If writing it
+     *         fails, hands the error to the journal and stops recording, dropping the records
+     *         not appended yet (so that no partial record is ever appended), instead of failing
+     *         the game.
+     */
+    private void record(RecordWriter writer) {
+      if (stopped) return;
+      try { writer.write(); }
+      catch (IOException | RuntimeException e) {
+        stopped = true;
+        records.reset();
+        lost(game, e);
+      }
+    }
+
+    /**
+     * Effect: appends the records collected so far to the journal, as a chunk of this game
+     */
+    private void appendChunk() throws IOException {
+      ByteArrayOutputStream header = new ByteArrayOutputStream();
+      DataOutputStream headerOut = new DataOutputStream(header);
+      BinaryCodec.writeVarint(headerOut, game);
+      BinaryCodec.writeVarint(headerOut, records.size());
+      append(ByteBuffer.wrap(header.toByteArray()), records.toByteBuffer());
+      records.reset();
+    }
+  }
+
+  /**
+   * Writes a record to a {@link Recorder}'s records
+   */
+  private interface RecordWriter {
+    void write() throws IOException;
+  }
+
+  /**
+   * The records of a game that have not been appended to the journal yet, which can be appended
+   * without copying them. Only the thread playing the game writes them, so unlike a plain
+   * {@link ByteArrayOutputStream} they are written without taking a lock for every byte.
+   */
+  private static final class Records extends ByteArrayOutputStream {
+    private Records() {
+      super(INITIAL_SIZE);
+    }
+
+    @Override
+    public void write(int b) {
+      if (count == buf.length) buf = Arrays.copyOf(buf, 2 * count);
+      buf[count++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+      if (count + len > buf.length) buf = Arrays.copyOf(buf, Math.max(2 * buf.length, count + len));
+      System.arraycopy(b, off, buf, count, len);
+      count += len;
+    }
+
+    private ByteBuffer toByteBuffer() {
+      return ByteBuffer.wrap(buf, 0, count);
+    }
+  }
+}
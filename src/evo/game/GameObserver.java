@@ -0,0 +1,124 @@
+package evo.game;
+
+import evo.game.choose.Action4;
+import evo.game.feed.FeedResponse;
+
+/**
+ * Is told what happens over the course of a game run by a {@link Dealer} (see
+ * {@link Dealer.DealerBuilder#observer(GameObserver)}), e.g. to record metrics or a
+ * {@link GameJournal}.
+ *
+ * Every event carries only primitives (or values the dealer has already built), so the default
+ * observer, {@link #NONE}, costs no allocation. The events of a game are reported on the thread
+ * playing it, except for {@link #playerResponded(int, long)}, which may be reported by the
+ * threads of players queried at once. Observers may also be shared by games running on different
+ * threads, so implementations that are shared must be thread-safe.
+ */
+public interface GameObserver {
+  GameObserver NONE = new GameObserver() { };
+
+  /**
+   * Creates an observer that reports every event to each of the given observers, in order
+   *
+   * @param observers the observers to report to
+   * @return the new {@link GameObserver}
+   */
+  static GameObserver all(GameObserver... observers) {
+    GameObserver[] all = observers.clone();
+    return new GameObserver() {
+      @Override
+      public void gameStarted(Dealer dealer) { for (GameObserver o : all) o.gameStarted(dealer); }
+
+      @Override
+      public void gameEnded(int numPlayers) { for (GameObserver o : all) o.gameEnded(numPlayers); }
+
+      @Override
+      public void turnStarted() { for (GameObserver o : all) o.turnStarted(); }
+
+      @Override
+      public void playerChose(int playerId, Action4 choice) {
+        for (GameObserver o : all) o.playerChose(playerId, choice);
+      }
+
+      @Override
+      public void turnEnded(long nanos) { for (GameObserver o : all) o.turnEnded(nanos); }
+
+      @Override
+      public void feedRoundEnded(int steps) { for (GameObserver o : all) o.feedRoundEnded(steps); }
+
+      @Override
+      public void playerAutoFed(int playerId) {
+        for (GameObserver o : all) o.playerAutoFed(playerId);
+      }
+
+      @Override
+      public void playerAnswered(int playerId, FeedResponse response) {
+        for (GameObserver o : all) o.playerAnswered(playerId, response);
+      }
+
+      @Override
+      public void playerResponded(int playerId, long nanos) {
+        for (GameObserver o : all) o.playerResponded(playerId, nanos);
+      }
+
+      @Override
+      public void playerKicked(int playerId, String reason) {
+        for (GameObserver o : all) o.playerKicked(playerId, reason);
+      }
+    };
+  }
+
+  /**
+   * Effect: notes the start of a game played (from the start of a turn) by the given dealer,
+   *         which is in its initial state; the dealer must not be modified
+   */
+  default void gameStarted(Dealer dealer) { }
+
+  /**
+   * Effect: notes the end of a game with the given number of players left in it
+   */
+  default void gameEnded(int numPlayers) { }
+
+  /**
+   * Effect: notes the start of a turn, before the players are dealt their cards
+   */
+  default void turnStarted() { }
+
+  /**
+   * Effect: notes the {@link Action4} the given player chose to play this turn
+   */
+  default void playerChose(int playerId, Action4 choice) { }
+
+  /**
+   * Effect: notes the end of a turn (from dealing the cards to the end of the feeding round) that
+   *         took the given time
+   */
+  default void turnEnded(long nanos) { }
+
+  /**
+   * Effect: notes the end of a feeding round made up of the given number of feed steps
+   */
+  default void feedRoundEnded(int steps) { }
+
+  /**
+   * Effect: notes a feed step in which the given player was fed automatically, because it had
+   *         only one choice
+   */
+  default void playerAutoFed(int playerId) { }
+
+  /**
+   * Effect: notes a feed step in which the given player was queried and gave the given (legal)
+   *         {@link FeedResponse}, which is about to be carried out
+   */
+  default void playerAnswered(int playerId, FeedResponse response) { }
+
+  /**
+   * Effect: notes a response from the given player that took the given time to arrive
+   */
+  default void playerResponded(int playerId, long nanos) { }
+
+  /**
+   * Effect: notes that the given player was kicked from the game for the given reason
+   */
+  default void playerKicked(int playerId, String reason) { }
+}
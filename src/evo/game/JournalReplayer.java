@@ -0,0 +1,384 @@
+package evo.game;
+
+import evo.binary.BinaryCodec;
+import evo.binary.BinaryParseException;
+import evo.game.choose.Action4;
+import evo.game.feed.FeedResponse;
+import evo.game.list.CardList;
+import evo.game.list.PlayerList;
+import evo.game.list.SpeciesList;
+
+import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * Rebuilds the state of a game recorded in a {@link GameJournal}, at any step of the game.
+ *
+ * The game is replayed from its initial state on a new {@link Dealer}, through the same steps the
+ * original dealer took, with players that make the decisions recorded in the journal. A step is
+ * one of
+ *  - the start of a turn, when the players are dealt their cards
+ *  - the players' choices for the turn (and the kicks of those who failed to choose), carried out
+ *    up to the start of the feeding round
+ *  - a feed step, i.e. one call to {@link Dealer#feed1()}, the last of which also ends the
+ *    feeding round
+ *  - the end of a turn
+ * so the state after step n is exactly the state of the original dealer at that point, and
+ * replaying every step gives its final state. Every automatic feeding decision is checked against
+ * the journal as it is made again.
+ */
+public final class JournalReplayer {
+  private final List<SeatRecord> seats = new ArrayList<>();
+  private final int wh;
+  private final CardList deck;
+  private final List<Event> events = new ArrayList<>();
+
+  /**
+   * A seat's record in the initial state of the game
+   */
+  private static final class SeatRecord {
+    private final int id;
+    private final String name;
+    private final BasePlayer state;
+
+    private SeatRecord(int id, String name, BasePlayer state) {
+      this.id = id;
+      this.name = name;
+      this.state = state;
+    }
+  }
+
+  /**
+   * A record of the journal after the initial state, with the fields its type has
+   */
+  private static final class Event {
+    private final int type;
+    private final int playerId;
+    private final Object value;
+
+    private Event(int type, int playerId, Object value) {
+      this.type = type;
+      this.playerId = playerId;
+      this.value = value;
+    }
+  }
+
+  private JournalReplayer(DataInput in) throws IOException {
+    if (in.readUnsignedByte() != GameJournal.GAME_START)
+      throw new BinaryParseException("Journaled game does not start with its initial state");
+
+    int numPlayers = BinaryCodec.readNat(in);
+    for (int i = 0; i < numPlayers; i++) {
+      int id = BinaryCodec.readNat(in);
+      String name = BinaryCodec.readString(in);
+      seats.add(new SeatRecord(id, name, BinaryCodec.readPlayerState(in)));
+    }
+    this.wh = BinaryCodec.readNat(in);
+    this.deck = BinaryCodec.readHand(in);
+
+    int complete = 0;
+    int type;
+    try {
+      while ((type = readType(in)) != -1) {
+        readEvent(in, type);
+        if (type == GameJournal.TURN_END) complete = events.size();
+        if (type == GameJournal.GAME_END) return;
+      }
+    }
+    catch (EOFException e) { /* the game is cut short mid-record */ }
+    events.subList(complete, events.size()).clear();
+  }
+
+  /**
+   * Effect: reads the fields of a record of the given type, and adds it to the events
+   */
+  private void readEvent(DataInput in, int type) throws IOException {
+    switch (type) {
+      case GameJournal.TURN_START:
+      case GameJournal.TURN_END:
+        events.add(new Event(type, 0, null));
+        break;
+      case GameJournal.CHOSE:
+        events.add(new Event(type, BinaryCodec.readNat(in), BinaryCodec.readAction4(in)));
+        break;
+      case GameJournal.AUTO_FEED:
+        events.add(new Event(type, BinaryCodec.readNat(in), null));
+        break;
+      case GameJournal.FEED:
+        events.add(new Event(type, BinaryCodec.readNat(in), BinaryCodec.readFeedResponse(in)));
+        break;
+      case GameJournal.KICK:
+        events.add(new Event(type, BinaryCodec.readNat(in), BinaryCodec.readString(in)));
+        break;
+      case GameJournal.GAME_END:
+        BinaryCodec.readNat(in);
+        break;
+      default:
+        throw new BinaryParseException("Invalid journal record: " + type);
+    }
+  }
+
+  /**
+   * Reads every game in the journal at the given path, in the order they were started. A journal
+   * cut short (e.g. by a crash) is read up to its last complete chunk, so every game it holds is
+   * read up to the end of the last turn that was written out for it.
+   *
+   * @param path the path of the journal file
+   * @return a {@link JournalReplayer} for each game that has records in the journal
+   * @throws IOException if the journal cannot be read
+   * @throws BinaryParseException if the file is not a valid journal
+   */
+  public static List<JournalReplayer> readAll(Path path) throws IOException {
+    SortedMap<Integer, ByteArrayOutputStream> games = new TreeMap<>();
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+         DataInputStream in = new DataInputStream(
+                 new BufferedInputStream(Channels.newInputStream(channel)))) {
+      if (in.readInt() != GameJournal.MAGIC) throw new BinaryParseException("Not a game journal");
+      int version = BinaryCodec.readNat(in);
+      if (version != GameJournal.VERSION)
+        throw new BinaryParseException("Unsupported journal version: " + version);
+
+      byte[] chunk = new byte[0];
+      try {
+        while (true) {
+          int game = BinaryCodec.readNat(in);
+          int length = BinaryCodec.readNat(in);
+          if (chunk.length < length) chunk = new byte[length];
+          in.readFully(chunk, 0, length);
+          games.computeIfAbsent(game, g -> new ByteArrayOutputStream()).write(chunk, 0, length);
+        }
+      }
+      catch (EOFException e) { /* the end of the journal, or of its last complete chunk */ }
+    }
+
+    List<JournalReplayer> result = new ArrayList<>();
+    for (ByteArrayOutputStream records : games.values()) {
+      result.add(new JournalReplayer(
+              new DataInputStream(new ByteArrayInputStream(records.toByteArray()))));
+    }
+    return result;
+  }
+
+  /**
+   * Reads the given game in the journal at the given path (see {@link #readAll(Path)})
+   *
+   * @param path the path of the journal file
+   * @param game the index of the game, among those that have records in the journal
+   * @return the {@link JournalReplayer} for that game
+   * @throws IOException if the journal cannot be read
+   * @throws BinaryParseException if the file is not a valid journal
+   * @throws IllegalArgumentException if the journal holds no such game
+   */
+  public static JournalReplayer read(Path path, int game) throws IOException {
+    List<JournalReplayer> games = readAll(path);
+    if (game < 0 || game >= games.size())
+      throw new IllegalArgumentException("Journal has no game " + game + " (it has "
+              + games.size() + ")");
+    return games.get(game);
+  }
+
+  /**
+   * Reads the type of the next record, or -1 at the end of the journal
+   */
+  private static int readType(DataInput in) throws IOException {
+    try { return in.readUnsignedByte(); }
+    catch (EOFException e) { return -1; }
+  }
+
+  /**
+   * Rebuilds the state of the game after the given number of steps (or at the end of the
+   * journal, if it has fewer)
+   *
+   * @param steps the number of steps to replay
+   * @return a new {@link Dealer} in the state of the game after those steps
+   * @throws IllegalStateException if the game does not replay the way it was journaled
+   */
+  public Dealer dealerAt(long steps) {
+    return new Replay().play(steps);
+  }
+
+  /**
+   * Rebuilds the state of the game at the end of the journal
+   *
+   * @return a new {@link Dealer} in the final state of the game
+   */
+  public Dealer finalDealer() {
+    return dealerAt(Long.MAX_VALUE);
+  }
+
+  /**
+   * Gets the number of steps in the journaled game (see {@link JournalReplayer})
+   */
+  public long numSteps() {
+    Replay replay = new Replay();
+    replay.play(Long.MAX_VALUE);
+    return replay.steps;
+  }
+
+  /******************
+   * Getter methods *
+   ******************/
+  public int getNumPlayers() {
+    return seats.size();
+  }
+  public int getNumEvents() {
+    return events.size();
+  }
+
+  /**
+   * One replay of the journal, on a new {@link Dealer} that reports its events to the replay, so
+   * that they can be checked against the journal
+   */
+  private final class Replay implements GameObserver {
+    private final Map<Integer, Action4> choices = new HashMap<>();
+    private final Map<Integer, String> kicks = new HashMap<>();
+    private int next = 0;
+    private long steps = 0;
+    private Optional<String> mismatch = Optional.empty();
+
+    /**
+     * Replays the given number of steps
+     *
+     * @return the dealer in the state after them
+     */
+    private Dealer play(long maxSteps) {
+      PlayerList players = new PlayerList();
+      for (SeatRecord seat : seats) {
+        players.add(EvoPlayer.builder()
+                .id(seat.id)
+                .external(new ReplayPlayer(seat.id, seat.name))
+                .queries(QueryService.inline())
+                .boards(seat.state.getBoards().makeCopy())
+                .hand(seat.state.getHand().makeCopy())
+                .bag(seat.state.getBag())
+                .build());
+      }
+      Dealer dealer = Dealer.builder()
+              .players(players)
+              .wh(new WaterHole(wh))
+              .deck(new Deck(deck.makeCopy()))
+              .quiet()
+              .observer(this)
+              .build();
+
+      boolean feeding = false;
+      while (steps < maxSteps && (feeding || next < events.size())) {
+        if (feeding) {
+          dealer.feed1();
+          if (!dealer.isFeeding()) {
+            dealer.endFeeding();
+            feeding = false;
+          }
+        }
+        else {
+          Event event = events.get(next);
+          switch (event.type) {
+            case GameJournal.TURN_START:
+              next++;
+              dealer.startTurn();
+              break;
+            case GameJournal.CHOSE:
+            case GameJournal.KICK:
+              readChoices();
+              dealer.startFeeding(dealer.chooseAll());
+              feeding = dealer.isFeeding();
+              if (!feeding) dealer.endFeeding();
+              break;
+            case GameJournal.TURN_END:
+              next++;
+              dealer.endTurn();
+              break;
+            default:
+              throw new IllegalStateException("Unexpected feeding record outside a feeding round");
+          }
+        }
+        steps++;
+        mismatch.ifPresent(message -> { throw new IllegalStateException(message); });
+      }
+      return dealer;
+    }
+
+    /**
+     * Effect: reads the choices and the kicks of a turn, for the players to replay them
+     */
+    private void readChoices() {
+      choices.clear();
+      kicks.clear();
+      while (next < events.size()) {
+        Event event = events.get(next);
+        if (event.type == GameJournal.CHOSE) choices.put(event.playerId, (Action4) event.value);
+        else if (event.type == GameJournal.KICK) kicks.put(event.playerId, (String) event.value);
+        else break;
+        next++;
+      }
+    }
+
+    /**
+     * Takes the next event if it is of the given type and for the given player, and otherwise
+     * notes that the replay does not match the journal
+     *
+     * @return the event, if it matched
+     */
+    private Optional<Event> take(int type, int playerId) {
+      if (next < events.size()) {
+        Event event = events.get(next);
+        if (event.type == type && event.playerId == playerId) {
+          next++;
+          return Optional.of(event);
+        }
+      }
+      mismatch = Optional.of("Replay does not match the journal at record " + next
+              + ": expected a record of type " + type + " for player " + playerId);
+      return Optional.empty();
+    }
+
+    @Override
+    public void playerAutoFed(int playerId) { take(GameJournal.AUTO_FEED, playerId); }
+
+    /**
+     * A player that makes the decisions recorded in the journal for its seat
+     */
+    private final class ReplayPlayer implements ExternalPlayer {
+      private final int id;
+      private final String name;
+
+      private ReplayPlayer(int id, String name) {
+        this.id = id;
+        this.name = name;
+      }
+
+      @Override
+      public void start(int wh, BasePlayer myState) { }
+
+      @Override
+      public Action4 choose(List<SpeciesList> playersBefore, List<SpeciesList> playersAfter) {
+        if (kicks.containsKey(id)) throw new IllegalResponseException(kicks.get(id));
+        if (!choices.containsKey(id)) {
+          mismatch = Optional.of("Journal has no choice for player " + id);
+          throw new IllegalResponseException("Replay mismatch");
+        }
+        return choices.get(id);
+      }
+
+      @Override
+      public FeedResponse feedNext(BasePlayer myState, List<SpeciesList> otherBoards, int tokens) {
+        if (next < events.size() && events.get(next).type == GameJournal.KICK) {
+          Optional<Event> kick = take(GameJournal.KICK, id);
+          throw new IllegalResponseException(kick.map(e -> (String) e.value).orElse(""));
+        }
+        return take(GameJournal.FEED, id).map(e -> (FeedResponse) e.value)
+                .orElseThrow(() -> new IllegalResponseException("Replay mismatch"));
+      }
+
+      @Override
+      public void gameOver() { }
+
+      @Override
+      public String getName() { return name; }
+    }
+  }
+}
@@ -0,0 +1,499 @@
+package evo.game;
+
+import evo.Constants;
+import evo.game.choose.*;
+import evo.game.feed.*;
+import evo.game.list.CardList;
+import evo.game.list.PlayerList;
+import evo.game.list.SpeciesList;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An automated player that searches for its moves with Monte Carlo tree search at the root of the
+ * game tree. For every decision it generates a set of candidate moves, then keeps playing out the
+ * rest of the game after one of them (picked by UCB1, so that promising moves get most of the
+ * play-outs) until its time budget runs out, and answers with the move that was played out most.
+ *
+ * A play-out needs the whole state of the game, but a player only ever sees its own hand and
+ * everyone's boards, so the rest is guessed afresh for every play-out: the cards this player has
+ * not seen are shuffled, dealt to the other players and stacked into a deck whose size is
+ * estimated from the cards dealt so far. The game is then played out on a quiet {@link Dealer},
+ * with every player (including this one, after the move being tried) playing like a
+ * {@link SillyPlayer}.
+ *
+ * The search can be split across several workers, each playing out moves on its own until the
+ * deadline and sharing nothing with the others (root parallelism); their statistics are added up
+ * at the end. The workers run on the player's executor, by default a pool of one daemon thread per
+ * core shared by every {@link MctsPlayer}, and never on the calling thread, so the answer is never
+ * held up by a slow play-out.
+ */
+public class MctsPlayer implements ExternalPlayer {
+  private static final long DEFAULT_BUDGET = 1;
+  private static final TimeUnit DEFAULT_BUDGET_UNIT = TimeUnit.SECONDS;
+  private static final int RANDOM_CANDIDATES = 24;
+  private static final double EXPLORATION = 0.7;
+  private static final double REWARD_SCALE = 5.0;
+  private static final List<TraitCard> ALL_CARDS = new Deck().getContents();
+
+  /**
+   * The threads that searches run on unless given an executor of their own
+   */
+  private static class SearchThreads {
+    private static final ExecutorService POOL;
+    static {
+      AtomicInteger count = new AtomicInteger();
+      POOL = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), r -> {
+        Thread t = new Thread(r, "evo-mcts-" + count.incrementAndGet());
+        t.setDaemon(true);
+        return t;
+      });
+    }
+  }
+
+  private final String name;
+  private final long budgetNanos;
+  private final int parallelism;
+  private final Executor executor;
+  private final SplittableRandom rng;
+  private final SillyPlayer policy = new SillyPlayer();
+
+  private final SpeciesList boards = new SpeciesList();
+  private final CardList hand = new CardList();
+  private int bag = Constants.MIN_FOOD_BAG;
+  private int wh = 0;
+  private int seat = 0;
+  private int cardsDealt = 0;
+
+  private MctsPlayer(String name, long budgetNanos, int parallelism, Executor executor,
+                     SplittableRandom rng) {
+    this.name = name;
+    this.budgetNanos = budgetNanos;
+    this.parallelism = parallelism;
+    this.executor = executor;
+    this.rng = rng;
+  }
+
+  /**
+   * Effect: replaces this player's view of its own state with the given state
+   */
+  private void update(BasePlayer newState) {
+    this.boards.update(newState.getBoards());
+    this.hand.update(newState.getHand());
+    this.bag = newState.getBag();
+  }
+
+  @Override
+  public void start(int wh, BasePlayer myState) {
+    update(myState);
+    this.wh = wh;
+  }
+
+  /**
+   * Chooses the actions to take with this player's cards: every candidate {@link Action4} is
+   * played out from the current turn's choose step, after dealing the unseen cards to the other
+   * players
+   */
+  @Override
+  public Action4 choose(List<SpeciesList> playersBefore, List<SpeciesList> playersAfter) {
+    seat = playersBefore.size();
+    List<SpeciesList> others = new ArrayList<>(playersBefore);
+    others.addAll(playersAfter);
+    cardsDealt += Constants.CARDS_PER_TURN + boards.size();
+    for (SpeciesList other : others) cardsDealt += Constants.CARDS_PER_TURN + other.size();
+
+    List<Action4> candidates = chooseCandidates();
+    if (candidates.size() == 1) return candidates.get(0);
+
+    List<TraitCard> unseen = unseenCards(others);
+    return candidates.get(search(candidates.size(), (move, random) ->
+            playOutChoice(candidates.get(move), others, unseen, random)));
+  }
+
+  /**
+   * Chooses which of this player's boards to feed: every legal {@link FeedResponse} is played out
+   * from the current step of the feeding round, assuming the other players still want to feed
+   */
+  @Override
+  public FeedResponse feedNext(BasePlayer myState, List<SpeciesList> otherBoards, int tokens) {
+    update(myState);
+    List<FeedResponse> candidates = MoveGenerator.feedMoves(myState, otherBoards, tokens);
+    if (candidates.size() == 1) return candidates.get(0);
+
+    List<TraitCard> unseen = unseenCards(otherBoards);
+    return candidates.get(search(candidates.size(), (move, random) ->
+            playOutFeeding(candidates.get(move), otherBoards, tokens, unseen, random)));
+  }
+
+  @Override
+  public void gameOver() {
+    cardsDealt = 0;
+    seat = 0;
+  }
+
+  @Override
+  public String getName() { return name; }
+
+
+  /**
+   * Searches for the best of the given number of moves until this player's budget runs out. The
+   * workers stop starting play-outs at the end of the budget, and their statistics are collected
+   * until the end of a second budget (which leaves room to answer within
+   * {@link Constants#MAX_RESPONSE_TIME}); a worker still in a play-out by then is left out.
+   *
+   * @param numMoves the number of candidate moves
+   * @param playOut plays out the game after a move, returning a reward between 0 and 1
+   * @return the index of the move that was played out most
+   */
+  private int search(int numMoves, PlayOut playOut) {
+    long deadline = System.nanoTime() + budgetNanos;
+    List<CompletableFuture<Stats>> workers = new ArrayList<>();
+    for (int i = 0; i < parallelism; i++) {
+      SplittableRandom random = rng.split();
+      workers.add(CompletableFuture.supplyAsync(() ->
+              searchUntil(deadline, numMoves, playOut, random), executor));
+    }
+
+    long answerBy = deadline + budgetNanos;
+    Stats result = new Stats(numMoves);
+    for (CompletableFuture<Stats> worker : workers) {
+      long remaining = Math.max(0, answerBy - System.nanoTime());
+      try { result.add(worker.get(remaining, TimeUnit.NANOSECONDS)); }
+      catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        break;
+      }
+      catch (ExecutionException | TimeoutException e) {
+        /* the worker's play-outs are lost, the others stand */
+      }
+    }
+    return result.mostPlayed();
+  }
+
+  /**
+   * Plays out moves on the calling thread until the deadline, trying every move once before
+   * picking moves by their upper confidence bound
+   */
+  private static Stats searchUntil(long deadline, int numMoves, PlayOut playOut,
+                                   SplittableRandom random) {
+    Stats stats = new Stats(numMoves);
+    while (System.nanoTime() < deadline) {
+      int move = stats.nextMove();
+      try { stats.record(move, playOut.play(move, random)); }
+      catch (RuntimeException e) { stats.record(move, 0); }
+    }
+    return stats;
+  }
+
+  /**
+   * The play-out of the rest of a game after one move
+   */
+  private interface PlayOut {
+    double play(int move, SplittableRandom random);
+  }
+
+  /**
+   * The number of times each move was played out, and the total reward of its play-outs
+   */
+  private static class Stats {
+    private final int[] plays;
+    private final double[] rewards;
+    private int total = 0;
+
+    private Stats(int numMoves) {
+      this.plays = new int[numMoves];
+      this.rewards = new double[numMoves];
+    }
+
+    private int nextMove() {
+      if (total < plays.length) return total;
+      int best = 0;
+      double bestBound = Double.NEGATIVE_INFINITY;
+      double logTotal = Math.log(total);
+      for (int i = 0; i < plays.length; i++) {
+        double bound = rewards[i] / plays[i] + EXPLORATION * Math.sqrt(logTotal / plays[i]);
+        if (bound > bestBound) {
+          best = i;
+          bestBound = bound;
+        }
+      }
+      return best;
+    }
+
+    private void record(int move, double reward) {
+      plays[move]++;
+      rewards[move] += reward;
+      total++;
+    }
+
+    private void add(Stats other) {
+      for (int i = 0; i < plays.length; i++) {
+        plays[i] += other.plays[i];
+        rewards[i] += other.rewards[i];
+      }
+      total += other.total;
+    }
+
+    private int mostPlayed() {
+      int best = 0;
+      for (int i = 1; i < plays.length; i++)
+        if (plays[i] > plays[best] || (plays[i] == plays[best] && plays[i] > 0
+                && rewards[i] / plays[i] > rewards[best] / plays[best]))
+          best = i;
+      return best;
+    }
+  }
+
+
+  /**
+   * Plays out the rest of the game from the current turn's choose step, where this player makes
+   * the given choice
+   *
+   * @return the reward of the play-out
+   */
+  private double playOutChoice(Action4 choice, List<SpeciesList> others, List<TraitCard> unseen,
+                               SplittableRandom random) {
+    List<TraitCard> cards = shuffled(unseen, random);
+    int dealt = 0;
+    List<EvoPlayer> seats = new ArrayList<>();
+    for (int i = 0; i <= others.size(); i++) {
+      if (i == seat) {
+        seats.add(myCopy(i + 1, new FirstMovePlayer(Optional.of(choice), Optional.empty())));
+        continue;
+      }
+      SpeciesList boards = others.get(i < seat ? i : i - 1).makeCopy();
+      int handSize = Math.min(Constants.CARDS_PER_TURN + boards.size(), cards.size() - dealt);
+      seats.add(EvoPlayer.builder().id(i + 1).external(new SillyPlayer())
+              .queries(QueryService.inline()).boards(boards)
+              .hand(new ArrayList<>(cards.subList(dealt, dealt + handSize))).build());
+      dealt += handSize;
+    }
+    seats.forEach(p -> p.updateExternal(wh));
+
+    Dealer dealer = Dealer.builder().players(new PlayerList(seats)).deck(deck(cards, dealt))
+            .wh(new WaterHole(wh)).quiet().build();
+    return reward(dealer.resumeAtChoose(), seat + 1);
+  }
+
+  /**
+   * Plays out the rest of the game from the current step of the feeding round, where this player
+   * makes the given choice. The other players are seated in the order they were in at the choose
+   * step, and have played all of their cards.
+   *
+   * @return the reward of the play-out
+   */
+  private double playOutFeeding(FeedResponse choice, List<SpeciesList> otherBoards, int tokens,
+                                List<TraitCard> unseen, SplittableRandom random) {
+    int numPlayers = otherBoards.size() + 1;
+    int mySeat = Math.min(seat, numPlayers - 1);
+
+    // the other boards start with the player after this one
+    EvoPlayer[] seats = new EvoPlayer[numPlayers];
+    List<EvoPlayer> feedOrder = new ArrayList<>();
+    seats[mySeat] = myCopy(mySeat + 1, new FirstMovePlayer(Optional.empty(), Optional.of(choice)));
+    feedOrder.add(seats[mySeat]);
+    for (int i = 0; i < otherBoards.size(); i++) {
+      int s = (mySeat + 1 + i) % numPlayers;
+      seats[s] = EvoPlayer.builder().id(s + 1).external(new SillyPlayer())
+              .queries(QueryService.inline()).boards(otherBoards.get(i).makeCopy()).build();
+      feedOrder.add(seats[s]);
+    }
+
+    Dealer dealer = Dealer.builder().players(new PlayerList(Arrays.asList(seats)))
+            .order(new PlayerList(feedOrder)).deck(deck(shuffled(unseen, random), 0))
+            .wh(new WaterHole(tokens)).quiet().build();
+    return reward(dealer.resumeAtFeeding(), mySeat + 1);
+  }
+
+  /**
+   * Gets the reward of a play-out for the player with the given id: 1/2 for tying with the best
+   * of the other players, and closer to 1 (or 0) the further ahead of (or behind) them it ends up
+   */
+  private static double reward(List<PlayerScore> rankings, int id) {
+    int mine = -1;
+    int bestOther = 0;
+    for (PlayerScore score : rankings) {
+      if (score.getId() == id) mine = score.getScore();
+      else bestOther = Math.max(bestOther, score.getScore());
+    }
+    if (mine < 0) return 0;
+    return 0.5 + 0.5 * Math.tanh((mine - bestOther) / REWARD_SCALE);
+  }
+
+  /**
+   * Creates a copy of this player's state for a play-out, with the given id and external player
+   */
+  private EvoPlayer myCopy(int id, ExternalPlayer external) {
+    return EvoPlayer.builder().id(id).external(external).queries(QueryService.inline())
+            .boards(boards.makeCopy()).hand(hand.makeCopy()).bag(bag).build();
+  }
+
+  /**
+   * Gets the deck for a play-out: the given cards after the first few (which were dealt), up to
+   * the number of cards that are estimated to be left in the real deck
+   */
+  private Deck deck(List<TraitCard> cards, int dealt) {
+    int size = Math.max(0, Math.min(ALL_CARDS.size() - cardsDealt, cards.size() - dealt));
+    return new Deck(cards.subList(dealt, dealt + size));
+  }
+
+  /**
+   * Gets the cards this player has not seen, i.e. every card except the ones in its hand and on
+   * any board in the game
+   */
+  private List<TraitCard> unseenCards(List<SpeciesList> others) {
+    Set<TraitCard> seen = new HashSet<>(hand.getContents());
+    for (SpeciesBoard sb : boards) seen.addAll(sb.getTraitCards().getContents());
+    for (SpeciesList other : others)
+      for (SpeciesBoard sb : other) seen.addAll(sb.getTraitCards().getContents());
+
+    List<TraitCard> result = new ArrayList<>();
+    for (TraitCard card : ALL_CARDS) if (!seen.contains(card)) result.add(card);
+    return result;
+  }
+
+  private static List<TraitCard> shuffled(List<TraitCard> cards, SplittableRandom random) {
+    List<TraitCard> result = new ArrayList<>(cards);
+    for (int i = result.size() - 1; i > 0; i--)
+      Collections.swap(result, i, random.nextInt(i + 1));
+    return result;
+  }
+
+
+  /**
+   * Generates the candidate {@link Action4}s for this turn: the choice a {@link SillyPlayer}
+   * would make, and a number of random (but legal) ways to play this player's hand
+   */
+  private List<Action4> chooseCandidates() {
+    Map<String, Action4> result = new LinkedHashMap<>();
+    BasePlayer myState = BasePlayer.builder().boards(boards).hand(hand).bag(bag).build();
+    try {
+      policy.start(wh, myState);
+      Action4 silly = policy.choose(new ArrayList<>(), new ArrayList<>());
+      if (isPlayable(silly)) result.put(silly.toJson().toString(), silly);
+    }
+    catch (RuntimeException e) { /* too few cards for the silly strategy */ }
+
+    if (!hand.isEmpty()) {
+      MoveGenerator moves = MoveGenerator.of(myState);
+      for (int i = 0; i < RANDOM_CANDIDATES; i++) {
+        Action4 candidate = moves.randomAction4(rng);
+        result.putIfAbsent(candidate.toJson().toString(), candidate);
+      }
+    }
+    if (result.isEmpty()) result.put("", new Action4(0));
+    return new ArrayList<>(result.values());
+  }
+
+  /**
+   * Determines whether the given {@link Action4} can be played with this player's hand and
+   * boards, by playing it on a copy of them
+   */
+  private boolean isPlayable(Action4 choice) {
+    try {
+      EvoPlayer copy = myCopy(Constants.MIN_ID, policy);
+      if (!choice.isValid(copy)) return false;
+      choice.doAll(copy, new WaterHole(), new Deck(new ArrayList<>()));
+      return true;
+    }
+    catch (RuntimeException e) { return false; }
+  }
+
+  /**
+   * This player's stand-in for a play-out: makes one given move (the one being tried), then plays
+   * like a {@link SillyPlayer}
+   */
+  private static class FirstMovePlayer extends SillyPlayer {
+    private Optional<Action4> choice;
+    private Optional<FeedResponse> feed;
+
+    private FirstMovePlayer(Optional<Action4> choice, Optional<FeedResponse> feed) {
+      this.choice = choice;
+      this.feed = feed;
+    }
+
+    @Override
+    public Action4 choose(List<SpeciesList> playersBefore, List<SpeciesList> playersAfter) {
+      if (!choice.isPresent()) return super.choose(playersBefore, playersAfter);
+      Action4 result = choice.get();
+      choice = Optional.empty();
+      return result;
+    }
+
+    @Override
+    public FeedResponse feedNext(BasePlayer myState, List<SpeciesList> otherBoards, int tokens) {
+      if (!feed.isPresent()) return super.feedNext(myState, otherBoards, tokens);
+      update(myState);
+      FeedResponse result = feed.get();
+      feed = Optional.empty();
+      return result;
+    }
+  }
+
+  public static MctsPlayerBuilder builder() { return new MctsPlayerBuilder(); }
+  public static class MctsPlayerBuilder {
+    private String name = "mcts";
+    private long budgetNanos = DEFAULT_BUDGET_UNIT.toNanos(DEFAULT_BUDGET);
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    private Executor executor = null;
+    private SplittableRandom rng = new SplittableRandom();
+
+    public MctsPlayer build() {
+      return new MctsPlayer(name, budgetNanos, parallelism,
+              executor == null ? SearchThreads.POOL : executor, rng);
+    }
+
+    public MctsPlayerBuilder name(String name) {
+      this.name = Objects.requireNonNull(name);
+      return this;
+    }
+
+    /**
+     * Sets the time spent searching for each move. A move is answered at most twice the budget
+     * after it was asked for, which must be within {@link Constants#MAX_RESPONSE_TIME}.
+     */
+    public MctsPlayerBuilder budget(long budget, TimeUnit unit) {
+      long nanos = unit.toNanos(budget);
+      if (nanos <= 0 || nanos >= Constants.TIME_UNIT.toNanos(Constants.MAX_RESPONSE_TIME) / 2)
+        throw new IllegalArgumentException("Budget must be positive and under half of the "
+                + "maximum response time");
+      this.budgetNanos = nanos;
+      return this;
+    }
+
+    /**
+     * Sets the number of workers that play out moves side by side on the executor
+     */
+    public MctsPlayerBuilder parallelism(int parallelism) {
+      if (parallelism < 1) throw new IllegalArgumentException("Parallelism must be positive");
+      this.parallelism = parallelism;
+      return this;
+    }
+
+    /**
+     * Sets the executor that the workers run on, which should have a thread free for each of
+     * them: a worker that only starts after the budget has run out contributes nothing
+     */
+    public MctsPlayerBuilder executor(Executor executor) {
+      this.executor = Objects.requireNonNull(executor);
+      return this;
+    }
+
+    /**
+     * Sets the seed of the random choices of the search (random by default). Searches are time
+     * bound, so the same seed does not always lead to the same moves.
+     */
+    public MctsPlayerBuilder seed(long seed) {
+      this.rng = new SplittableRandom(seed);
+      return this;
+    }
+  }
+}
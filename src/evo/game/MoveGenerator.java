@@ -0,0 +1,506 @@
+package evo.game;
+
+import evo.Constants;
+import evo.game.choose.*;
+import evo.game.feed.*;
+import evo.game.list.SpeciesList;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Generates the legal moves of one player, for players that search through their options instead
+ * of building one move and checking it with {@link Action4#isValid(EvoPlayer)} or
+ * {@link FeedResponse#isValid(EvoPlayer, evo.game.list.PlayerList)}.
+ *
+ * The feeding moves are generated in full by {@link #feedMoves(BasePlayer, List, int)}. The ways
+ * to play a hand are far too many to list, so a generator for a player's boards and hand
+ * enumerates them lazily ({@link #forEachAction4(Visitor)}) or samples them
+ * ({@link #randomAction4(SplittableRandom)}), leaving out moves that can never be better than
+ * another one that is generated:
+ *  - cards that are traded for a board or spent on growth are simply discarded, so it makes no
+ *    difference which of them pays for what: the lowest discarded cards pay for the new boards in
+ *    order, and the rest go to the growth of the boards in order
+ *  - a card is never discarded for nothing, i.e. on growth beyond the maximum size
+ *  - a trait is never replaced by a card with the same trait, a trait slot is replaced at most
+ *    once, and a board (old or new) never gets two cards with the same trait
+ *  - at most a fixed number of new boards is traded for (see {@link #of(BasePlayer, int)})
+ *
+ * Every move is checked while it is being built, one card at a time, on primitive copies of the
+ * player's boards, so a move is only allocated once it is known to be legal (in the sense of
+ * {@link Action4#isValid(EvoPlayer)}, and of {@link Action4#doAll(EvoPlayer, WaterHole, Deck)}
+ * completing).
+ */
+public final class MoveGenerator {
+  private static final int DEFAULT_MAX_BOARD_TRADES = 1;
+  private static final int MAX_ATTEMPTS = 16;
+
+  // A card's role in a move is one of the following, with its parameters packed above the kind
+  private static final int KEEP = 0;
+  private static final int DISCARD = 1;
+  private static final int TRAIT = 2;      // onto new board number (role >> BOARD_SHIFT)
+  private static final int REPLACE = 3;    // the trait at slot (role >> SLOT_SHIFT) & 3 of board
+                                           // number (role >> BOARD_SHIFT)
+  private static final int KIND_MASK = 3;
+  private static final int SLOT_SHIFT = 2;
+  private static final int BOARD_SHIFT = 4;
+
+  private final int maxBoardTrades;
+  private final int numCards;
+  private final int numBoards;
+  private final int[] cardTraits;
+  private final int[] pop;
+  private final int[] body;
+  private final int[] numTraits;
+  private final int[][] originalTraits;
+
+  // the move being built
+  private final int[] roles;
+  private final int[] replaced;
+  private final int[][] traits;
+  private final int[] boardMasks;
+  private final int[] replacedSlots;
+  private final int[] newBoardSizes;
+  private final int[] newBoardMasks;
+  private final int[][] options;
+  private int foodCard;
+  private int opened;
+  private int discards;
+  private final int[] growth;
+  private final int[] freeSlots;
+  private int growthSlots;
+  private boolean stopped;
+  private long count;
+  private long limit;
+  private Visitor visitor;
+
+  private MoveGenerator(BasePlayer player, int maxBoardTrades) {
+    if (maxBoardTrades < 0) throw new IllegalArgumentException("Negative number of board trades");
+    this.maxBoardTrades = maxBoardTrades;
+    this.numCards = player.getHand().size();
+    this.numBoards = player.getBoards().size();
+
+    this.cardTraits = new int[numCards];
+    for (int c = 0; c < numCards; c++) cardTraits[c] = player.getHand().get(c).getName().ordinal();
+
+    this.pop = new int[numBoards];
+    this.body = new int[numBoards];
+    this.numTraits = new int[numBoards];
+    this.originalTraits = new int[numBoards][];
+    for (int b = 0; b < numBoards; b++) {
+      SpeciesBoard sb = player.getBoards().get(b);
+      pop[b] = sb.getPopulationSize();
+      body[b] = sb.getBodySize();
+      numTraits[b] = sb.getTraitCards().size();
+      originalTraits[b] = new int[numTraits[b]];
+      for (int t = 0; t < numTraits[b]; t++)
+        originalTraits[b][t] = sb.getTraitCards().get(t).getName().ordinal();
+    }
+
+    this.roles = new int[numCards];
+    this.replaced = new int[numCards];
+    this.traits = new int[numBoards][];
+    this.boardMasks = new int[numBoards];
+    this.replacedSlots = new int[numBoards];
+    this.newBoardSizes = new int[maxBoardTrades];
+    this.newBoardMasks = new int[maxBoardTrades];
+    this.growth = new int[2 * (numBoards + maxBoardTrades + numCards)];
+    this.freeSlots = new int[growth.length];
+    this.options =
+            new int[numCards][2 + maxBoardTrades + Constants.MAX_TRAITS_PER_BOARD * numBoards];
+    reset();
+  }
+
+  /**
+   * Creates a generator for the ways the given player can play its hand, trading for at most one
+   * new board
+   *
+   * @param player the player's boards and hand, which are copied
+   * @return the new {@link MoveGenerator}
+   */
+  public static MoveGenerator of(BasePlayer player) {
+    return new MoveGenerator(player, DEFAULT_MAX_BOARD_TRADES);
+  }
+
+  /**
+   * Same as {@link #of(BasePlayer)}, but trades for up to the given number of new boards (each
+   * extra board multiplies the number of moves)
+   */
+  public static MoveGenerator of(BasePlayer player, int maxBoardTrades) {
+    return new MoveGenerator(player, maxBoardTrades);
+  }
+
+
+  /*****************
+   * Feeding moves *
+   *****************/
+
+  /**
+   * Generates every legal {@link FeedResponse} for the given player: feeding any hungry
+   * vegetarian, storing fat on any board that can, attacking any species that can be attacked, or
+   * not feeding at all. A board with fat tissue always stores as much as it can (the number of
+   * tokens in a {@link FeedFat} does not change what it does), so there is one move per board.
+   *
+   * @param player the player to feed
+   * @param otherBoards the boards of the other players, in the order of the player's rotated list
+   * @param tokens the number of tokens at the watering hole
+   * @return the legal moves, with {@link FeedNothing} last
+   */
+  public static List<FeedResponse> feedMoves(BasePlayer player, List<SpeciesList> otherBoards,
+                                             int tokens) {
+    List<FeedResponse> result = new ArrayList<>();
+    SpeciesList boards = player.getBoards();
+    for (int i = 0; i < boards.size(); i++) {
+      SpeciesBoard sb = boards.get(i);
+      if (sb.canStoreMore())
+        result.add(new FeedFat(i, Math.max(1, Math.min(tokens, sb.getFatNeed()))));
+      if (!sb.canEatMore()) continue;
+
+      if (sb.isVeg()) result.add(new FeedVeg(i));
+      else {
+        for (int p = 0; p < otherBoards.size(); p++) {
+          SpeciesList defenders = otherBoards.get(p);
+          for (int d = 0; d < defenders.size(); d++)
+            if (sb.canAttack(defenders.get(d), d > 0 ? defenders.get(d - 1) : null,
+                    d < defenders.size() - 1 ? defenders.get(d + 1) : null))
+              result.add(new FeedCarn(i, p, d));
+        }
+      }
+    }
+    result.add(new FeedNothing());
+    return result;
+  }
+
+
+  /****************
+   * Choose moves *
+   ****************/
+
+  /**
+   * A consumer of generated moves that can stop the enumeration
+   */
+  public interface Visitor {
+    /**
+     * @param move the next legal move
+     * @return true to keep going, false to stop the enumeration
+     */
+    boolean visit(Action4 move);
+  }
+
+  /**
+   * Effect: passes every move this generator produces to the given {@link Visitor}, in a fixed
+   *         order, until the visitor stops the enumeration
+   */
+  public void forEachAction4(Visitor visitor) {
+    this.visitor = visitor;
+    enumerate(Long.MAX_VALUE);
+    this.visitor = null;
+  }
+
+  /**
+   * Gets the first moves this generator produces (in the order of {@link #forEachAction4})
+   *
+   * @param limit the maximum number of moves
+   * @return up to {@code limit} legal moves
+   */
+  public List<Action4> action4s(int limit) {
+    List<Action4> result = new ArrayList<>();
+    if (limit > 0) forEachAction4(move -> { result.add(move); return result.size() < limit; });
+    return result;
+  }
+
+  /**
+   * Counts the moves this generator produces without creating any of them
+   *
+   * @param limit the count to stop at
+   * @return the number of moves, or {@code limit} if there are at least that many
+   */
+  public long countAction4s(long limit) {
+    return enumerate(limit);
+  }
+
+  /**
+   * Picks a random legal move, by picking a random role for every card in turn among those that
+   * keep the move legal (so moves are not all equally likely)
+   *
+   * @param random the generator to pick with
+   * @return a legal {@link Action4}
+   * @throws IllegalStateException if the player has no cards (there is no legal move)
+   */
+  public Action4 randomAction4(SplittableRandom random) {
+    if (numCards == 0) throw new IllegalStateException("No cards to play");
+
+    for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+      reset();
+      foodCard = random.nextInt(numCards);
+      for (int c = 0; c < numCards; c++) {
+        if (c == foodCard) continue;
+        int numOptions = options(c);
+        apply(c, options[c][random.nextInt(numOptions)]);
+      }
+
+      int numExtra = 0;
+      for (int extra = 0; extra <= maxBoardTrades - opened; extra++)
+        if (isFeasible(extra)) numExtra++;
+      if (numExtra == 0) continue;
+
+      int pick = random.nextInt(numExtra);
+      for (int extra = 0; extra <= maxBoardTrades - opened; extra++) {
+        if (isFeasible(extra) && pick-- == 0) {
+          randomGrowth(extra, random);
+          return build(extra);
+        }
+      }
+    }
+
+    // every card but the food card kept, which is always legal
+    reset();
+    foodCard = random.nextInt(numCards);
+    setUpGrowth(0);
+    return build(0);
+  }
+
+  /**
+   * Effect: enumerates the moves, passing them to the visitor if there is one
+   *
+   * @return the number of moves enumerated
+   */
+  private long enumerate(long limit) {
+    this.limit = limit;
+    this.count = 0;
+    this.stopped = limit <= 0;
+    reset();
+    for (foodCard = 0; foodCard < numCards && !stopped; foodCard++) assign(0);
+    return count;
+  }
+
+  /**
+   * Effect: tries every role for the given card and every card after it
+   */
+  private void assign(int c) {
+    if (stopped) return;
+    if (c == numCards) {
+      for (int extra = 0; extra <= maxBoardTrades - opened && !stopped; extra++) {
+        int toGrow = discards - opened - extra;
+        if (toGrow < 0) break;
+        setUpGrowth(extra);
+        grow(0, toGrow, extra);
+      }
+    }
+    else if (c == foodCard) assign(c + 1);
+    else {
+      int numOptions = options(c);
+      for (int k = 0; k < numOptions && !stopped; k++) {
+        int role = options[c][k];
+        apply(c, role);
+        assign(c + 1);
+        undo(c, role);
+      }
+    }
+  }
+
+  /**
+   * Effect: tries every way to spend the given number of discarded cards on the growth of the
+   *         boards, from the given growth slot on (slot 2b is the population of board b, and slot
+   *         2b + 1 its body)
+   */
+  private void grow(int slot, int toGrow, int extra) {
+    if (stopped) return;
+    if (slot == growthSlots) {
+      if (toGrow == 0) emit(extra);
+      return;
+    }
+
+    int room = 0;
+    for (int s = slot; s < growthSlots; s++) room += room(s);
+    if (toGrow > room) return;
+
+    for (int n = 0; n <= Math.min(room(slot), toGrow) && !stopped; n++) {
+      growth[slot] = n;
+      grow(slot + 1, toGrow - n, extra);
+    }
+    growth[slot] = 0;
+  }
+
+  private void emit(int extra) {
+    count++;
+    if (visitor != null && !visitor.visit(build(extra))) stopped = true;
+    if (count >= limit) stopped = true;
+  }
+
+  /**
+   * Effect: clears the growth slots for the current boards, the new ones and the given number of
+   *         extra (trait-less) new boards
+   */
+  private void setUpGrowth(int extra) {
+    growthSlots = 2 * (numBoards + opened + extra);
+    Arrays.fill(growth, 0, growthSlots, 0);
+  }
+
+  /**
+   * Gets the number of times the given growth slot can still grow
+   */
+  private int room(int slot) {
+    int b = slot / 2;
+    boolean isPop = slot % 2 == 0;
+    if (b < numBoards) return isPop ? Constants.MAX_POP_SIZE - pop[b]
+            : Constants.MAX_BODY_SIZE - body[b];
+    return isPop ? Constants.MAX_POP_SIZE - Constants.MIN_POP_SIZE
+            : Constants.MAX_BODY_SIZE - Constants.MIN_BODY_SIZE;
+  }
+
+  /**
+   * Determines whether the discarded cards can pay for the new boards plus the given number of
+   * extra ones, and be spent on growth without any left over
+   */
+  private boolean isFeasible(int extra) {
+    int toGrow = discards - opened - extra;
+    if (toGrow < 0) return false;
+    int room = 0;
+    for (int s = 0; s < 2 * (numBoards + opened + extra); s++) room += room(s);
+    return toGrow <= room;
+  }
+
+  /**
+   * Effect: spends the discarded cards left after paying for the new boards on random growth
+   */
+  private void randomGrowth(int extra, SplittableRandom random) {
+    setUpGrowth(extra);
+    for (int toGrow = discards - opened - extra; toGrow > 0; toGrow--) {
+      int numFree = 0;
+      for (int s = 0; s < growthSlots; s++) if (growth[s] < room(s)) freeSlots[numFree++] = s;
+      growth[freeSlots[random.nextInt(numFree)]]++;
+    }
+  }
+
+  /**
+   * Stores the roles the given card can take, given the roles of the cards before it, in
+   * {@code options[c]}
+   *
+   * @return the number of roles
+   */
+  private int options(int c) {
+    int[] result = options[c];
+    int n = 0;
+    int bit = 1 << cardTraits[c];
+    result[n++] = KEEP;
+    result[n++] = DISCARD;
+
+    for (int k = 0; k <= Math.min(opened, maxBoardTrades - 1); k++)
+      if (newBoardSizes[k] < Constants.MAX_TRAITS_PER_BOARD && (newBoardMasks[k] & bit) == 0)
+        result[n++] = TRAIT | k << BOARD_SHIFT;
+
+    for (int b = 0; b < numBoards; b++) {
+      if ((boardMasks[b] & bit) != 0) continue;
+      for (int t = 0; t < numTraits[b]; t++)
+        if ((replacedSlots[b] & 1 << t) == 0)
+          result[n++] = REPLACE | t << SLOT_SHIFT | b << BOARD_SHIFT;
+    }
+    return n;
+  }
+
+  private void apply(int c, int role) {
+    roles[c] = role;
+    int k = role >> BOARD_SHIFT;
+    switch (role & KIND_MASK) {
+      case DISCARD:
+        discards++;
+        break;
+      case TRAIT:
+        if (k == opened) opened++;
+        newBoardSizes[k]++;
+        newBoardMasks[k] |= 1 << cardTraits[c];
+        break;
+      case REPLACE:
+        int t = (role >> SLOT_SHIFT) & KIND_MASK;
+        replaced[c] = traits[k][t];
+        traits[k][t] = cardTraits[c];
+        replacedSlots[k] |= 1 << t;
+        boardMasks[k] = maskOf(traits[k]);
+        break;
+      default:
+    }
+  }
+
+  private void undo(int c, int role) {
+    roles[c] = KEEP;
+    int k = role >> BOARD_SHIFT;
+    switch (role & KIND_MASK) {
+      case DISCARD:
+        discards--;
+        break;
+      case TRAIT:
+        newBoardSizes[k]--;
+        newBoardMasks[k] &= ~(1 << cardTraits[c]);
+        if (newBoardSizes[k] == 0) opened--;
+        break;
+      case REPLACE:
+        traits[k][(role >> SLOT_SHIFT) & KIND_MASK] = replaced[c];
+        replacedSlots[k] &= ~(1 << ((role >> SLOT_SHIFT) & KIND_MASK));
+        boardMasks[k] = maskOf(traits[k]);
+        break;
+      default:
+    }
+  }
+
+  /**
+   * Effect: clears the move being built
+   */
+  private void reset() {
+    Arrays.fill(roles, KEEP);
+    Arrays.fill(newBoardSizes, 0);
+    Arrays.fill(newBoardMasks, 0);
+    Arrays.fill(replacedSlots, 0);
+    for (int b = 0; b < numBoards; b++) {
+      traits[b] = originalTraits[b].clone();
+      boardMasks[b] = maskOf(traits[b]);
+    }
+    opened = 0;
+    discards = 0;
+  }
+
+  private static int maskOf(int[] traits) {
+    int mask = 0;
+    for (int t : traits) mask |= 1 << t;
+    return mask;
+  }
+
+  /**
+   * Creates the {@link Action4} for the move that has been built, with the given number of extra
+   * new boards and the growth in {@code growth}
+   */
+  private Action4 build(int extra) {
+    int[] discarded = new int[discards];
+    int numDiscarded = 0;
+    for (int c = 0; c < numCards; c++)
+      if (c != foodCard && (roles[c] & KIND_MASK) == DISCARD) discarded[numDiscarded++] = c;
+    int next = 0;
+
+    List<BoardTrade> bts = new ArrayList<>();
+    for (int k = 0; k < opened + extra; k++) {
+      List<Integer> newTraits = new ArrayList<>();
+      for (int c = 0; c < numCards; c++)
+        if (c != foodCard && roles[c] == (TRAIT | k << BOARD_SHIFT)) newTraits.add(c);
+      bts.add(new BoardTrade(discarded[next++], newTraits));
+    }
+
+    List<ReplaceTrait> rts = new ArrayList<>();
+    for (int c = 0; c < numCards; c++) {
+      if (c != foodCard && (roles[c] & KIND_MASK) == REPLACE)
+        rts.add(new ReplaceTrait(c, (roles[c] >> SLOT_SHIFT) & KIND_MASK, roles[c] >> BOARD_SHIFT));
+    }
+
+    List<GrowPop> gps = new ArrayList<>();
+    List<GrowBody> gbs = new ArrayList<>();
+    for (int s = 0; s < growthSlots; s++) {
+      for (int n = 0; n < growth[s]; n++) {
+        if (s % 2 == 0) gps.add(new GrowPop(discarded[next++], s / 2));
+        else gbs.add(new GrowBody(discarded[next++], s / 2));
+      }
+    }
+
+    return new Action4(foodCard, gps, gbs, bts, rts);
+  }
+}
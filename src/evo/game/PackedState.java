@@ -0,0 +1,843 @@
+package evo.game;
+
+import evo.Constants;
+import evo.game.choose.Action4;
+import evo.game.feed.FeedResponse;
+import evo.game.list.PlayerList;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The state of a game of Evolution packed into primitive arrays, for simulating many games quickly
+ * (e.g. in the play-outs of a search). A {@link PackedState} plays by exactly the same rules as a
+ * {@link Dealer} and its {@link EvoPlayer}s, and converts to and from one without losing any of
+ * the game's state (see {@link #toDealer()} for the dealer settings that are not kept), but
+ * copying one is a handful of array copies instead of a deep copy of every board, card and
+ * list in the game.
+ *
+ * The boards are stored as a struct of arrays: board n of the game has food[n], body[n], pop[n],
+ * fat[n], the mask of its traits (see {@link TraitName#mask()}) in masks[n], and its trait cards
+ * in traits[n]. The boards of player p are the boards boardStart[p] to boardStart[p + 1] - 1, in
+ * the order of the player's list of boards.
+ *
+ * Cards are stored as codes (see {@link #cardCode(TraitCard)}): a player's hand is an int[] of
+ * codes, the deck is an int[] of codes with the top at deckTop, and the trait cards of a board are
+ * packed into a long with one 16-bit slot per card, each holding the card's code plus one so that
+ * an empty slot is 0.
+ *
+ * Players are numbered by their position in the game's list of players. Wherever a rule numbers
+ * the players in the order of the feeding player's rotated list (i.e. the other players in turn
+ * order, starting after the feeding player), {@link #rotatedPlayer(int, int)} converts the index.
+ */
+public final class PackedState {
+  private static final int TRAIT_BITS = 4;
+  private static final int SLOT_BITS = 16;
+  private static final long SLOT_MASK = (1L << SLOT_BITS) - 1;
+  private static final TraitName[] TRAITS = TraitName.values();
+
+  private int numPlayers;
+  private int[] ids;
+  private ExternalPlayer[] externals;
+  private QueryService[] queries;
+  private int[] bags;
+  private int[][] hands;
+  private int[] handSizes;
+
+  private int[] boardStart;
+  private int[] food;
+  private int[] body;
+  private int[] pop;
+  private int[] fat;
+  private int[] masks;
+  private long[] traits;
+
+  private int[] feedOrder;
+  private int feedOrderSize;
+  private int wh;
+  private int[] deck;
+  private int deckTop;
+  private int turn;
+
+  private PackedState() { }
+
+  /**
+   * Packs the current state of the given {@link Dealer}: its players (with their boards, hands,
+   * bags, ids and external players), the feed order, the watering hole, the deck and the number
+   * of turns played
+   *
+   * @param dealer the {@link Dealer} to pack
+   * @return the new {@link PackedState}
+   */
+  public static PackedState of(Dealer dealer) {
+    PackedState result = new PackedState();
+    PlayerList players = dealer.getPlayers();
+    int n = players.size();
+    result.numPlayers = n;
+    result.ids = new int[n];
+    result.externals = new ExternalPlayer[n];
+    result.queries = new QueryService[n];
+    result.bags = new int[n];
+    result.hands = new int[n][];
+    result.handSizes = new int[n];
+    result.boardStart = new int[n + 1];
+
+    for (int p = 0; p < n; p++)
+      result.boardStart[p + 1] = result.boardStart[p] + players.get(p).getBoards().size();
+    int numBoards = result.boardStart[n];
+    result.food = new int[numBoards];
+    result.body = new int[numBoards];
+    result.pop = new int[numBoards];
+    result.fat = new int[numBoards];
+    result.masks = new int[numBoards];
+    result.traits = new long[numBoards];
+
+    for (int p = 0; p < n; p++) {
+      EvoPlayer player = players.get(p);
+      result.ids[p] = player.getId();
+      result.externals[p] = player.getExternal();
+      result.queries[p] = player.getQueries();
+      result.bags[p] = player.getBag();
+      result.hands[p] = cardCodes(player.getHand().getContents());
+      result.handSizes[p] = result.hands[p].length;
+
+      for (int i = 0; i < player.getBoards().size(); i++) {
+        SpeciesBoard sb = player.getBoards().get(i);
+        int s = result.boardStart[p] + i;
+        result.food[s] = sb.getFoodSupply();
+        result.body[s] = sb.getBodySize();
+        result.pop[s] = sb.getPopulationSize();
+        result.fat[s] = sb.getFatFood();
+        result.masks[s] = sb.getTraitMask();
+        result.traits[s] = packTraits(cardCodes(sb.getTraitCards().getContents()));
+      }
+    }
+
+    PlayerList order = dealer.getFeedOrder();
+    result.feedOrder = new int[n];
+    for (EvoPlayer player : order) {
+      int p = indexOf(players, player);
+      if (p < 0) throw new IllegalArgumentException("Feed order contains a player not in the game");
+      result.feedOrder[result.feedOrderSize++] = p;
+    }
+
+    result.wh = dealer.getWHTokens();
+    result.deck = cardCodes(dealer.getDeckContents());
+    result.turn = dealer.getTurn();
+    return result;
+  }
+
+  /**
+   * Unpacks this state into a new {@link Dealer} that is equal to the one it was packed from, after
+   * the same moves. Only the game's state is packed, not how the dealer reports on it: the new
+   * {@link Dealer} is quiet, has no {@link GameObserver} and does not pipeline its start messages,
+   * whatever the original's settings were.
+   *
+   * @return the new {@link Dealer}
+   */
+  public Dealer toDealer() {
+    PlayerList players = new PlayerList();
+    for (int p = 0; p < numPlayers; p++) players.add(toEvoPlayer(p));
+
+    PlayerList order = new PlayerList();
+    for (int k = 0; k < feedOrderSize; k++) order.add(players.get(feedOrder[k]));
+
+    List<TraitCard> deckCards = new ArrayList<>(deckSize());
+    for (int i = deckTop; i < deck.length; i++) deckCards.add(fromCardCode(deck[i]));
+
+    return Dealer.builder()
+            .players(players)
+            .order(order)
+            .wh(new WaterHole(wh))
+            .deck(new Deck(deckCards))
+            .turn(turn)
+            .quiet()
+            .build();
+  }
+
+  /**
+   * Creates a new {@link EvoPlayer} with the current state of the given player
+   */
+  private EvoPlayer toEvoPlayer(int p) {
+    List<SpeciesBoard> boards = new ArrayList<>(numBoards(p));
+    for (int s = boardStart[p]; s < boardStart[p + 1]; s++) {
+      boards.add(SpeciesBoard.builder()
+              .food(food[s])
+              .body(body[s])
+              .pop(pop[s])
+              .traits(fromCardCodes(unpackTraits(traits[s])))
+              .fat(fat[s])
+              .build());
+    }
+
+    return EvoPlayer.builder()
+            .id(ids[p])
+            .external(externals[p])
+            .queries(queries[p])
+            .boards(boards)
+            .hand(fromCardCodes(Arrays.copyOf(hands[p], handSizes[p])))
+            .bag(bags[p])
+            .build();
+  }
+
+  /**
+   * Copies this state; the copy and the original can then be played independently
+   *
+   * @return the copy, in time linear in the size of the state
+   */
+  public PackedState copy() {
+    PackedState result = new PackedState();
+    result.numPlayers = numPlayers;
+    result.ids = ids.clone();
+    result.externals = externals.clone();
+    result.queries = queries.clone();
+    result.bags = bags.clone();
+    result.hands = new int[hands.length][];
+    for (int p = 0; p < numPlayers; p++) result.hands[p] = hands[p].clone();
+    result.handSizes = handSizes.clone();
+    result.boardStart = boardStart.clone();
+    result.food = food.clone();
+    result.body = body.clone();
+    result.pop = pop.clone();
+    result.fat = fat.clone();
+    result.masks = masks.clone();
+    result.traits = traits.clone();
+    result.feedOrder = feedOrder.clone();
+    result.feedOrderSize = feedOrderSize;
+    result.wh = wh;
+    // cards are only ever dealt from the deck, never put back, so copies can share it
+    result.deck = deck;
+    result.deckTop = deckTop;
+    result.turn = turn;
+    return result;
+  }
+
+
+  /**
+   * Decides what a player that cannot be fed automatically feeds next. Its response is applied
+   * with {@link FeedResponse#feedAction(PackedState, int)}.
+   */
+  public interface FeedPolicy {
+    /**
+     * @param state the current state of the game
+     * @param player the index of the player to feed
+     * @return the player's (valid) response
+     * @throws IllegalResponseException to kick the player from the game
+     */
+    FeedResponse feedNext(PackedState state, int player);
+  }
+
+  /**
+   * The {@link FeedPolicy} of a {@link Dealer}: queries the player's {@link ExternalPlayer}
+   * (through its {@link QueryService}) and checks the response, exactly as
+   * {@link EvoPlayer#feedNext(PlayerList, int)} does
+   */
+  public static final FeedPolicy QUERY = PackedState::queryFeedNext;
+
+  private static FeedResponse queryFeedNext(PackedState state, int p) {
+    PlayerList otherPlayers = new PlayerList();
+    for (int r = 0; r < state.numPlayers - 1; r++)
+      otherPlayers.add(state.toEvoPlayer(state.rotatedPlayer(p, r)));
+    return state.toEvoPlayer(p).feedNext(otherPlayers, state.wh);
+  }
+
+  /**
+   * Same as {@link Dealer#step4(List)}: carries out the given actions (one per player, in order),
+   * then the whole feeding round, querying the players with {@link #QUERY}
+   *
+   * @param actions the {@link Action4} of every player
+   */
+  public void step4(List<Action4> actions) { step4(actions, QUERY); }
+
+  /**
+   * Same as {@link #step4(List)}, but asks the given {@link FeedPolicy} what to feed whenever a
+   * player has to be queried
+   */
+  public void step4(List<Action4> actions, FeedPolicy policy) {
+    for (int p = 0; p < numPlayers; p++) actions.get(p).doAll(this, p);
+
+    feedOrderSize = numPlayers;
+    for (int p = 0; p < numPlayers; p++) feedOrder[p] = p;
+
+    for (int s = 0; s < boardStart[numPlayers]; s++)
+      if (has(s, TraitName.FERTILE)) increasePopulation(s);
+
+    for (int p = 0; p < numPlayers; p++)
+      for (int i = 0; i < numBoards(p); i++)
+        if (has(board(p, i), TraitName.LONG_NECK)) feedSpecies(p, i);
+
+    for (int s = 0; s < boardStart[numPlayers]; s++)
+      if (isFat(s)) eatStoredFood(s);
+
+    feedAll(policy);
+  }
+
+  /**
+   * Effect: feeds players until the watering hole is empty or nobody is left to feed, then ends the
+   *         feeding round
+   */
+  private void feedAll(FeedPolicy policy) {
+    while (wh > 0 && feedOrderSize > 0) feed1(policy);
+    feedOrderSize = 0;
+  }
+
+  /**
+   * Same as {@link Dealer#feed1()}: carries out one step of the feeding round, querying the player
+   * with {@link #QUERY} if it cannot be fed automatically
+   */
+  public void feed1() { feed1(QUERY); }
+
+  /**
+   * Same as {@link #feed1()}, but asks the given {@link FeedPolicy} what to feed if the player
+   * cannot be fed automatically
+   */
+  public void feed1(FeedPolicy policy) {
+    int p = feedOrder[0];
+
+    if (!canFeed(p)) removeFromFeedOrder(0);
+    else if (autoFeed(p)) rotateFeedOrder();
+    else {
+      try {
+        if (!policy.feedNext(this, p).feedAction(this, p)) removeFromFeedOrder(0);
+        else rotateFeedOrder();
+      }
+      catch (IllegalResponseException e) {
+        removeFromFeedOrder(0);
+        removePlayer(p);
+      }
+    }
+  }
+
+  /**
+   * Same as {@link PlayerList#endTurn(Deck)}: every board's population drops to the food it ate,
+   * which goes into its owner's bag, and the boards that went extinct are removed. The turn is
+   * then counted as played, as by {@link Dealer}.
+   */
+  public void endTurn() {
+    for (int p = 0; p < numPlayers; p++) {
+      int toBag = 0;
+      for (int s = boardStart[p]; s < boardStart[p + 1]; s++) {
+        pop[s] = food[s];
+        if (pop[s] != 0) toBag += food[s];
+        food[s] = 0;
+      }
+
+      for (int i = 0; i < numBoards(p); ) {
+        if (pop[board(p, i)] == 0) removeBoard(p, i);
+        else i++;
+      }
+      bags[p] += toBag;
+    }
+    turn++;
+  }
+
+  /**
+   * Effect: removes the player from the feed order at the given position, keeping the order of the
+   *         rest
+   */
+  private void removeFromFeedOrder(int k) {
+    System.arraycopy(feedOrder, k + 1, feedOrder, k, feedOrderSize - k - 1);
+    feedOrderSize--;
+  }
+
+  /**
+   * Effect: moves the first player of the feed order to the end
+   */
+  private void rotateFeedOrder() {
+    int first = feedOrder[0];
+    System.arraycopy(feedOrder, 1, feedOrder, 0, feedOrderSize - 1);
+    feedOrder[feedOrderSize - 1] = first;
+  }
+
+  /**
+   * Effect: kicks the given player from the game, removing it (and its boards) from the state and
+   *         renumbering the players after it
+   */
+  private void removePlayer(int p) {
+    for (int k = 0; k < feedOrderSize; ) {
+      if (feedOrder[k] == p) removeFromFeedOrder(k);
+      else {
+        if (feedOrder[k] > p) feedOrder[k]--;
+        k++;
+      }
+    }
+
+    int count = numBoards(p);
+    removeBoards(boardStart[p], count);
+    for (int q = p + 1; q < numPlayers; q++) boardStart[q] = boardStart[q + 1] - count;
+
+    int tail = numPlayers - p - 1;
+    System.arraycopy(ids, p + 1, ids, p, tail);
+    System.arraycopy(externals, p + 1, externals, p, tail);
+    System.arraycopy(queries, p + 1, queries, p, tail);
+    System.arraycopy(bags, p + 1, bags, p, tail);
+    System.arraycopy(hands, p + 1, hands, p, tail);
+    System.arraycopy(handSizes, p + 1, handSizes, p, tail);
+    numPlayers--;
+    externals[numPlayers] = null;
+    queries[numPlayers] = null;
+    hands[numPlayers] = null;
+  }
+
+
+  /*****************
+   * Feeding rules *
+   *****************/
+
+  /**
+   * Same as {@link BasePlayer#canFeed(AttackGraph)}: determines whether the given player has a
+   * board that can store fat, a hungry vegetarian, or a hungry carnivore with something to attack
+   */
+  public boolean canFeed(int p) {
+    for (int s = boardStart[p]; s < boardStart[p + 1]; s++) {
+      if (canStoreMore(s) || (canEatMore(s) && (!isCarn(s) || numTargets(p, s) > 0)))
+        return true;
+    }
+    return false;
+  }
+
+  /**
+   * Same as {@link EvoPlayer#autoFeed(PlayerList, AttackGraph, WaterHole, Deck)}: feeds the given
+   * player's only hungry board if there is no choice to be made
+   *
+   * @return true if the player was fed automatically
+   */
+  private boolean autoFeed(int p) {
+    int hungryIdx = -2;
+    for (int i = 0; i < numBoards(p); i++) {
+      int s = board(p, i);
+      if (canEatMore(s) || canStoreMore(s)) {
+        if (hungryIdx != -2) return false;
+        hungryIdx = i;
+      }
+    }
+    if (hungryIdx < -1) throw new IllegalStateException("Invariant broken");
+    int hungry = board(p, hungryIdx);
+
+    if (canStoreMore(hungry)) return false;
+    else if (!isCarn(hungry)) {
+      feedSpecies(p, hungryIdx);
+      return true;
+    }
+    else {
+      int numTargets = numTargets(p, hungry);
+      if (numTargets == 0) throw new IllegalStateException("Invariant broken");
+      if (numTargets != 1) return false;
+
+      for (int r = 0; r < numPlayers - 1; r++) {
+        int q = rotatedPlayer(p, r);
+        for (int i = 0; i < numBoards(q); i++) {
+          if (canAttack(hungry, q, i)) {
+            if (feedCarnivore(p, hungryIdx, q, i)) feedScavengers(p);
+            return true;
+          }
+        }
+      }
+      throw new IllegalStateException("Invariant broken");
+    }
+  }
+
+  /**
+   * Counts the boards of the other players that the given board of the given player can attack
+   */
+  private int numTargets(int p, int attacker) {
+    int count = 0;
+    for (int q = 0; q < numPlayers; q++) {
+      if (q == p) continue;
+      for (int i = 0; i < numBoards(q); i++)
+        if (canAttack(attacker, q, i)) count++;
+    }
+    return count;
+  }
+
+  /**
+   * Same as {@link SpeciesBoard#canAttack(SpeciesBoard, SpeciesBoard, SpeciesBoard)}: determines
+   * whether the given board of one player can attack the given board of another
+   *
+   * @param p the attacker's owner
+   * @param attackerIdx the index of the attacker in its owner's list of boards
+   * @param q the defender's owner
+   * @param defenderIdx the index of the defender in its owner's list of boards
+   * @return true if the attack is possible
+   */
+  public boolean canAttack(int p, int attackerIdx, int q, int defenderIdx) {
+    return canAttack(board(p, attackerIdx), q, defenderIdx);
+  }
+
+  private boolean canAttack(int a, int q, int defenderIdx) {
+    int d = board(q, defenderIdx);
+    int left = defenderIdx > 0 ? d - 1 : -1;
+    int right = defenderIdx < numBoards(q) - 1 ? d + 1 : -1;
+    int attackSize = has(a, TraitName.PACK_HUNTING) ? body[a] + pop[a] : body[a];
+
+    return !(a == d || !isCarn(a)
+            || (has(d, TraitName.CLIMBING) && !has(a, TraitName.CLIMBING))
+            || (has(d, TraitName.HARD_SHELL) && attackSize - body[d] < 4)
+            || (has(d, TraitName.BURROWING) && food[d] == pop[d])
+            || (has(d, TraitName.HERDING) && pop[d] >= pop[a])
+            || ((left != -1 && has(left, TraitName.WARNING_CALL)
+                    || right != -1 && has(right, TraitName.WARNING_CALL))
+                    && !has(a, TraitName.AMBUSH))
+            || (has(d, TraitName.SYMBIOSIS) && right != -1 && body[right] > body[d]));
+  }
+
+  /**
+   * Same as {@link BasePlayer#feedSpecies(int, WaterHole)}: feeds the given board one token,
+   * accounting for foraging and cooperation
+   *
+   * @return true if the board was able to eat
+   */
+  public boolean feedSpecies(int p, int i) {
+    int s = board(p, i);
+    if (!eat(s)) return false;
+
+    if (has(s, TraitName.FORAGING) && eat(s)) cooperate(p, i);
+    cooperate(p, i);
+    return true;
+  }
+
+  private void cooperate(int p, int i) {
+    if (has(board(p, i), TraitName.COOPERATION) && i < numBoards(p) - 1) feedSpecies(p, i + 1);
+  }
+
+  private boolean eat(int s) {
+    if (wh == 0 || !canEatMore(s)) return false;
+    wh--;
+    food[s]++;
+    return true;
+  }
+
+  /**
+   * Same as {@link BasePlayer#feedFatSpecies(int, WaterHole)}: stores as many tokens as the given
+   * board can hold, or as are left
+   */
+  public void feedFatSpecies(int p, int i) {
+    int s = board(p, i);
+    int numTokens = Math.min(fatNeed(s), wh);
+    while (numTokens > 0 && wh > 0 && canStoreMore(s)) {
+      fat[s]++;
+      wh--;
+      numTokens--;
+    }
+  }
+
+  /**
+   * Same as {@link BasePlayer#feedCarnivore(int, EvoPlayer, int, WaterHole, Deck)}: the given board
+   * attacks the given board of another player, then eats if it survived
+   *
+   * @return true if the attacker was able to eat
+   */
+  public boolean feedCarnivore(int p, int attackerIdx, int q, int victimIdx) {
+    if (!isCarn(board(p, attackerIdx))) return false;
+
+    boolean horns = has(board(q, victimIdx), TraitName.HORNS);
+    decreasePopulation(q, victimIdx);
+    if (horns && decreasePopulation(p, attackerIdx)) return false;
+    return feedSpecies(p, attackerIdx);
+  }
+
+  /**
+   * Same as {@link PlayerList#feedScavengers(EvoPlayer, WaterHole)}: feeds every scavenger, starting
+   * with the boards of the given player and going around the table
+   */
+  public void feedScavengers(int p) {
+    for (int k = 0; k < numPlayers; k++) {
+      int q = (p + k) % numPlayers;
+      for (int i = 0; i < numBoards(q); i++)
+        if (has(board(q, i), TraitName.SCAVENGER)) feedSpecies(q, i);
+    }
+  }
+
+  /**
+   * Effect: decreases the population of the given board, removing it if it went extinct
+   *
+   * @return true if the board went extinct
+   */
+  private boolean decreasePopulation(int p, int i) {
+    int s = board(p, i);
+    pop[s]--;
+    if (pop[s] < food[s]) food[s] = pop[s];
+    if (pop[s] != 0) return false;
+
+    removeBoard(p, i);
+    return true;
+  }
+
+  private void eatStoredFood(int s) {
+    while (fat[s] > Constants.MIN_FAT_FOOD && canEatMore(s)) {
+      food[s]++;
+      fat[s]--;
+    }
+  }
+
+
+  /**************
+   * Card rules *
+   **************/
+
+  /**
+   * Effect: adds the given number of (possibly negative) tokens to the watering hole, which never
+   *         goes below 0
+   */
+  public void addFood(int tokens) {
+    wh = Math.max(0, wh + tokens);
+  }
+
+  /**
+   * Effect: adds a new board with the given trait cards to the end of the given player's boards
+   *
+   * @param cards the codes of the trait cards
+   * @throws InvalidEvoElementException if the board would not be valid
+   */
+  public void addSpecies(int p, int[] cards) {
+    if (cards.length > Constants.MAX_TRAITS_PER_BOARD)
+      throw new InvalidEvoElementException("Too many traits: " + cards.length);
+    for (int k = 0; k < cards.length; k++)
+      for (int l = 0; l < k; l++)
+        if (cards[k] == cards[l]) throw new InvalidEvoElementException("Duplicate trait cards");
+
+    int s = boardStart[p + 1];
+    int numBoards = boardStart[numPlayers];
+    if (numBoards == food.length) {
+      int capacity = Math.max(Constants.MAX_NUM_PLAYERS, 2 * numBoards);
+      food = Arrays.copyOf(food, capacity);
+      body = Arrays.copyOf(body, capacity);
+      pop = Arrays.copyOf(pop, capacity);
+      fat = Arrays.copyOf(fat, capacity);
+      masks = Arrays.copyOf(masks, capacity);
+      traits = Arrays.copyOf(traits, capacity);
+    }
+
+    int tail = numBoards - s;
+    System.arraycopy(food, s, food, s + 1, tail);
+    System.arraycopy(body, s, body, s + 1, tail);
+    System.arraycopy(pop, s, pop, s + 1, tail);
+    System.arraycopy(fat, s, fat, s + 1, tail);
+    System.arraycopy(masks, s, masks, s + 1, tail);
+    System.arraycopy(traits, s, traits, s + 1, tail);
+    for (int q = p + 1; q <= numPlayers; q++) boardStart[q]++;
+
+    food[s] = Constants.MIN_FOOD_SIZE;
+    body[s] = Constants.MIN_BODY_SIZE;
+    pop[s] = Constants.MIN_POP_SIZE;
+    fat[s] = Constants.MIN_FAT_FOOD;
+    traits[s] = packTraits(cards);
+    masks[s] = maskOf(traits[s]);
+  }
+
+  /**
+   * Same as {@link SpeciesBoard#replaceCard(int, TraitCard)}: replaces one of the given board's trait
+   * cards with the given card
+   *
+   * @param replaceIdx the index of the trait card to replace
+   * @param card the code of the new card
+   * @throws DuplicateTraitException if the board already has the new card's trait elsewhere
+   */
+  public void replaceCard(int p, int i, int replaceIdx, int card) {
+    int s = board(p, i);
+    int numTraits = unpackTraits(traits[s]).length;
+    if (replaceIdx < 0 || replaceIdx >= numTraits)
+      throw new IndexOutOfBoundsException("Trait index out of range: " + replaceIdx);
+
+    int shift = SLOT_BITS * replaceIdx;
+    int removed = (int) ((traits[s] >>> shift) & SLOT_MASK) - 1;
+    TraitName name = traitOf(card);
+    if (has(s, name) && traitOf(removed) != name)
+      throw new DuplicateTraitException("Species already has " + name.toString());
+
+    traits[s] = (traits[s] & ~(SLOT_MASK << shift)) | ((long) (card + 1) << shift);
+    masks[s] = maskOf(traits[s]);
+    if (traitOf(removed) == TraitName.FAT_TISSUE) fat[s] = 0;
+  }
+
+  /**
+   * Effect: increases the population of the given board by one, up to the max
+   */
+  public void increasePopulation(int p, int i) { increasePopulation(board(p, i)); }
+
+  private void increasePopulation(int s) {
+    if (pop[s] < Constants.MAX_POP_SIZE) pop[s]++;
+  }
+
+  /**
+   * Effect: increases the body size of the given board by one, up to the max
+   */
+  public void increaseBodySize(int p, int i) {
+    int s = board(p, i);
+    if (body[s] < Constants.MAX_BODY_SIZE) body[s]++;
+  }
+
+  /**
+   * Effect: removes the first card with the given code from the given player's hand
+   */
+  public void removeCard(int p, int card) {
+    int[] hand = hands[p];
+    for (int k = 0; k < handSizes[p]; k++) {
+      if (hand[k] == card) {
+        System.arraycopy(hand, k + 1, hand, k, handSizes[p] - k - 1);
+        handSizes[p]--;
+        return;
+      }
+    }
+  }
+
+  /**
+   * Effect: removes the given board from the game, and deals its owner cards to make up for it
+   */
+  private void removeBoard(int p, int i) {
+    removeBoards(board(p, i), 1);
+    for (int q = p + 1; q <= numPlayers; q++) boardStart[q]--;
+    draw(p, Constants.CARDS_PER_BOARD);
+  }
+
+  /**
+   * Effect: removes the given number of boards, starting at the given position, from the board
+   *         arrays, without updating the players' board ranges
+   */
+  private void removeBoards(int s, int count) {
+    int tail = boardStart[numPlayers] - s - count;
+    System.arraycopy(food, s + count, food, s, tail);
+    System.arraycopy(body, s + count, body, s, tail);
+    System.arraycopy(pop, s + count, pop, s, tail);
+    System.arraycopy(fat, s + count, fat, s, tail);
+    System.arraycopy(masks, s + count, masks, s, tail);
+    System.arraycopy(traits, s + count, traits, s, tail);
+  }
+
+  /**
+   * Effect: deals the given number of cards (or as many as are left) from the top of the deck to
+   *         the given player
+   */
+  private void draw(int p, int numCards) {
+    int numDrawn = Math.max(0, Math.min(numCards, deckSize()));
+    if (handSizes[p] + numDrawn > hands[p].length)
+      hands[p] = Arrays.copyOf(hands[p], Math.max(2 * hands[p].length, handSizes[p] + numDrawn));
+    System.arraycopy(deck, deckTop, hands[p], handSizes[p], numDrawn);
+    handSizes[p] += numDrawn;
+    deckTop += numDrawn;
+  }
+
+
+  /********************
+   * Board properties *
+   ********************/
+
+  private int board(int p, int i) {
+    if (i < 0 || i >= numBoards(p)) throw new IllegalArgumentException("Species index out of range");
+    return boardStart[p] + i;
+  }
+
+  private boolean has(int s, TraitName trait) { return (masks[s] & trait.mask()) != 0; }
+  private boolean isCarn(int s) { return has(s, TraitName.CARNIVORE); }
+  private boolean isFat(int s) { return has(s, TraitName.FAT_TISSUE); }
+  private boolean canEatMore(int s) { return food[s] < pop[s]; }
+  private int fatNeed(int s) { return isFat(s) ? body[s] - fat[s] : 0; }
+  private boolean canStoreMore(int s) { return isFat(s) && fatNeed(s) != 0; }
+
+
+  /*********
+   * Cards *
+   *********/
+
+  /**
+   * Gets the code of the given {@link TraitCard}, which identifies it uniquely among all cards
+   *
+   * @return the card's food points (offset so that they are non-negative) above the ordinal of its
+   *         trait
+   */
+  public static int cardCode(TraitCard card) {
+    return (card.getFoodPoints() - Constants.MIN_CARN_FOODVAL) << TRAIT_BITS
+            | card.getName().ordinal();
+  }
+
+  /**
+   * Gets the {@link TraitCard} with the given code (see {@link #cardCode(TraitCard)})
+   */
+  public static TraitCard fromCardCode(int code) {
+    return new TraitCard(foodPoints(code), traitOf(code));
+  }
+
+  /**
+   * Gets the food points of the card with the given code
+   */
+  public static int foodPoints(int code) {
+    return (code >> TRAIT_BITS) + Constants.MIN_CARN_FOODVAL;
+  }
+
+  private static TraitName traitOf(int code) {
+    return TRAITS[code & ((1 << TRAIT_BITS) - 1)];
+  }
+
+  private static int[] cardCodes(List<TraitCard> cards) {
+    int[] result = new int[cards.size()];
+    for (int k = 0; k < result.length; k++) result[k] = cardCode(cards.get(k));
+    return result;
+  }
+
+  private static List<TraitCard> fromCardCodes(int[] codes) {
+    List<TraitCard> result = new ArrayList<>(codes.length);
+    for (int code : codes) result.add(fromCardCode(code));
+    return result;
+  }
+
+  private static long packTraits(int[] codes) {
+    long result = 0;
+    for (int k = 0; k < codes.length; k++) result |= (long) (codes[k] + 1) << (SLOT_BITS * k);
+    return result;
+  }
+
+  private static int[] unpackTraits(long packed) {
+    int numTraits = 0;
+    while (numTraits < Constants.MAX_TRAITS_PER_BOARD
+            && ((packed >>> (SLOT_BITS * numTraits)) & SLOT_MASK) != 0)
+      numTraits++;
+
+    int[] result = new int[numTraits];
+    for (int k = 0; k < numTraits; k++)
+      result[k] = (int) ((packed >>> (SLOT_BITS * k)) & SLOT_MASK) - 1;
+    return result;
+  }
+
+  private static int maskOf(long packed) {
+    int mask = 0;
+    for (int code : unpackTraits(packed)) mask |= traitOf(code).mask();
+    return mask;
+  }
+
+  private static int indexOf(PlayerList players, EvoPlayer player) {
+    for (int p = 0; p < players.size(); p++)
+      if (players.get(p) == player) return p;
+    return -1;
+  }
+
+
+  /******************
+   * Getter methods *
+   ******************/
+  public int getNumPlayers() { return numPlayers; }
+  public int getTurn() { return turn; }
+  public int getId(int p) { return ids[p]; }
+  public int getBag(int p) { return bags[p]; }
+  public int getWHTokens() { return wh; }
+  public int deckSize() { return deck.length - deckTop; }
+  public int numBoards(int p) { return boardStart[p + 1] - boardStart[p]; }
+  public int handSize(int p) { return handSizes[p]; }
+
+  /**
+   * Gets the code of the card at the given index of the given player's hand
+   */
+  public int cardAt(int p, int idx) {
+    if (idx < 0 || idx >= handSizes[p]) throw new IllegalArgumentException("Card index out of range");
+    return hands[p][idx];
+  }
+
+  /**
+   * Gets the index in this state of the player at the given index of the given player's rotated
+   * list of other players (i.e. the other players in turn order, starting after the given one)
+   */
+  public int rotatedPlayer(int p, int r) {
+    if (r < 0 || r >= numPlayers - 1) throw new IndexOutOfBoundsException("Index: " + r);
+    return (p + 1 + r) % numPlayers;
+  }
+}
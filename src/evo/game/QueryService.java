@@ -0,0 +1,127 @@
+package evo.game;
+
+import evo.Constants;
+
+import java.util.Optional;
+import java.util.concurrent.*;
+
+/**
+ * Runs queries to {@link ExternalPlayer}s, enforcing a deadline on each one.
+ *
+ * The shared service runs every query in the JVM on one pool of reusable daemon threads (or on
+ * virtual threads, where the runtime supports them), instead of starting and stopping a thread
+ * for every decision. The pool grows on demand, so a player that never answers only ties up its
+ * own thread, and idle threads are retired after {@link Constants#QUERY_THREAD_KEEP_ALIVE}.
+ *
+ * The inline service runs queries on the calling thread and cannot enforce the deadline, so it
+ * should only be used with trusted, in-process players (e.g. {@link SillyPlayer}s in simulations).
+ *
+ * The self-timed service also runs single queries on the calling thread, but runs a batch of
+ * queries started with {@link #submit(Callable)} on a thread each, and leaves every deadline to
+ * the players themselves (e.g. to players that read their responses with socket timeouts).
+ */
+public final class QueryService {
+  private static final ExecutorService QUERY_THREADS = ThreadPools.newPerTaskExecutor("evo-query");
+  private static final QueryService SHARED = new QueryService(Optional.of(QUERY_THREADS), false);
+  private static final QueryService INLINE = new QueryService(Optional.empty(), false);
+  private static final QueryService SELF_TIMED = new QueryService(Optional.of(QUERY_THREADS), true);
+
+  private final Optional<ExecutorService> executor;
+  private final boolean selfTimed;
+
+  private QueryService(Optional<ExecutorService> executor, boolean selfTimed) {
+    this.executor = executor;
+    this.selfTimed = selfTimed;
+  }
+
+  /**
+   * Gets the {@link QueryService} shared by every player in this JVM
+   */
+  public static QueryService shared() { return SHARED; }
+
+  /**
+   * Gets a {@link QueryService} that runs queries directly on the calling thread
+   */
+  public static QueryService inline() { return INLINE; }
+
+  /**
+   * Gets a {@link QueryService} for players that enforce their own deadlines
+   */
+  public static QueryService selfTimed() { return SELF_TIMED; }
+
+  /**
+   * Creates a {@link QueryService} that runs queries on the given executor
+   *
+   * @param executor the {@link ExecutorService} to run queries on
+   * @return the new {@link QueryService}
+   */
+  public static QueryService using(ExecutorService executor) {
+    return new QueryService(Optional.of(executor), false);
+  }
+
+  /**
+   * Runs the given query and waits for its result until the deadline. If the deadline passes, the
+   * query is cancelled (interrupting the thread running it).
+   *
+   * @param call the query to run
+   * @param timeout the maximum time to wait for the result
+   * @param unit the {@link TimeUnit} of the timeout
+   * @param <T> the type of the result
+   * @return the result of the query
+   * @throws TimeoutException if the query has not completed before the deadline
+   * @throws ExecutionException if the query threw an exception
+   * @throws InterruptedException if the calling thread was interrupted while waiting
+   */
+  public <T> T query(Callable<T> call, long timeout, TimeUnit unit)
+          throws TimeoutException, ExecutionException, InterruptedException {
+    if (!executor.isPresent() || selfTimed) {
+      try { return call.call(); }
+      catch (Exception e) { throw new ExecutionException(e); }
+    }
+
+    Future<T> future = executor.get().submit(call);
+    try { return future.get(timeout, unit); }
+    finally { future.cancel(true); }
+  }
+
+  /**
+   * Starts running the given query without waiting for its result, so that several queries can
+   * run at once; the inline service runs it to completion before returning
+   *
+   * @param call the query to run
+   * @param <T> the type of the result
+   * @return the pending result, to pass to {@link #await(Future, long)}
+   */
+  public <T> Future<T> submit(Callable<T> call) {
+    if (executor.isPresent()) return executor.get().submit(call);
+    FutureTask<T> task = new FutureTask<>(call);
+    task.run();
+    return task;
+  }
+
+  /**
+   * Waits for the result of a query started with {@link #submit(Callable)} until the given
+   * deadline. If the deadline passes, the query is cancelled (interrupting the thread running it).
+   *
+   * @param future the pending result
+   * @param deadline the {@link System#nanoTime()} by which the result must be available
+   * @param <T> the type of the result
+   * @return the result of the query
+   * @throws TimeoutException if the query has not completed before the deadline
+   * @throws ExecutionException if the query threw an exception
+   * @throws InterruptedException if the calling thread was interrupted while waiting
+   */
+  public <T> T await(Future<T> future, long deadline)
+          throws TimeoutException, ExecutionException, InterruptedException {
+    if (selfTimed) return future.get();
+    try { return future.get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS); }
+    finally { future.cancel(true); }
+  }
+
+  /**
+   * Gets the deadline that is the given time from now, to pass to {@link #await(Future, long)}
+   */
+  public static long deadlineAfter(long timeout, TimeUnit unit) {
+    return System.nanoTime() + unit.toNanos(timeout);
+  }
+}
@@ -81,11 +81,13 @@ public class SillyPlayer extends BasePlayer implements ExternalPlayer {
     if (!vegIdxs.isEmpty())
       return new FeedVeg(vegIdxs.get(0));
 
-    List<Integer> carnIdxs = Utils.sortedIdxs(myBoards, sb -> sb.canEatMore() &&
-            sb.canAttackAny(otherBoards), LargestSpeciesFirst::toIdxComp);
+    AttackGraph attacks = AttackGraph.of(myBoards, otherBoards);
+    List<Integer> carnIdxs = myBoards.getAllWithIdx(i -> myBoards.get(i).canEatMore() &&
+            attacks.canAttackAny(i));
+    carnIdxs.sort(LargestSpeciesFirst.toIdxComp(myBoards));
     if (!carnIdxs.isEmpty()) {
       int attackerIdx = carnIdxs.get(0);
-      IdxPair victimPair = Utils.getTargetAttackable(idxToBoard(attackerIdx), otherBoards,
+      IdxPair victimPair = Utils.getTargetAttackable(attacks.targetsOf(attackerIdx), otherBoards,
               new LargestSpeciesFirst());
       return new FeedCarn(attackerIdx, victimPair.getPlayerIdx(), victimPair.getSpeciesIdx());
     }
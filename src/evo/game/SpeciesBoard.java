@@ -1,12 +1,15 @@
 package evo.game;
 
-import com.google.gson.*;
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import evo.Constants;
 import evo.game.list.CardList;
 import evo.game.list.SpeciesList;
 import evo.json.JUtils;
 
-import java.lang.reflect.Type;
+import java.io.IOException;
 import java.util.*;
 
 /**
@@ -17,6 +20,7 @@ public class SpeciesBoard extends EvoElement {
   private int bodySize;
   private int populationSize;
   private final CardList traits;
+  private short traitMask;
   private int fatFood;
 
   private SpeciesBoard(int foodSupply, int bodySize, int popSize,
@@ -26,6 +30,7 @@ public class SpeciesBoard extends EvoElement {
     this.bodySize = bodySize;
     this.populationSize = popSize;
     this.traits = Objects.requireNonNull(traits);
+    this.traitMask = maskOf(traits);
     this.fatFood = fatFood;
     if (!isValid()) throw new InvalidEvoElementException("Invalid SpeciesBoard: " + toString());
   }
@@ -68,6 +73,21 @@ public class SpeciesBoard extends EvoElement {
    */
   public boolean canAttack(SpeciesBoard defender, Optional<SpeciesBoard> leftNeighbor,
                            Optional<SpeciesBoard> rightNeighbor) {
+    return canAttack(defender, leftNeighbor.orElse(null), rightNeighbor.orElse(null));
+  }
+
+  /**
+   * Determines whether or not this SpeciesBoard can attack the given SpeciesBoard. Same as
+   * {@link #canAttack(SpeciesBoard, Optional, Optional)}, but takes the neighbors as possibly
+   * null references so that callers iterating over a {@link SpeciesList} need not allocate.
+   *
+   * @param defender The {@link SpeciesBoard} this wants to attack
+   * @param leftNeighbor The {@link SpeciesBoard} to the left of the defender, or null if none
+   * @param rightNeighbor The {@link SpeciesBoard} to the right of the defender, or null if none
+   * @return true if this {@link SpeciesBoard} can successfully attack the defender
+   */
+  public boolean canAttack(SpeciesBoard defender, SpeciesBoard leftNeighbor,
+                           SpeciesBoard rightNeighbor) {
 
     int attackSize = hasTrait(TraitName.PACK_HUNTING) ? this.bodySize + this.populationSize
             : this.bodySize;
@@ -80,11 +100,11 @@ public class SpeciesBoard extends EvoElement {
             defender.getPopulationSize())
             || (defender.hasTrait(TraitName.HERDING) && defender.getPopulationSize() >=
             getPopulationSize())
-            || ((leftNeighbor.isPresent() && leftNeighbor.get().hasTrait(TraitName.WARNING_CALL) ||
-            rightNeighbor.isPresent() && rightNeighbor.get().hasTrait(TraitName.WARNING_CALL))
+            || ((leftNeighbor != null && leftNeighbor.hasTrait(TraitName.WARNING_CALL) ||
+            rightNeighbor != null && rightNeighbor.hasTrait(TraitName.WARNING_CALL))
             && !hasTrait(TraitName.AMBUSH))
-            || (defender.hasTrait(TraitName.SYMBIOSIS) && rightNeighbor.isPresent() &&
-            rightNeighbor.get().getBodySize() > defender.getBodySize()));
+            || (defender.hasTrait(TraitName.SYMBIOSIS) && rightNeighbor != null &&
+            rightNeighbor.getBodySize() > defender.getBodySize()));
   }
 
   /**
@@ -143,7 +163,19 @@ public class SpeciesBoard extends EvoElement {
    * @return true if this {@link SpeciesBoard} has the given {@link TraitName}
    */
   public boolean hasTrait(TraitName trait) {
-    return traits.containsTrait(trait) != -1;
+    return (traitMask & trait.mask()) != 0;
+  }
+
+  /**
+   * Computes the trait mask of the given {@link CardList} (see {@link TraitName#mask()})
+   *
+   * @param cards the {@link TraitCard}s to include in the mask
+   * @return the mask containing the trait of every card in the list
+   */
+  private static short maskOf(CardList cards) {
+    short mask = 0;
+    for (TraitCard tc : cards) mask |= tc.getName().mask();
+    return mask;
   }
 
   /**
@@ -213,12 +245,12 @@ public class SpeciesBoard extends EvoElement {
    * @return
    */
   public TraitCard replaceCard(int replaceIdx, TraitCard toAdd) {
-    if (traits.containsTrait(toAdd.getName()) != -1 &&
-            traits.get(replaceIdx).getName() != toAdd.getName())
+    if (hasTrait(toAdd.getName()) && traits.get(replaceIdx).getName() != toAdd.getName())
       throw new DuplicateTraitException("Species already has " + toAdd.getName().toString());
 
     TraitCard removed = traits.remove(replaceIdx);
     traits.add(replaceIdx, toAdd);
+    traitMask = maskOf(traits);
     if (removed.getName() == TraitName.FAT_TISSUE) fatFood = 0;
     return removed;
   }
@@ -309,9 +341,16 @@ public class SpeciesBoard extends EvoElement {
   public int getPopulationSize() {
     return this.populationSize;
   }
+  /**
+   * Gets the {@link TraitCard}s on this board. The returned list must not be modified directly;
+   * use {@link #replaceCard} instead so that the trait mask stays in sync.
+   */
   public CardList getTraitCards() {
     return this.traits;
   }
+  public short getTraitMask() {
+    return this.traitMask;
+  }
 
   /**
    * A Species+ is one of:
@@ -325,58 +364,53 @@ public class SpeciesBoard extends EvoElement {
    */
 
   private static final String FOOD_STR = "food";
-  private static final int FOOD_IDX = 0;
   private static final String BODY_STR = "body";
-  private static final int BODY_IDX = 1;
   private static final String POP_STR = "population";
-  private static final int POP_IDX = 2;
   private static final String TRAIT_STR = "traits";
-  private static final int TRAIT_IDX = 3;
   private static final String FAT_STR = "fat-food";
-  private static final int FAT_IDX = 4;
 
+  public static TypeAdapter<SpeciesBoard> adapter() { return ADAPTER; }
+  private static final TypeAdapter<SpeciesBoard> ADAPTER = new SpeciesBoardAdapter().nullSafe();
 
-  public static SpeciesBoardSerializer serializer() { return new SpeciesBoardSerializer(); }
-
-  private static class SpeciesBoardSerializer implements JsonSerializer<SpeciesBoard> {
+  private static class SpeciesBoardAdapter extends TypeAdapter<SpeciesBoard> {
     @Override
-    public JsonElement serialize(SpeciesBoard speciesBoard, Type type,
-                                 JsonSerializationContext jsonSerializationContext) {
-      JsonArray result = new JsonArray();
-      result.add(JUtils.makeIntField(FOOD_STR, speciesBoard.foodSupply));
-      result.add(JUtils.makeIntField(BODY_STR, speciesBoard.bodySize));
-      result.add(JUtils.makeIntField(POP_STR, speciesBoard.populationSize));
-      result.add(JUtils.makeJsonField(TRAIT_STR, speciesBoard.traits.namesToJson()));
+    public void write(JsonWriter out, SpeciesBoard speciesBoard) throws IOException {
+      out.beginArray();
+      JUtils.writeIntField(out, FOOD_STR, speciesBoard.foodSupply);
+      JUtils.writeIntField(out, BODY_STR, speciesBoard.bodySize);
+      JUtils.writeIntField(out, POP_STR, speciesBoard.populationSize);
+
+      JUtils.beginField(out, TRAIT_STR);
+      out.beginArray();
+      for (TraitCard tc : speciesBoard.traits) out.value(tc.getName().toString());
+      out.endArray();
+      out.endArray();
 
       if (speciesBoard.isFat() && speciesBoard.getFatFood() != 0)
-        result.add(JUtils.makeIntField(FAT_STR, speciesBoard.fatFood));
-
-      return result;
+        JUtils.writeIntField(out, FAT_STR, speciesBoard.fatFood);
+      out.endArray();
     }
-  }
 
-  public static SpeciesBoardDeserializer deserializer() { return new SpeciesBoardDeserializer(); }
-
-  private static class SpeciesBoardDeserializer implements JsonDeserializer<SpeciesBoard> {
     @Override
-    public SpeciesBoard deserialize(JsonElement jsonElement, Type type,
-                                    JsonDeserializationContext jsonDeserializationContext)
-            throws JsonParseException {
-
-      JsonArray jsonSpecies = jsonElement.getAsJsonArray();
+    public SpeciesBoard read(JsonReader in) throws IOException {
       SpeciesBuilder builder = builder();
-      builder.food(JUtils.getIntFromField(jsonSpecies, FOOD_STR, FOOD_IDX));
-      builder.body(JUtils.getIntFromField(jsonSpecies, BODY_STR, BODY_IDX));
-      builder.pop(JUtils.getIntFromField(jsonSpecies, POP_STR, POP_IDX));
+      in.beginArray();
+      builder.food(JUtils.readIntField(in, FOOD_STR));
+      builder.body(JUtils.readIntField(in, BODY_STR));
+      builder.pop(JUtils.readIntField(in, POP_STR));
 
-      JsonArray traitsArray = JUtils.getArrayFromField(jsonSpecies, TRAIT_STR, TRAIT_IDX);
+      JUtils.beginField(in, TRAIT_STR);
       List<TraitCard> traits = new ArrayList<>();
-      for (JsonElement je : traitsArray)
-        traits.add(new TraitCard(Constants.DEFAULT_FOOD_VAL, TraitName.fromString(je.getAsString())));
+      in.beginArray();
+      while (in.hasNext())
+        traits.add(new TraitCard(Constants.DEFAULT_FOOD_VAL, TraitName.fromString(in.nextString())));
+      in.endArray();
+      in.endArray();
       builder.traits(traits);
 
-      if (jsonSpecies.size() == 5)
-        builder.fat(JUtils.getIntFromField(jsonSpecies, FAT_STR, FAT_IDX));
+      if (in.hasNext())
+        builder.fat(JUtils.readIntField(in, FAT_STR));
+      in.endArray();
 
       try { return builder.build(); }
       catch (InvalidEvoElementException e) { throw new JsonParseException(e); }
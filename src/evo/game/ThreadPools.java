@@ -0,0 +1,40 @@
+package evo.game;
+
+import evo.Constants;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates the executors that run blocking work, such as waiting on a remote player or playing a
+ * whole game, where a thread spends most of its time idle.
+ */
+public final class ThreadPools {
+
+  private ThreadPools() { }
+
+  /**
+   * Creates an executor that runs every task on its own thread: a virtual thread if the runtime
+   * provides them, and otherwise a daemon thread from a pool that grows on demand and retires idle
+   * threads after {@link Constants#QUERY_THREAD_KEEP_ALIVE}
+   *
+   * @param name the prefix of the names of the pool's threads
+   * @return the new {@link ExecutorService}
+   */
+  public static ExecutorService newPerTaskExecutor(String name) {
+    try {
+      return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor")
+              .invoke(null);
+    }
+    catch (ReflectiveOperationException e) {
+      AtomicInteger count = new AtomicInteger();
+      return new ThreadPoolExecutor(0, Integer.MAX_VALUE,
+              Constants.QUERY_THREAD_KEEP_ALIVE, Constants.TIME_UNIT, new SynchronousQueue<>(),
+              r -> {
+                Thread t = new Thread(r, name + "-" + count.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+              });
+    }
+  }
+}
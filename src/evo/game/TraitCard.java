@@ -1,9 +1,12 @@
 package evo.game;
 
-import com.google.gson.*;
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import evo.Constants;
 
-import java.lang.reflect.Type;
+import java.io.IOException;
 import java.util.Objects;
 
 public class TraitCard extends EvoElement {
@@ -48,31 +51,26 @@ public class TraitCard extends EvoElement {
    *                    or "warning-call".
    */
 
-  private static final int FOODVAL_IDX = 0;
-  private static final int NAME_IDX = 1;
+  public static TypeAdapter<TraitCard> adapter() { return ADAPTER; }
+  private static final TypeAdapter<TraitCard> ADAPTER = new TraitCardAdapter().nullSafe();
 
-  public static JsonSerializer serializer() { return new TraitCardSerializer(); }
-  public static JsonDeserializer deserializer() { return new TraitCardDeserializer(); }
-
-  private static class TraitCardSerializer implements JsonSerializer<TraitCard> {
+  private static class TraitCardAdapter extends TypeAdapter<TraitCard> {
     @Override
-    public JsonElement serialize(TraitCard traitCard, Type type,
-                                 JsonSerializationContext jsonSerializationContext) {
-      JsonArray result = new JsonArray();
-      result.add(new JsonPrimitive(traitCard.foodPoints));
-      result.add(new JsonPrimitive(traitCard.name.toString()));
-      return result;
+    public void write(JsonWriter out, TraitCard traitCard) throws IOException {
+      out.beginArray();
+      out.value(traitCard.foodPoints);
+      out.value(traitCard.name.toString());
+      out.endArray();
     }
-  }
 
-  private static class TraitCardDeserializer implements JsonDeserializer<TraitCard> {
     @Override
-    public TraitCard deserialize(JsonElement jsonElement, Type type,
-                                 JsonDeserializationContext jsonDeserializationContext)
-            throws JsonParseException {
-      JsonArray jsonCard = jsonElement.getAsJsonArray();
-      TraitCard result = new TraitCard(jsonCard.get(FOODVAL_IDX).getAsInt(),
-              TraitName.fromString(jsonCard.get(NAME_IDX).getAsString()));
+    public TraitCard read(JsonReader in) throws IOException {
+      in.beginArray();
+      int foodPoints = in.nextInt();
+      TraitName name = TraitName.fromString(in.nextString());
+      in.endArray();
+
+      TraitCard result = new TraitCard(foodPoints, name);
       if (!result.isValid()) throw new JsonParseException("Invalid TraitCard: " + result.toString());
       else return result;
     }
@@ -1,13 +1,14 @@
 package evo.game;
 
 
-import com.google.gson.*;
+import com.google.gson.JsonElement;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
 import com.google.gson.stream.JsonWriter;
 import evo.json.JFactory;
 import evo.json.JSerializable;
 
 import java.io.IOException;
-import java.lang.reflect.Type;
 
 public enum TraitName implements JSerializable {
   CARNIVORE,
@@ -27,6 +28,16 @@ public enum TraitName implements JSerializable {
   SYMBIOSIS,
   WARNING_CALL;
 
+  /**
+   * Gets the bit that represents this trait in a trait mask, i.e. a set of traits where bit n is
+   * set iff the trait with ordinal n is present
+   *
+   * @return the mask with only this trait's bit set
+   */
+  public short mask() {
+    return (short) (1 << ordinal());
+  }
+
   @Override
   public String toString() {
     String str = this.name().contains("_") ? this.name().replace('_', '-') : this.name();
@@ -82,13 +93,18 @@ public enum TraitName implements JSerializable {
     JFactory.getGson().toJson(this, this.getClass(), writer);
   }
 
-  public static TraitNameSerializer serializer() { return new TraitNameSerializer(); }
+  public static TypeAdapter<TraitName> adapter() { return ADAPTER; }
+  private static final TypeAdapter<TraitName> ADAPTER = new TraitNameAdapter().nullSafe();
+
+  private static class TraitNameAdapter extends TypeAdapter<TraitName> {
+    @Override
+    public void write(JsonWriter out, TraitName traitName) throws IOException {
+      out.value(traitName.toString());
+    }
 
-  private static class TraitNameSerializer implements JsonSerializer<TraitName> {
     @Override
-    public JsonElement serialize(TraitName traitName, Type type,
-                                 JsonSerializationContext jsonSerializationContext) {
-      return new JsonPrimitive(this.toString());
+    public TraitName read(JsonReader in) throws IOException {
+      return TraitName.fromString(in.nextString());
     }
   }
 }
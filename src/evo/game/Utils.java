@@ -48,6 +48,28 @@ public class Utils {
     return result.get();
   }
 
+  /**
+   * Gets the {@link IdxPair} among the given attackable boards whose board comes first in the
+   * order defined in the given {@link Comparator}, breaking ties in favor of the earlier pair
+   *
+   * @param attackables the attackable boards, e.g. from {@link AttackGraph#targetsOf(int)}
+   * @param otherBoards the {@link SpeciesList}s the pairs refer to
+   * @param comp the {@link Comparator} defining the order of boards
+   * @return an {@link IdxPair} representing the target attackable board and its owner
+   */
+  public static IdxPair getTargetAttackable(List<IdxPair> attackables,
+                                            List<SpeciesList> otherBoards,
+                                            Comparator<SpeciesBoard> comp) {
+    IdxPair result = null;
+    for (IdxPair pair : attackables)
+      if (result == null
+              || pair.getSpecies(otherBoards).compareToThat(result.getSpecies(otherBoards), comp))
+        result = pair;
+
+    if (result == null) throw new FeedingException("No valid attackable boards");
+    return result;
+  }
+
   /**
    *
    * @param attacker
@@ -1,15 +1,16 @@
 package evo.game.choose;
 
-import com.google.gson.*;
+import com.google.gson.JsonElement;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
 import com.google.gson.stream.JsonWriter;
 import evo.game.*;
 import evo.game.list.CardList;
 import evo.json.JFactory;
-import evo.json.JUtils;
 
 import java.io.IOException;
-import java.lang.reflect.Type;
 import java.util.*;
+import java.util.function.Consumer;
 
 /**
  * Created by jackfriedson on 3/31/16.
@@ -65,6 +66,33 @@ public class Action4 implements PlayerResponse {
     player.updateHand(newHand);
   }
 
+  /**
+   * Same as {@link #doAll(EvoPlayer, WaterHole, Deck)}, but modifies the given player (and the
+   * watering hole) of a {@link PackedState}
+   *
+   * @param state the {@link PackedState} to modify
+   * @param player the index of the player in the state
+   */
+  public void doAll(PackedState state, int player) {
+    List<Integer> played = new ArrayList<>();
+    played.add(state.cardAt(player, foodCardIdx));
+    for (BoardTrade bt : bts) {
+      played.add(state.cardAt(player, bt.getCardIdx()));
+      for (int traitIdx : bt.getTraitIdxs()) played.add(state.cardAt(player, traitIdx));
+    }
+    for (ReplaceTrait rt : rts) played.add(state.cardAt(player, rt.getCardIdx()));
+    for (GrowPop gp : gps) played.add(state.cardAt(player, gp.getCardIdx()));
+    for (GrowBody gb : gbs) played.add(state.cardAt(player, gb.getCardIdx()));
+
+    state.addFood(PackedState.foodPoints(played.get(0)));
+    for (BoardTrade bt : bts) bt.doAction(state, player);
+    for (ReplaceTrait rt : rts) rt.doAction(state, player);
+    for (GrowPop gp : gps) gp.doAction(state, player);
+    for (GrowBody gb : gbs) gb.doAction(state, player);
+
+    for (int card : played) state.removeCard(player, card);
+  }
+
   private void foodToWH(EvoPlayer player, CardList newHand, WaterHole wh) {
     TraitCard toPlay = player.idxToCard(foodCardIdx);
     wh.addFood(toPlay.getFoodPoints());
@@ -133,17 +161,29 @@ public class Action4 implements PlayerResponse {
   }
 
 
+  /******************
+   * Getter methods *
+   ******************/
+  public int getFoodCardIdx() {
+    return foodCardIdx;
+  }
+  public List<GrowPop> getGrowPops() {
+    return Collections.unmodifiableList(gps);
+  }
+  public List<GrowBody> getGrowBodies() {
+    return Collections.unmodifiableList(gbs);
+  }
+  public List<BoardTrade> getBoardTrades() {
+    return Collections.unmodifiableList(bts);
+  }
+  public List<ReplaceTrait> getReplaceTraits() {
+    return Collections.unmodifiableList(rts);
+  }
+
   /**
    * An Action4 is [Natural, [GP, ...], [GB, ...], [BT, ...], [RT, ...]].
    */
 
-  private static final int FC_IDX = 0;
-  private static final int GP_IDX = 1;
-  private static final int GB_IDX = 2;
-  private static final int BT_IDX = 3;
-  private static final int RT_IDX = 4;
-
-
   @Override
   public JsonElement toJson() {
     return JFactory.getGson().toJsonTree(this, this.getClass());
@@ -155,39 +195,46 @@ public class Action4 implements PlayerResponse {
     writer.flush();
   }
 
-  public static JsonSerializer serializer() { return new Action4Serializer(); }
-  private static class Action4Serializer implements JsonSerializer<Action4> {
+  public static TypeAdapter<Action4> adapter() { return ADAPTER; }
+  private static final TypeAdapter<Action4> ADAPTER = new Action4Adapter().nullSafe();
+
+  private static class Action4Adapter extends TypeAdapter<Action4> {
     @Override
-    public JsonElement serialize(Action4 action4, Type type,
-                                 JsonSerializationContext jsonSerializationContext) {
-      JsonArray result = new JsonArray();
-      result.add(new JsonPrimitive(action4.foodCardIdx));
-      result.add(JUtils.listToJArray(action4.gps));
-      result.add(JUtils.listToJArray(action4.gbs));
-      result.add(JUtils.listToJArray(action4.bts));
-      result.add(JUtils.listToJArray(action4.rts));
-      return result;
+    public void write(JsonWriter out, Action4 action4) throws IOException {
+      out.beginArray();
+      out.value(action4.foodCardIdx);
+      writeAll(out, action4.gps, GrowPop.adapter());
+      writeAll(out, action4.gbs, GrowBody.adapter());
+      writeAll(out, action4.bts, BoardTrade.adapter());
+      writeAll(out, action4.rts, ReplaceTrait.adapter());
+      out.endArray();
     }
-  }
 
-  public static JsonDeserializer deserializer() { return new Action4Deserializer(); }
-  private static class Action4Deserializer implements JsonDeserializer<Action4> {
     @Override
-    public Action4 deserialize(JsonElement jsonElement, Type type,
-                               JsonDeserializationContext jsonDeserializationContext)
-            throws JsonParseException {
-      JsonArray jsonAction4 = jsonElement.getAsJsonArray();
-      Action4 result = new Action4(jsonAction4.get(FC_IDX).getAsInt());
-      for (JsonElement je : jsonAction4.get(GP_IDX).getAsJsonArray())
-        result.addGrowPop(JFactory.fromJson(je, GrowPop.class));
-      for (JsonElement je : jsonAction4.get(GB_IDX).getAsJsonArray())
-        result.addGrowBody(JFactory.fromJson(je, GrowBody.class));
-      for (JsonElement je : jsonAction4.get(BT_IDX).getAsJsonArray())
-        result.addBoardTrade(JFactory.fromJson(je, BoardTrade.class));
-      for (JsonElement je : jsonAction4.get(RT_IDX).getAsJsonArray())
-        result.addReplaceTrait(JFactory.fromJson(je, ReplaceTrait.class));
+    public Action4 read(JsonReader in) throws IOException {
+      in.beginArray();
+      Action4 result = new Action4(in.nextInt());
+      readAll(in, GrowPop.adapter(), result::addGrowPop);
+      readAll(in, GrowBody.adapter(), result::addGrowBody);
+      readAll(in, BoardTrade.adapter(), result::addBoardTrade);
+      readAll(in, ReplaceTrait.adapter(), result::addReplaceTrait);
+      in.endArray();
       return result;
     }
+
+    private static <T> void writeAll(JsonWriter out, List<T> actions, TypeAdapter<T> adapter)
+            throws IOException {
+      out.beginArray();
+      for (T action : actions) adapter.write(out, action);
+      out.endArray();
+    }
+
+    private static <T> void readAll(JsonReader in, TypeAdapter<T> adapter, Consumer<T> addAction)
+            throws IOException {
+      in.beginArray();
+      while (in.hasNext()) addAction.accept(adapter.read(in));
+      in.endArray();
+    }
   }
 
   @Override
@@ -1,10 +1,12 @@
 package evo.game.choose;
 
-import com.google.gson.*;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import evo.game.*;
 import evo.game.list.CardList;
 
-import java.lang.reflect.Type;
+import java.io.IOException;
 import java.util.*;
 
 /**
@@ -36,6 +38,13 @@ public class BoardTrade extends CardAction {
     newHand.remove(toPlay);
   }
 
+  @Override
+  public void doAction(PackedState state, int player) {
+    int[] cards = new int[traitIdxs.size()];
+    for (int i = 0; i < cards.length; i++) cards[i] = state.cardAt(player, traitIdxs.get(i));
+    state.addSpecies(player, cards);
+  }
+
   @Override
   public void removeCardsFrom(Collection<Integer> cards) {
     super.removeCardsFrom(cards);
@@ -71,31 +80,28 @@ public class BoardTrade extends CardAction {
    *  [Natural, Natural, Natural, Natural]
    */
 
-  public static JsonSerializer serializer() { return new BoardTradeSerializer(); }
-  private static class BoardTradeSerializer implements JsonSerializer<BoardTrade> {
+  public static TypeAdapter<BoardTrade> adapter() { return ADAPTER; }
+  private static final TypeAdapter<BoardTrade> ADAPTER = new BoardTradeAdapter().nullSafe();
+
+  private static class BoardTradeAdapter extends TypeAdapter<BoardTrade> {
     @Override
-    public JsonElement serialize(BoardTrade boardTrade, Type type,
-                                 JsonSerializationContext jsonSerializationContext) {
-      JsonArray result = new JsonArray();
-      result.add(new JsonPrimitive(boardTrade.cardIdx));
-      for (int n : boardTrade.traitIdxs) result.add(new JsonPrimitive(n));
-      return result;
+    public void write(JsonWriter out, BoardTrade boardTrade) throws IOException {
+      out.beginArray();
+      out.value(boardTrade.cardIdx);
+      for (int n : boardTrade.traitIdxs) out.value(n);
+      out.endArray();
     }
-  }
 
-  public static JsonDeserializer deserializer() { return new BoardTradeDeserializer(); }
-  private static class BoardTradeDeserializer implements JsonDeserializer<BoardTrade> {
     @Override
-    public BoardTrade deserialize(JsonElement jsonElement, Type type,
-                                  JsonDeserializationContext jsonDeserializationContext)
-            throws JsonParseException {
-      JsonArray jArray = jsonElement.getAsJsonArray();
+    public BoardTrade read(JsonReader in) throws IOException {
+      in.beginArray();
+      int cardIdx = in.nextInt();
       List<Integer> traitsToAdd = new ArrayList<>();
+      while (in.hasNext())
+        traitsToAdd.add(in.nextInt());
+      in.endArray();
 
-      for (int i = 1; i < jArray.size(); i++)
-        traitsToAdd.add(jArray.get(i).getAsInt());
-
-      return new BoardTrade(jArray.get(0).getAsInt(), traitsToAdd);
+      return new BoardTrade(cardIdx, traitsToAdd);
     }
   }
 
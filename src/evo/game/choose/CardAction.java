@@ -5,6 +5,7 @@ import com.google.gson.stream.JsonWriter;
 import evo.game.BasePlayer;
 import evo.game.list.CardList;
 import evo.game.EvoPlayer;
+import evo.game.PackedState;
 import evo.json.JFactory;
 import evo.json.JSerializable;
 
@@ -32,6 +33,16 @@ public abstract class CardAction implements JSerializable {
    */
   public abstract void doAction(BasePlayer player, CardList newHand);
 
+  /**
+   * Same as {@link #doAction(BasePlayer, CardList)}, but modifies the given player of a
+   * {@link PackedState}. The player's hand is left alone: {@link Action4} removes every card it
+   * played once all of its actions are done.
+   *
+   * @param state the {@link PackedState} to modify
+   * @param player the index of the player in the state
+   */
+  public abstract void doAction(PackedState state, int player);
+
   /**
    * Verifies that this {@link CardAction} is valid, given the {@link EvoPlayer} that it
    * corresponds to
@@ -1,10 +1,13 @@
 package evo.game.choose;
 
-import com.google.gson.*;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import evo.game.BasePlayer;
+import evo.game.PackedState;
 import evo.game.list.CardList;
 
-import java.lang.reflect.Type;
+import java.io.IOException;
 
 /**
  * Created by jackfriedson on 3/31/16.
@@ -23,6 +26,11 @@ public class GrowBody extends CardAction {
     newHand.remove(player.idxToCard(cardIdx));
   }
 
+  @Override
+  public void doAction(PackedState state, int player) {
+    state.increaseBodySize(player, speciesIdx);
+  }
+
   @Override
   public void addToAction4(Action4 action4) {
     action4.addGrowBody(this);
@@ -42,29 +50,25 @@ public class GrowBody extends CardAction {
    * A GB is [Natural, Natural].
    */
 
-  private static final int BRD_IDX = 0;
-  private static final int CARD_IDX = 1;
+  public static TypeAdapter<GrowBody> adapter() { return ADAPTER; }
+  private static final TypeAdapter<GrowBody> ADAPTER = new GrowBodyAdapter().nullSafe();
 
-  public static JsonSerializer serializer() { return new GrowBodySerializer(); }
-  private static class GrowBodySerializer implements JsonSerializer<GrowBody> {
+  private static class GrowBodyAdapter extends TypeAdapter<GrowBody> {
     @Override
-    public JsonElement serialize(GrowBody growBody, Type type,
-                                 JsonSerializationContext jsonSerializationContext) {
-      JsonArray result = new JsonArray();
-      result.add(new JsonPrimitive(growBody.speciesIdx));
-      result.add(new JsonPrimitive(growBody.cardIdx));
-      return result;
+    public void write(JsonWriter out, GrowBody growBody) throws IOException {
+      out.beginArray();
+      out.value(growBody.speciesIdx);
+      out.value(growBody.cardIdx);
+      out.endArray();
     }
-  }
 
-  public static JsonDeserializer deserializer() { return new GrowBodyDeserializer(); }
-  private static class GrowBodyDeserializer implements JsonDeserializer<GrowBody> {
     @Override
-    public GrowBody deserialize(JsonElement jsonElement, Type type,
-                                JsonDeserializationContext jsonDeserializationContext)
-            throws JsonParseException {
-      JsonArray jArray = jsonElement.getAsJsonArray();
-      return new GrowBody(jArray.get(CARD_IDX).getAsInt(), jArray.get(BRD_IDX).getAsInt());
+    public GrowBody read(JsonReader in) throws IOException {
+      in.beginArray();
+      int speciesIdx = in.nextInt();
+      int cardIdx = in.nextInt();
+      in.endArray();
+      return new GrowBody(cardIdx, speciesIdx);
     }
   }
 
@@ -1,10 +1,13 @@
 package evo.game.choose;
 
-import com.google.gson.*;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import evo.game.BasePlayer;
+import evo.game.PackedState;
 import evo.game.list.CardList;
 
-import java.lang.reflect.Type;
+import java.io.IOException;
 
 /**
  * Created by jackfriedson on 3/31/16.
@@ -23,6 +26,11 @@ public class GrowPop extends CardAction {
     newHand.remove(player.idxToCard(cardIdx));
   }
 
+  @Override
+  public void doAction(PackedState state, int player) {
+    state.increasePopulation(player, speciesIdx);
+  }
+
   @Override
   public void addToAction4(Action4 action4) {
     action4.addGrowPop(this);
@@ -42,29 +50,25 @@ public class GrowPop extends CardAction {
    * A GP is [Natural, Natural].
    */
 
-  private static final int BRD_IDX = 0;
-  private static final int CARD_IDX = 1;
+  public static TypeAdapter<GrowPop> adapter() { return ADAPTER; }
+  private static final TypeAdapter<GrowPop> ADAPTER = new GrowPopAdapter().nullSafe();
 
-  public static JsonSerializer serializer() { return new GrowPopSerializer(); }
-  private static class GrowPopSerializer implements JsonSerializer<GrowPop> {
+  private static class GrowPopAdapter extends TypeAdapter<GrowPop> {
     @Override
-    public JsonElement serialize(GrowPop growPop, Type type,
-                                 JsonSerializationContext jsonSerializationContext) {
-      JsonArray result = new JsonArray();
-      result.add(new JsonPrimitive(growPop.speciesIdx));
-      result.add(new JsonPrimitive(growPop.cardIdx));
-      return result;
+    public void write(JsonWriter out, GrowPop growPop) throws IOException {
+      out.beginArray();
+      out.value(growPop.speciesIdx);
+      out.value(growPop.cardIdx);
+      out.endArray();
     }
-  }
 
-  public static JsonDeserializer deserializer() { return new GrowPopDeserializer(); }
-  private static class GrowPopDeserializer implements JsonDeserializer<GrowPop> {
     @Override
-    public GrowPop deserialize(JsonElement jsonElement, Type type,
-                               JsonDeserializationContext jsonDeserializationContext)
-            throws JsonParseException {
-      JsonArray jArray = jsonElement.getAsJsonArray();
-      return new GrowPop(jArray.get(CARD_IDX).getAsInt(), jArray.get(BRD_IDX).getAsInt());
+    public GrowPop read(JsonReader in) throws IOException {
+      in.beginArray();
+      int speciesIdx = in.nextInt();
+      int cardIdx = in.nextInt();
+      in.endArray();
+      return new GrowPop(cardIdx, speciesIdx);
     }
   }
 
@@ -1,11 +1,13 @@
 package evo.game.choose;
 
-import com.google.gson.*;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import evo.Constants;
 import evo.game.*;
 import evo.game.list.CardList;
 
-import java.lang.reflect.Type;
+import java.io.IOException;
 
 /**
  * Created by jackfriedson on 3/31/16.
@@ -28,6 +30,11 @@ public class ReplaceTrait extends CardAction {
     newHand.remove(toPlay);
   }
 
+  @Override
+  public void doAction(PackedState state, int player) {
+    state.replaceCard(player, speciesIdx, toReplaceIdx, state.cardAt(player, cardIdx));
+  }
+
   @Override
   public void addToAction4(Action4 action4) {
     action4.addReplaceTrait(this);
@@ -52,28 +59,27 @@ public class ReplaceTrait extends CardAction {
    * An RT is [Natural, Natural, Natural].
    */
 
-  public static JsonSerializer serializer() { return new ReplaceTraitSerializer(); }
-  private static class ReplaceTraitSerializer implements JsonSerializer<ReplaceTrait> {
+  public static TypeAdapter<ReplaceTrait> adapter() { return ADAPTER; }
+  private static final TypeAdapter<ReplaceTrait> ADAPTER = new ReplaceTraitAdapter().nullSafe();
+
+  private static class ReplaceTraitAdapter extends TypeAdapter<ReplaceTrait> {
     @Override
-    public JsonElement serialize(ReplaceTrait replaceTrait, Type type,
-                                 JsonSerializationContext jsonSerializationContext) {
-      JsonArray result = new JsonArray();
-      result.add(new JsonPrimitive(replaceTrait.speciesIdx));
-      result.add(new JsonPrimitive(replaceTrait.toReplaceIdx));
-      result.add(new JsonPrimitive(replaceTrait.cardIdx));
-      return result;
+    public void write(JsonWriter out, ReplaceTrait replaceTrait) throws IOException {
+      out.beginArray();
+      out.value(replaceTrait.speciesIdx);
+      out.value(replaceTrait.toReplaceIdx);
+      out.value(replaceTrait.cardIdx);
+      out.endArray();
     }
-  }
 
-  public static JsonDeserializer deserializer() { return new ReplaceTraitDeserializer(); }
-  private static class ReplaceTraitDeserializer implements JsonDeserializer<ReplaceTrait> {
     @Override
-    public ReplaceTrait deserialize(JsonElement jsonElement, Type type,
-                                    JsonDeserializationContext jsonDeserializationContext)
-            throws JsonParseException {
-      JsonArray jArray = jsonElement.getAsJsonArray();
-      return new ReplaceTrait(jArray.get(2).getAsInt(), jArray.get(1).getAsInt(),
-              jArray.get(0).getAsInt());
+    public ReplaceTrait read(JsonReader in) throws IOException {
+      in.beginArray();
+      int speciesIdx = in.nextInt();
+      int toReplaceIdx = in.nextInt();
+      int cardIdx = in.nextInt();
+      in.endArray();
+      return new ReplaceTrait(cardIdx, toReplaceIdx, speciesIdx);
     }
   }
 
@@ -1,10 +1,10 @@
 package evo.game.feed;
 
-import com.google.gson.*;
+import com.google.gson.stream.JsonWriter;
 import evo.game.*;
 import evo.game.list.PlayerList;
 
-import java.lang.reflect.Type;
+import java.io.IOException;
 import java.util.Optional;
 
 /**
@@ -28,6 +28,14 @@ public final class FeedCarn extends FeedResponse {
     return true;
   }
 
+  @Override
+  public boolean feedAction(PackedState state, int player) {
+    int victimOwner = state.rotatedPlayer(player, victimOwnerIdx);
+    if (state.feedCarnivore(player, attackerIdx, victimOwner, victimIdx))
+      state.feedScavengers(player);
+    return true;
+  }
+
   @Override
   public boolean isValid(EvoPlayer player, PlayerList allPlayers) {
     SpeciesBoard attacker;
@@ -45,21 +53,30 @@ public final class FeedCarn extends FeedResponse {
   }
 
 
+  /******************
+   * Getter methods *
+   ******************/
+  public int getAttackerIdx() {
+    return attackerIdx;
+  }
+  public int getVictimOwnerIdx() {
+    return victimOwnerIdx;
+  }
+  public int getVictimIdx() {
+    return victimIdx;
+  }
+
   /**
    * A CarnivoreChoice is [Natural, Natural, Natural].
    */
 
-  public static JsonSerializer serializer() { return new FeedCarnSerializer(); }
-  private static class FeedCarnSerializer implements JsonSerializer<FeedCarn> {
-    @Override
-    public JsonElement serialize(FeedCarn feedCarn, Type type,
-                                 JsonSerializationContext jsonSerializationContext) {
-      JsonArray carnivoreSpecies = new JsonArray();
-      carnivoreSpecies.add(new JsonPrimitive(feedCarn.attackerIdx));
-      carnivoreSpecies.add(new JsonPrimitive(feedCarn.victimOwnerIdx));
-      carnivoreSpecies.add(new JsonPrimitive(feedCarn.victimIdx));
-      return carnivoreSpecies;
-    }
+  @Override
+  void writeTo(JsonWriter out) throws IOException {
+    out.beginArray();
+    out.value(attackerIdx);
+    out.value(victimOwnerIdx);
+    out.value(victimIdx);
+    out.endArray();
   }
 
   @Override
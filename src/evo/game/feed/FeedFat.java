@@ -1,10 +1,10 @@
 package evo.game.feed;
 
-import com.google.gson.*;
+import com.google.gson.stream.JsonWriter;
 import evo.game.*;
 import evo.game.list.PlayerList;
 
-import java.lang.reflect.Type;
+import java.io.IOException;
 
 /**
  * Created by jackfriedson on 3/22/16.
@@ -24,6 +24,12 @@ public final class FeedFat extends FeedResponse {
     return true;
   }
 
+  @Override
+  public boolean feedAction(PackedState state, int player) {
+    state.feedFatSpecies(player, toStoreIdx);
+    return true;
+  }
+
   @Override
   public boolean isValid(EvoPlayer player, PlayerList allPlayers) {
     SpeciesBoard toStore;
@@ -33,22 +39,26 @@ public final class FeedFat extends FeedResponse {
   }
 
 
+  /******************
+   * Getter methods *
+   ******************/
+  public int getToStoreIdx() {
+    return toStoreIdx;
+  }
+  public int getNumTokens() {
+    return numTokens;
+  }
+
   /**
    * A FatTissueChoice is a [Natural, Nat+].
    */
 
-  public static JsonSerializer serializer() { return new FeedFatSerializer(); }
-  private static class FeedFatSerializer implements JsonSerializer<FeedFat> {
-    @Override
-    public JsonElement serialize(FeedFat feedFat, Type type,
-                                 JsonSerializationContext jsonSerializationContext) {
-      JsonArray fatty = new JsonArray();
-      JsonPrimitive speciesIdx = new JsonPrimitive(feedFat.toStoreIdx);
-      JsonPrimitive tokens = new JsonPrimitive(feedFat.numTokens);
-      fatty.add(speciesIdx);
-      fatty.add(tokens);
-      return fatty;
-    }
+  @Override
+  void writeTo(JsonWriter out) throws IOException {
+    out.beginArray();
+    out.value(toStoreIdx);
+    out.value(numTokens);
+    out.endArray();
   }
 
 
@@ -1,12 +1,13 @@
 package evo.game.feed;
 
-import com.google.gson.*;
+import com.google.gson.stream.JsonWriter;
 import evo.game.Deck;
 import evo.game.EvoPlayer;
+import evo.game.PackedState;
 import evo.game.list.PlayerList;
 import evo.game.WaterHole;
 
-import java.lang.reflect.Type;
+import java.io.IOException;
 
 /**
  * Created by jackfriedson on 3/22/16.
@@ -20,18 +21,19 @@ public final class FeedNothing extends FeedResponse {
     return false;
   }
 
+  @Override
+  public boolean feedAction(PackedState state, int player) {
+    return false;
+  }
+
   @Override
   public boolean isValid(EvoPlayer player, PlayerList allPlayers) {
     return true;
   }
 
-  public static JsonSerializer serializer() { return new FeedNothingSerializer(); }
-  private static class FeedNothingSerializer implements JsonSerializer<FeedNothing> {
-    @Override
-    public JsonElement serialize(FeedNothing feedNothing, Type type,
-                                 JsonSerializationContext jsonSerializationContext) {
-      return new JsonPrimitive(false);
-    }
+  @Override
+  void writeTo(JsonWriter out) throws IOException {
+    out.value(false);
   }
 
   @Override
@@ -1,13 +1,15 @@
 package evo.game.feed;
 
-import com.google.gson.*;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
 import com.google.gson.stream.JsonWriter;
 import evo.game.*;
 import evo.game.list.PlayerList;
 import evo.json.JFactory;
 
 import java.io.IOException;
-import java.lang.reflect.Type;
 
 /**
  * Created by jackfriedson on 3/22/16.
@@ -29,8 +31,25 @@ public abstract class FeedResponse implements PlayerResponse {
   public abstract boolean feedAction(EvoPlayer playerToFeed, PlayerList allPlayers, WaterHole wh,
                                      Deck deck);
 
+  /**
+   * Same as {@link #feedAction(EvoPlayer, PlayerList, WaterHole, Deck)}, but feeds the given player
+   * of a {@link PackedState}; the response must be valid for that player
+   *
+   * @param state the {@link PackedState} to modify
+   * @param player the index of the player to feed in the state
+   * @return true if a feed action was carried out
+   */
+  public abstract boolean feedAction(PackedState state, int player);
+
   public abstract boolean isValid(EvoPlayer player, PlayerList allPlayers);
 
+  /**
+   * Effect: writes the JSON representation of this response (see below) to the given writer
+   *
+   * @param out the {@link JsonWriter} to write to
+   */
+  abstract void writeTo(JsonWriter out) throws IOException;
+
   /**
    *
    * A FeedingChoice is one of:
@@ -56,31 +75,45 @@ public abstract class FeedResponse implements PlayerResponse {
     writer.flush();
   }
 
-  public static JsonDeserializer deserializer() { return new FeedResponseDeserializer(); }
-  private static class FeedResponseDeserializer implements JsonDeserializer<FeedResponse> {
-    private static final int FAT_SIZE = 2;
-    private static final int BRD_IDX = 0;
-    private static final int TKN_IDX = 1;
+  /**
+   * Gets the adapter for every kind of {@link FeedResponse}; it is registered for the whole
+   * hierarchy, so writing dispatches on the kind of response.
+   */
+  public static TypeAdapter<FeedResponse> adapter() { return ADAPTER; }
+  private static final TypeAdapter<FeedResponse> ADAPTER = new FeedResponseAdapter().nullSafe();
 
+  private static class FeedResponseAdapter extends TypeAdapter<FeedResponse> {
+    private static final int FAT_SIZE = 2;
     private static final int CARN_SIZE = 3;
-    private static final int ATKR_IDX = 0;
-    private static final int OWNR_IDX = 1;
-    private static final int DFNDR_IDX = 2;
 
     @Override
-    public FeedResponse deserialize(JsonElement jsonElement, Type type,
-                                    JsonDeserializationContext jsonDeserializationContext)
-            throws JsonParseException {
-      JsonArray ja;
-      if (jsonElement.isJsonPrimitive()) {
-        if (jsonElement.getAsJsonPrimitive().isBoolean()) return new FeedNothing();
-        else return new FeedVeg(jsonElement.getAsInt());
+    public void write(JsonWriter out, FeedResponse response) throws IOException {
+      response.writeTo(out);
+    }
+
+    @Override
+    public FeedResponse read(JsonReader in) throws IOException {
+      switch (in.peek()) {
+        case BOOLEAN:
+          in.nextBoolean();
+          return new FeedNothing();
+        case BEGIN_ARRAY:
+          break;
+        default:
+          return new FeedVeg(in.nextInt());
+      }
+
+      int[] idxs = new int[CARN_SIZE];
+      int size = 0;
+      in.beginArray();
+      while (in.hasNext()) {
+        if (size == CARN_SIZE) throw new JsonParseException("Invalid JSON FeedResponse");
+        idxs[size++] = in.nextInt();
       }
-      else if ((ja = jsonElement.getAsJsonArray()).size() == FAT_SIZE)
-        return new FeedFat(ja.get(BRD_IDX).getAsInt(), ja.get(TKN_IDX).getAsInt());
-      else if (ja.size() == CARN_SIZE)
-        return new FeedCarn(ja.get(ATKR_IDX).getAsInt(), ja.get(OWNR_IDX).getAsInt(),
-                ja.get(DFNDR_IDX).getAsInt());
+      in.endArray();
+
+      if (size == FAT_SIZE) return new FeedFat(idxs[0], idxs[1]);
+      else if (size == CARN_SIZE) return new FeedCarn(idxs[0], idxs[1], idxs[2]);
       else throw new JsonParseException("Invalid JSON FeedResponse");
     }
   }
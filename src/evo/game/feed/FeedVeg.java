@@ -1,10 +1,10 @@
 package evo.game.feed;
 
-import com.google.gson.*;
+import com.google.gson.stream.JsonWriter;
 import evo.game.*;
 import evo.game.list.PlayerList;
 
-import java.lang.reflect.Type;
+import java.io.IOException;
 
 /**
  * Created by jackfriedson on 3/22/16.
@@ -22,6 +22,12 @@ public final class FeedVeg extends FeedResponse {
     return true;
   }
 
+  @Override
+  public boolean feedAction(PackedState state, int player) {
+    state.feedSpecies(player, toFeedIdx);
+    return true;
+  }
+
   @Override
   public boolean isValid(EvoPlayer player, PlayerList allPlayers) {
     SpeciesBoard toFeed;
@@ -30,18 +36,20 @@ public final class FeedVeg extends FeedResponse {
     return toFeed.isVeg() && toFeed.canEatMore();
   }
 
+  /******************
+   * Getter methods *
+   ******************/
+  public int getToFeedIdx() {
+    return toFeedIdx;
+  }
+
   /**
    * A VegetarianChoice is a Natural.
    */
 
-  public static JsonSerializer serializer() { return new FeedVegSerializer(); }
-  private static class FeedVegSerializer implements JsonSerializer<FeedVeg> {
-    @Override
-    public JsonElement serialize(FeedVeg feedVeg, Type type,
-                                 JsonSerializationContext jsonSerializationContext) {
-      return new JsonPrimitive(feedVeg.toFeedIdx);
-//      return new JsonPrimitive(Integer.toString(feedVeg.toFeedIdx));
-    }
+  @Override
+  void writeTo(JsonWriter out) throws IOException {
+    out.value(toFeedIdx);
   }
 
   @Override
@@ -1,11 +1,9 @@
 package evo.game.list;
 
-import com.google.gson.*;
+import com.google.gson.TypeAdapter;
 import evo.game.TraitCard;
 import evo.game.TraitName;
-import evo.json.JFactory;
 
-import java.lang.reflect.Type;
 import java.util.Collections;
 import java.util.List;
 import java.util.function.Predicate;
@@ -58,38 +56,14 @@ public class CardList extends EvoList<TraitCard> {
    * [Trait,Trait,Trait]
    */
 
-  public static JsonDeserializer deserializer() { return new CardListDeserializer(); }
+  public static TypeAdapter<CardList> adapter() { return ADAPTER; }
+  private static final TypeAdapter<CardList> ADAPTER = new CardListAdapter().nullSafe();
 
-  public JsonElement namesToJson() {
-    Gson gson = new GsonBuilder()
-            .registerTypeAdapter(CardList.class, new CardListNameSerializer())
-            .create();
-    return gson.toJsonTree(this, CardList.class);
-  }
-
-  private static class CardListNameSerializer implements JsonSerializer<CardList> {
-    @Override
-    public JsonElement serialize(CardList traitCards, Type type,
-                                 JsonSerializationContext jsonSerializationContext) {
-      JsonArray result = new JsonArray();
-      for (TraitCard tc : traitCards)
-        result.add(tc.getName().toString());
-      return result;
-    }
-  }
+  private static class CardListAdapter extends EvoListAdapter<TraitCard, CardList> {
+    private CardListAdapter() { super(TraitCard.adapter()); }
 
-  private static class CardListDeserializer implements JsonDeserializer<CardList> {
     @Override
-    public CardList deserialize(JsonElement jsonElement, Type type,
-                                JsonDeserializationContext jsonDeserializationContext)
-            throws JsonParseException {
-      JsonArray jsonList = jsonElement.getAsJsonArray();
-      CardList result = new CardList();
-      for (JsonElement j : jsonList)
-              result.add(JFactory.fromJson(j.getAsJsonArray(), TraitCard.class));
-      if (!result.isValid()) throw new JsonParseException("Invalid CardList: " + result.toString());
-      else return result;
-    }
+    CardList newList() { return new CardList(); }
   }
 
   @Override
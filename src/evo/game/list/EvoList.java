@@ -1,9 +1,12 @@
 package evo.game.list;
 
-import com.google.gson.*;
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import evo.game.EvoElement;
 
-import java.lang.reflect.Type;
+import java.io.IOException;
 import java.util.*;
 import java.util.function.Predicate;
 
@@ -73,15 +76,41 @@ abstract class EvoList<T extends EvoElement> extends EvoElement implements Itera
     return true;
   }
 
-  public static JsonSerializer serializer() { return new EvoListSerializer(); }
-  private static class EvoListSerializer<U extends EvoElement>
-          implements JsonSerializer<EvoList<U>> {
+  /**
+   * Streams an {@link EvoList} as a JSON array of its elements, using the given adapter for each
+   * element. Lists that are read are validated before they are returned.
+   */
+  abstract static class EvoListAdapter<U extends EvoElement, L extends EvoList<U>>
+          extends TypeAdapter<L> {
+    private final TypeAdapter<U> elementAdapter;
+
+    EvoListAdapter(TypeAdapter<U> elementAdapter) {
+      this.elementAdapter = elementAdapter;
+    }
+
+    /**
+     * Creates a new, empty list to read elements into
+     */
+    abstract L newList();
+
+    @Override
+    public void write(JsonWriter out, L evoList) throws IOException {
+      out.beginArray();
+      for (U u : evoList) elementAdapter.write(out, u);
+      out.endArray();
+    }
+
     @Override
-    public JsonElement serialize(EvoList<U> evoList, Type type,
-                                 JsonSerializationContext jsonSerializationContext) {
-      JsonArray result = new JsonArray();
-      for (U u : evoList) result.add(u.toJson());
-      return result;
+    public L read(JsonReader in) throws IOException {
+      L result = newList();
+      in.beginArray();
+      while (in.hasNext()) result.add(elementAdapter.read(in));
+      in.endArray();
+
+      if (!result.isValid())
+        throw new JsonParseException("Invalid " + result.getClass().getSimpleName() + ": "
+                + result.toString());
+      else return result;
     }
   }
 }
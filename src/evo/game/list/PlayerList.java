@@ -1,15 +1,15 @@
 package evo.game.list;
 
-import com.google.gson.*;
+import com.google.gson.TypeAdapter;
 import evo.Constants;
 import evo.game.*;
 import evo.game.choose.Action4;
 import evo.game.compare.HighestScoreFirst;
 import evo.game.IllegalResponseException;
-import evo.json.JFactory;
 
-import java.lang.reflect.Type;
+import java.io.PrintStream;
 import java.util.*;
+import java.util.concurrent.Future;
 import java.util.function.Predicate;
 
 /**
@@ -40,20 +40,52 @@ public class PlayerList extends EvoList<EvoPlayer> {
    * an invalid response or times out, that player is kicked from the game (i.e. removed from this
    * list)
    *
+   * Every player chooses from the same snapshot of the boards, so all of them are queried at once,
+   * and must all respond within one {@link Constants#MAX_RESPONSE_TIME} of the first query.
+   *
    * @return the list of {@link Action4}s representing (in order) the actions each player in this
    *         list wishes to take
    */
   public List<Action4> getChoices() {
+    return getChoices(Optional.of(System.out));
+  }
+
+  /**
+   * Same as {@link #getChoices()}, but reports kicked players to the given log, if any
+   *
+   * @param log the {@link PrintStream} to report kicked players to, or empty to stay quiet
+   * @return the list of {@link Action4}s representing (in order) the actions each player in this
+   *         list wishes to take
+   */
+  public List<Action4> getChoices(Optional<PrintStream> log) {
+    return getChoices(log, GameObserver.NONE);
+  }
+
+  /**
+   * Same as {@link #getChoices(Optional)}, but also reports kicked players to the given
+   * {@link GameObserver}
+   */
+  public List<Action4> getChoices(Optional<PrintStream> log, GameObserver observer) {
     List<Action4> result = new ArrayList<>();
     List<EvoPlayer> toKick = new ArrayList<>();
 
+    List<SpeciesList> boards = getAllBoards();
+    long deadline = QueryService.deadlineAfter(Constants.MAX_RESPONSE_TIME, Constants.TIME_UNIT);
+    List<Future<Action4>> pending = new ArrayList<>();
+    for (int i = 0; i < size(); i++)
+      pending.add(get(i).startChoose(boards.subList(0, i), boards.subList(i + 1, size())));
+
     //TODO: replace exception handling with validity checking
-    for (EvoPlayer p : this) {
-      try { result.add(p.choose(getBoardsBefore(p), getBoardsAfter(p))); }
+    for (int i = 0; i < size(); i++) {
+      EvoPlayer p = get(i);
+      try { result.add(p.finishChoose(pending.get(i), deadline)); }
       catch (IllegalResponseException e) {
         toKick.add(p);
-        System.out.println("Kicked player " + p.getId() + " from the game");
-        System.out.println(e.getMessage());
+        observer.playerKicked(p.getId(), e.getMessage());
+        log.ifPresent(out -> {
+          out.println("Kicked player " + p.getId() + " from the game");
+          out.println(e.getMessage());
+        });
       }
     }
 
@@ -71,30 +103,6 @@ public class PlayerList extends EvoList<EvoPlayer> {
     return Utils.map(contents, EvoPlayer::getBoards);
   }
 
-  /**
-   * Gets the list of {@link SpeciesList}s belonging to {@link EvoPlayer}s before the given
-   * one
-   *
-   * @param p the {@link EvoPlayer} to check before
-   * @return the list of {@link SpeciesList}s before the given {@link EvoPlayer}
-   */
-  private List<SpeciesList> getBoardsBefore(EvoPlayer p) {
-    return getAllBoards().subList(0, indexOf(p));
-  }
-
-  /**
-   * Gets the list of {@link SpeciesList}s belonging to {@link EvoPlayer}s after the given
-   * one
-   *
-   * @param p the {@link EvoPlayer} to check after
-   * @return the list of {@link SpeciesList}s after the given {@link EvoPlayer}
-   */
-  private List<SpeciesList> getBoardsAfter(EvoPlayer p) {
-    int idx = indexOf(p);
-    if (idx == size() - 1) return new ArrayList<>();
-    else return getAllBoards().subList(idx + 1, size());
-  }
-
   /**
    *
    * @return
@@ -114,7 +122,15 @@ public class PlayerList extends EvoList<EvoPlayer> {
    * @return true on success, false if there are not enough cards left
    */
   public void startAll(int wh, Deck deck) {
-    for (EvoPlayer ep : this) ep.start(wh, deck.draw(ep.cardsNeeded()));
+    startAll(wh, deck, false);
+  }
+
+  /**
+   * Same as {@link #startAll(int, Deck)}, but if pipelined, the start messages may be held back
+   * until the players' choose queries, so that both reach each player together
+   */
+  public void startAll(int wh, Deck deck, boolean pipelined) {
+    for (EvoPlayer ep : this) ep.start(wh, deck.draw(ep.cardsNeeded()), pipelined);
   }
 
   /**
@@ -165,8 +181,11 @@ public class PlayerList extends EvoList<EvoPlayer> {
    * @param wh the {@link WaterHole} to feedNext from
    */
   public void feedScavengers(EvoPlayer player, WaterHole wh) {
-    for (EvoPlayer p : this.thisPlayerFirst(player))
-      p.actOnAllWith(s -> s.hasTrait(TraitName.SCAVENGER), i -> p.feedSpecies(i, wh));
+    int playerIdx = indexOf(player);
+    for (int i = 0; i < size(); i++) {
+      EvoPlayer p = get(Math.floorMod(playerIdx + i, size()));
+      p.actOnAllWith(s -> s.hasTrait(TraitName.SCAVENGER), idx -> p.feedSpecies(idx, wh));
+    }
   }
 
   /**
@@ -227,6 +246,16 @@ public class PlayerList extends EvoList<EvoPlayer> {
   }
 
 
+  /**
+   * Creates a reusable, non-copying view of this {@link PlayerList} that can be rotated so that
+   * any player is last (see {@link PlayerRotation})
+   *
+   * @return a new {@link PlayerRotation} backed by this list
+   */
+  public PlayerRotation rotation() {
+    return new PlayerRotation(contents);
+  }
+
   @Override
   public PlayerList makeCopy() {
     PlayerList result = new PlayerList();
@@ -257,9 +286,21 @@ public class PlayerList extends EvoList<EvoPlayer> {
   }
 
   public static PlayerList fromExternalPlayers(List<ExternalPlayer> players) {
+    return fromExternalPlayers(players, QueryService.shared());
+  }
+
+  /**
+   * Creates a {@link PlayerList} of new {@link EvoPlayer}s for the given {@link ExternalPlayer}s,
+   * with ids starting at 1, whose queries run on the given {@link QueryService}
+   *
+   * @param players the {@link ExternalPlayer}s to create players for
+   * @param queries the {@link QueryService} to query the players with
+   * @return the new {@link PlayerList}
+   */
+  public static PlayerList fromExternalPlayers(List<ExternalPlayer> players, QueryService queries) {
     PlayerList result = new PlayerList();
     for (int i = 0; i < players.size(); i++)
-      result.add(EvoPlayer.builder().id(i + 1).external(players.get(i)).build());
+      result.add(EvoPlayer.builder().id(i + 1).external(players.get(i)).queries(queries).build());
     return result;
   }
 
@@ -277,19 +318,14 @@ public class PlayerList extends EvoList<EvoPlayer> {
     return true;
   }
 
-  public static JsonDeserializer deserializer() { return new PlayerListDeserializer(); }
-  private static class PlayerListDeserializer implements JsonDeserializer<PlayerList> {
+  public static TypeAdapter<PlayerList> adapter() { return ADAPTER; }
+  private static final TypeAdapter<PlayerList> ADAPTER = new PlayerListAdapter().nullSafe();
+
+  private static class PlayerListAdapter extends EvoListAdapter<EvoPlayer, PlayerList> {
+    private PlayerListAdapter() { super(EvoPlayer.adapter()); }
+
     @Override
-    public PlayerList deserialize(JsonElement jsonElement, Type type,
-                                  JsonDeserializationContext jsonDeserializationContext)
-            throws JsonParseException {
-      JsonArray jsonList = jsonElement.getAsJsonArray();
-      PlayerList result = new PlayerList();
-      for (JsonElement je : jsonList)
-        result.add(JFactory.fromJson(je.getAsJsonArray(), EvoPlayer.class));
-      if (!result.isValid()) throw new JsonParseException("Invalid PlayerList: " + result.toString());
-      else return result;
-    }
+    PlayerList newList() { return new PlayerList(); }
   }
 
   @Override
@@ -0,0 +1,89 @@
+package evo.game.list;
+
+import evo.game.EvoPlayer;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * A read-only, cyclic view of a {@link PlayerList}, rotated so that one player (the focus) is
+ * last. The views never copy the underlying list: refocusing only changes an offset, so the same
+ * {@link PlayerRotation} can be reused for every step of a feeding round without allocating.
+ *
+ * The views reflect the underlying list as it is when they are read, so a rotation must be
+ * refocused after a player is removed from the underlying list.
+ */
+public final class PlayerRotation {
+  private final List<EvoPlayer> base;
+  private final PlayerList allPlayers;
+  private final PlayerList otherPlayers;
+  private final List<SpeciesList> otherBoards;
+  private int offset;
+
+  PlayerRotation(List<EvoPlayer> base) {
+    this.base = base;
+    this.allPlayers = new PlayerList(new RotatedView(0));
+    this.otherPlayers = new PlayerList(new RotatedView(1));
+    this.otherBoards = new BoardsView();
+  }
+
+  /**
+   * Effect: rotates the views so that the given {@link EvoPlayer} is the last element of
+   *         {@link #allPlayers()}, and the players after it come first
+   *
+   * @param player the {@link EvoPlayer} to move to the end
+   */
+  public void focus(EvoPlayer player) {
+    int idx = base.indexOf(player);
+    if (idx == -1) throw new IllegalArgumentException("Player is not in the list");
+    offset = idx + 1;
+  }
+
+  /**
+   * Gets every player, rotated so that the focused player is last. Equivalent to
+   * {@link PlayerList#thisPlayerLast(EvoPlayer)}, without the copy.
+   */
+  public PlayerList allPlayers() { return allPlayers; }
+
+  /**
+   * Gets every player except the focused one, starting with the player after it. Equivalent to
+   * {@code thisPlayerLast(player).removeLast()}, without the copies.
+   */
+  public PlayerList otherPlayers() { return otherPlayers; }
+
+  /**
+   * Gets the {@link SpeciesList} of each player in {@link #otherPlayers()}, in the same order.
+   * Equivalent to {@link PlayerList#getAllBoards()} on the other players, without the copy.
+   */
+  public List<SpeciesList> otherBoards() { return otherBoards; }
+
+  private EvoPlayer rotatedGet(int idx) {
+    return base.get((offset + idx) % base.size());
+  }
+
+  private class RotatedView extends AbstractList<EvoPlayer> implements RandomAccess {
+    private final int omitted;
+
+    private RotatedView(int omitted) {
+      this.omitted = omitted;
+    }
+
+    @Override
+    public EvoPlayer get(int idx) {
+      if (idx < 0 || idx >= size()) throw new IndexOutOfBoundsException("Index: " + idx);
+      return rotatedGet(idx);
+    }
+
+    @Override
+    public int size() { return Math.max(0, base.size() - omitted); }
+  }
+
+  private class BoardsView extends AbstractList<SpeciesList> implements RandomAccess {
+    @Override
+    public SpeciesList get(int idx) { return otherPlayers.get(idx).getBoards(); }
+
+    @Override
+    public int size() { return otherPlayers.size(); }
+  }
+}
@@ -1,11 +1,9 @@
 package evo.game.list;
 
-import com.google.gson.*;
+import com.google.gson.TypeAdapter;
 import evo.game.SpeciesBoard;
 import evo.game.Utils;
-import evo.json.JFactory;
 
-import java.lang.reflect.Type;
 import java.util.*;
 import java.util.function.Predicate;
 
@@ -132,19 +130,13 @@ public class SpeciesList extends EvoList<SpeciesBoard> {
    * A Boards is [Species+,...,Species+].
    */
 
-  public static JsonDeserializer deserializer() { return new SpeciesListDeserializer(); }
+  public static TypeAdapter<SpeciesList> adapter() { return ADAPTER; }
+  private static final TypeAdapter<SpeciesList> ADAPTER = new SpeciesListAdapter().nullSafe();
+
+  private static class SpeciesListAdapter extends EvoListAdapter<SpeciesBoard, SpeciesList> {
+    private SpeciesListAdapter() { super(SpeciesBoard.adapter()); }
 
-  private static class SpeciesListDeserializer implements JsonDeserializer<SpeciesList> {
     @Override
-    public SpeciesList deserialize(JsonElement jsonElement, Type type,
-                                   JsonDeserializationContext jsonDeserializationContext)
-            throws JsonParseException {
-      JsonArray jsonList = jsonElement.getAsJsonArray();
-      SpeciesList result = new SpeciesList();
-      for (JsonElement j : jsonList)
-        result.add(JFactory.fromJson(j, SpeciesBoard.class));
-      if (!result.isValid()) throw new JsonParseException("Invalid SpeciesList: " + result.toString());
-      else return result;
-    }
+    SpeciesList newList() { return new SpeciesList(); }
   }
 }
@@ -18,45 +18,28 @@ import java.util.Optional;
 
 /**
  * Created by jackfriedson on 4/23/16.
+ *
+ * Every element of the game is (de)serialized by a streaming {@link com.google.gson.TypeAdapter}
+ * that reads and writes tokens directly, so no intermediate {@link JsonElement} tree is built
+ * unless one is explicitly asked for.
  */
 public class JFactory {
   private static final Gson gson = new GsonBuilder()
-          .registerTypeAdapter(SpeciesBoard.class, SpeciesBoard.serializer())
-          .registerTypeAdapter(SpeciesBoard.class, SpeciesBoard.deserializer())
-          .registerTypeAdapter(SpeciesList.class, SpeciesList.serializer())
-          .registerTypeAdapter(SpeciesList.class, SpeciesList.deserializer())
-          .registerTypeAdapter(TraitName.class, TraitName.serializer())
-          .registerTypeAdapter(TraitCard.class, TraitCard.serializer())
-          .registerTypeAdapter(TraitCard.class, TraitCard.deserializer())
-          .registerTypeAdapter(CardList.class, CardList.serializer())
-          .registerTypeAdapter(CardList.class, CardList.deserializer())
-          .registerTypeAdapter(BasePlayer.class, BasePlayer.serializer())
-          .registerTypeAdapter(BasePlayer.class, BasePlayer.deserializer())
-          .registerTypeAdapter(EvoPlayer.class, EvoPlayer.serializer())
-          .registerTypeAdapter(EvoPlayer.class, EvoPlayer.deserializer())
-          .registerTypeAdapter(PlayerList.class, PlayerList.serializer())
-          .registerTypeAdapter(PlayerList.class, PlayerList.deserializer())
-          .registerTypeAdapter(FeedResponse.class, FeedResponse.deserializer())
-          .registerTypeAdapter(FeedNothing.class, FeedNothing.serializer())
-          .registerTypeAdapter(FeedNothing.class, FeedNothing.deserializer())
-          .registerTypeAdapter(FeedVeg.class, FeedVeg.serializer())
-          .registerTypeAdapter(FeedVeg.class, FeedVeg.deserializer())
-          .registerTypeAdapter(FeedFat.class, FeedFat.serializer())
-          .registerTypeAdapter(FeedFat.class, FeedFat.deserializer())
-          .registerTypeAdapter(FeedCarn.class, FeedCarn.serializer())
-          .registerTypeAdapter(FeedCarn.class, FeedCarn.deserializer())
-          .registerTypeAdapter(Action4.class, Action4.serializer())
-          .registerTypeAdapter(Action4.class, Action4.deserializer())
-          .registerTypeAdapter(GrowPop.class, GrowPop.serializer())
-          .registerTypeAdapter(GrowPop.class, GrowPop.deserializer())
-          .registerTypeAdapter(GrowBody.class, GrowBody.serializer())
-          .registerTypeAdapter(GrowBody.class, GrowBody.deserializer())
-          .registerTypeAdapter(BoardTrade.class, BoardTrade.serializer())
-          .registerTypeAdapter(BoardTrade.class, BoardTrade.deserializer())
-          .registerTypeAdapter(ReplaceTrait.class, ReplaceTrait.serializer())
-          .registerTypeAdapter(ReplaceTrait.class, ReplaceTrait.deserializer())
-          .registerTypeAdapter(Dealer.class, Dealer.serializer())
-          .registerTypeAdapter(Dealer.class, Dealer.deserializer())
+          .registerTypeAdapter(SpeciesBoard.class, SpeciesBoard.adapter())
+          .registerTypeAdapter(SpeciesList.class, SpeciesList.adapter())
+          .registerTypeAdapter(TraitName.class, TraitName.adapter())
+          .registerTypeAdapter(TraitCard.class, TraitCard.adapter())
+          .registerTypeAdapter(CardList.class, CardList.adapter())
+          .registerTypeAdapter(BasePlayer.class, BasePlayer.adapter())
+          .registerTypeAdapter(EvoPlayer.class, EvoPlayer.adapter())
+          .registerTypeAdapter(PlayerList.class, PlayerList.adapter())
+          .registerTypeHierarchyAdapter(FeedResponse.class, FeedResponse.adapter())
+          .registerTypeAdapter(Action4.class, Action4.adapter())
+          .registerTypeAdapter(GrowPop.class, GrowPop.adapter())
+          .registerTypeAdapter(GrowBody.class, GrowBody.adapter())
+          .registerTypeAdapter(BoardTrade.class, BoardTrade.adapter())
+          .registerTypeAdapter(ReplaceTrait.class, ReplaceTrait.adapter())
+          .registerTypeAdapter(Dealer.class, Dealer.adapter())
           .setPrettyPrinting()
           .create();
 
@@ -11,9 +11,8 @@ import java.io.IOException;
 public interface JSerializable {
 
   /**
-   * Note: All JSerializable classes also implement the static method serialize() and most
-   *       implement the static method deserialize(), which return the specific serializer and
-   *       deserializer for that class.
+   * Note: All JSerializable classes also implement the static method adapter(), which returns
+   *       the streaming TypeAdapter that reads and writes that class (registered in JFactory).
    */
 
   /**
@@ -1,9 +1,6 @@
 package evo.json;
 
-import com.google.gson.JsonArray;
-import com.google.gson.JsonElement;
 import com.google.gson.JsonParseException;
-import com.google.gson.JsonPrimitive;
 import com.google.gson.stream.JsonReader;
 import com.google.gson.stream.JsonWriter;
 import evo.game.BasePlayer;
@@ -20,20 +17,43 @@ import java.util.List;
 public class JUtils {
 
   public static void writeIntField(JsonWriter writer, String name, int val) throws IOException {
-    writer.beginArray();
-    writer.value(name);
+    beginField(writer, name);
     writer.value(val);
     writer.endArray();
   }
 
   public static int readIntField(JsonReader reader, String expected) throws IOException {
+    beginField(reader, expected);
+    int val = reader.nextInt();
+    reader.endArray();
+    return val;
+  }
+
+  /**
+   * Effect: writes the start of a [name, value] field, leaving the writer ready for the value.
+   *         The field must be closed with {@link JsonWriter#endArray()}.
+   *
+   * @param writer the {@link JsonWriter} to write to
+   * @param name the name of the field
+   */
+  public static void beginField(JsonWriter writer, String name) throws IOException {
+    writer.beginArray();
+    writer.value(name);
+  }
+
+  /**
+   * Effect: reads the start of a [name, value] field, leaving the reader at the value. The field
+   *         must be closed with {@link JsonReader#endArray()}.
+   *
+   * @param reader the {@link JsonReader} to read from
+   * @param expected the expected name of the field
+   * @throws JsonParseException if the field has a different name
+   */
+  public static void beginField(JsonReader reader, String expected) throws IOException {
     reader.beginArray();
     String actual = reader.nextString();
     if (!actual.equals(expected))
       throw new JsonParseException("Expected: " + expected + " Actual: " + actual);
-    int val = reader.nextInt();
-    reader.endArray();
-    return val;
   }
 
   /**
@@ -48,56 +68,21 @@ public class JUtils {
       if (i < 0) throw new JsonParseException("Natural numbers cannot be negative");
       else return i;
     }  catch (IOException io) {
-      throw new JsonParseException("Could not parse nat: " + io.getMessage());
+      throw new JsonParseException("Could not parse nat: " + io.getMessage(), io);
     }
   }
 
-  public static JsonArray getArrayFromField(JsonArray jArray, String expected, int idx) {
-    JsonArray field = jArray.get(idx).getAsJsonArray();
-    String name = field.get(0).getAsString();
-    JsonArray value = field.get(1).getAsJsonArray();
-    if (!name.equals(expected)) throw new JsonParseException("Field name was: " + name +
-            " but expected: " + expected);
-    return value;
-  }
-
-  public static int getIntFromField(JsonArray jArray, String expected, int idx) {
-    JsonArray field = jArray.get(idx).getAsJsonArray();
-    String name = field.get(0).getAsString();
-    int value = field.get(1).getAsInt();
-    if (!name.equals(expected)) throw new JsonParseException("Field name was: " + name +
-            " but expected: " + expected);
-    return value;
-  }
-
-  public static JsonArray makeIntField(String name, int value) {
-    JsonArray result = new JsonArray();
-    result.add(name);
-    result.add(new JsonPrimitive(value));
-    return result;
-  }
-
-  public static JsonArray makeListField(String name, Iterable<? extends JSerializable> values) {
-    JsonArray result = new JsonArray();
-    result.add(name);
-    result.add(listToJArray(values));
-    return result;
-  }
-
-  public static JsonArray makeJsonField(String name, JsonElement value) {
-    JsonArray result = new JsonArray();
-    result.add(name);
-    result.add(value);
-    return result;
-  }
-
-  public static JsonArray listToJArray(Iterable<? extends JSerializable> values) {
-    JsonArray result = new JsonArray();
-    values.forEach(s -> result.add(s.toJson()));
-    return result;
+  public static void writeStartMsg(JsonWriter writer, int wh, BasePlayer player)
+          throws IOException {
+    writeStart(writer, wh, player);
+    writer.flush();
   }
 
-  public static void writeStartMsg(JsonWriter writer, int wh, BasePlayer player)
+  /**
+   * Same as {@link #writeStartMsg(JsonWriter, int, BasePlayer)}, but leaves the message in the
+   * writer's buffer, to be sent by the next flush
+   */
+  public static void writeStart(JsonWriter writer, int wh, BasePlayer player)
           throws IOException {
     writer.beginArray();
     writer.value(wh);
@@ -105,7 +90,6 @@ public class JUtils {
     writeList(writer, player.getBoards());
     writeList(writer, player.getHand());
     writer.endArray();
-    writer.flush();
   }
 
   public static void writeChooseMsg
@@ -0,0 +1,99 @@
+package evo.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A histogram of non-negative values (e.g. latencies in nanoseconds) that can be recorded from any
+ * thread without locking, in the style of an HDR histogram: values are counted in a fixed set of
+ * buckets whose width grows with the value, so that every value is known to within 1/16 of itself
+ * (about 6%), from 0 up to {@link Long#MAX_VALUE}, in a few kilobytes.
+ *
+ * The buckets are laid out in runs of {@link #SUB_BUCKETS}: the first two runs hold the values 0
+ * to 31 exactly, and every run after that covers twice the range of the one before it with buckets
+ * twice as wide. Recording a value is a few bit operations and atomic increments.
+ *
+ * The statistics are read without stopping the writers, so a value recorded while they are being
+ * read may be counted in some of them and not in others.
+ */
+public final class Histogram {
+  private static final int SUB_BUCKET_BITS = 4;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  private static final int NUM_BUCKETS = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+  private final AtomicLongArray counts = new AtomicLongArray(NUM_BUCKETS);
+  private final LongAdder count = new LongAdder();
+  private final LongAdder sum = new LongAdder();
+  private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+  /**
+   * Effect: records the given value (negative values are recorded as 0)
+   */
+  public void record(long value) {
+    long v = Math.max(0, value);
+    counts.incrementAndGet(bucketOf(v));
+    count.increment();
+    sum.add(v);
+    max.accumulate(v);
+  }
+
+  /**
+   * Gets the bucket that counts the given value: the values whose highest
+   * {@link #SUB_BUCKET_BITS} + 1 bits are the same share a bucket
+   */
+  private static int bucketOf(long value) {
+    int shift = Math.max(0, Long.SIZE - 1 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS);
+    return (shift << SUB_BUCKET_BITS) + (int) (value >>> shift);
+  }
+
+  /**
+   * Gets the highest value counted by the given bucket
+   */
+  private static long highestValueIn(int bucket) {
+    int shift = (bucket >>> SUB_BUCKET_BITS) - 1;
+    if (shift <= 0) return bucket;
+    long mantissa = bucket - ((long) shift << SUB_BUCKET_BITS);
+    return ((mantissa + 1) << shift) - 1;
+  }
+
+  /**
+   * Gets the value that the given percentage of the recorded values are at or below, rounded up
+   * to the highest value of its bucket (but never above the maximum recorded value)
+   *
+   * @param percentile the percentage, between 0 and 100
+   * @return the value, or 0 if nothing has been recorded
+   */
+  public long getValueAtPercentile(double percentile) {
+    if (percentile < 0 || percentile > 100)
+      throw new IllegalArgumentException("Percentile must be between 0 and 100");
+    long total = getCount();
+    if (total == 0) return 0;
+
+    long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+    long seen = 0;
+    for (int b = 0; b < NUM_BUCKETS; b++) {
+      seen += counts.get(b);
+      if (seen >= rank) return Math.min(highestValueIn(b), getMax());
+    }
+    return getMax();
+  }
+
+  /**
+   * Gets the mean of the recorded values, or 0 if nothing has been recorded
+   */
+  public double getMean() {
+    long total = getCount();
+    return total == 0 ? 0 : sum.sum() / (double) total;
+  }
+
+  /******************
+   * Getter methods *
+   ******************/
+  public long getCount() {
+    return count.sum();
+  }
+  public long getMax() {
+    return max.get();
+  }
+}
@@ -0,0 +1,99 @@
+package evo.metrics;
+
+import evo.game.Dealer;
+import evo.game.GameObserver;
+import evo.game.feed.FeedResponse;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A {@link GameObserver} that keeps counts and {@link Histogram}s of what happens in the games it
+ * observes, in memory: how long turns take, how many feed steps make up a feeding round, how many
+ * players are fed automatically rather than queried, how long players take to respond, and how
+ * many are kicked. One instance can observe any number of games, on any number of threads.
+ */
+public final class InMemoryMetrics implements GameObserver {
+  private final LongAdder gamesStarted = new LongAdder();
+  private final LongAdder gamesEnded = new LongAdder();
+  private final LongAdder autoFeeds = new LongAdder();
+  private final LongAdder queriedFeeds = new LongAdder();
+  private final LongAdder kicks = new LongAdder();
+  private final Histogram turnTimes = new Histogram();
+  private final Histogram feedSteps = new Histogram();
+  private final Histogram responseTimes = new Histogram();
+
+  @Override
+  public void gameStarted(Dealer dealer) { gamesStarted.increment(); }
+
+  @Override
+  public void gameEnded(int numPlayers) { gamesEnded.increment(); }
+
+  @Override
+  public void turnEnded(long nanos) { turnTimes.record(nanos); }
+
+  @Override
+  public void feedRoundEnded(int steps) { feedSteps.record(steps); }
+
+  @Override
+  public void playerAutoFed(int playerId) { autoFeeds.increment(); }
+
+  @Override
+  public void playerAnswered(int playerId, FeedResponse response) { queriedFeeds.increment(); }
+
+  @Override
+  public void playerResponded(int playerId, long nanos) { responseTimes.record(nanos); }
+
+  @Override
+  public void playerKicked(int playerId, String reason) { kicks.increment(); }
+
+  /******************
+   * Getter methods *
+   ******************/
+  public long getGamesStarted() {
+    return gamesStarted.sum();
+  }
+  public long getGamesEnded() {
+    return gamesEnded.sum();
+  }
+  public long getAutoFeeds() {
+    return autoFeeds.sum();
+  }
+  public long getQueriedFeeds() {
+    return queriedFeeds.sum();
+  }
+  public long getKicks() {
+    return kicks.sum();
+  }
+  public Histogram getTurnTimes() {
+    return turnTimes;
+  }
+  public Histogram getFeedSteps() {
+    return feedSteps;
+  }
+  public Histogram getResponseTimes() {
+    return responseTimes;
+  }
+
+  /**
+   * Formats the given histogram of times in nanoseconds as its percentiles, in milliseconds
+   */
+  private static String times(Histogram h) {
+    double ms = TimeUnit.MILLISECONDS.toNanos(1);
+    return String.format("p50 %.3f ms, p90 %.3f ms, p99 %.3f ms, max %.3f ms (%d)",
+            h.getValueAtPercentile(50) / ms, h.getValueAtPercentile(90) / ms,
+            h.getValueAtPercentile(99) / ms, h.getMax() / ms, h.getCount());
+  }
+
+  @Override
+  public String toString() {
+    return String.format("Games: %d started, %d ended, %d players kicked\n",
+            getGamesStarted(), getGamesEnded(), getKicks())
+            + "Turn time: " + times(turnTimes) + "\n"
+            + String.format("Feed steps per round: mean %.1f, p50 %d, p99 %d, max %d\n",
+            feedSteps.getMean(), feedSteps.getValueAtPercentile(50),
+            feedSteps.getValueAtPercentile(99), feedSteps.getMax())
+            + String.format("Feeds: %d automatic, %d queried\n", getAutoFeeds(), getQueriedFeeds())
+            + "Response time: " + times(responseTimes) + "\n";
+  }
+}
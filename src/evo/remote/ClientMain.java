@@ -11,12 +11,14 @@ public class ClientMain {
   public static void main(String args[]) {
     String host = Constants.DEFAULT_HOST;
     int port = Constants.DEFAULT_PORT;
+    Protocol protocol = Protocol.JSON;
 
     if (args.length > 0) host = args[0];
     if (args.length > 1) port = Integer.valueOf(args[1]);
     if (port < 0 || port > Constants.MAX_PORT) throw new IllegalArgumentException("Invalid port number");
+    if (args.length > 2) protocol = Protocol.fromString(args[2]);
 
-    ProxyDealer proxy = new ProxyDealer(new SillyPlayer(), host, port);
+    ProxyDealer proxy = new ProxyDealer(new SillyPlayer(), host, port, protocol);
     proxy.play();
   }
 }
\ No newline at end of file
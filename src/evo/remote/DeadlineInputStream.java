@@ -0,0 +1,94 @@
+package evo.remote;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The input stream of a socket, which enforces a deadline on reading a whole response: while the
+ * deadline is armed, every read from the socket waits at most for the time left until the deadline,
+ * using the socket's read timeout, so no other thread is needed to watch the clock. The number of
+ * bytes that can be read before the deadline can be limited as well (e.g. for a sign-up).
+ */
+class DeadlineInputStream extends FilterInputStream {
+  private final Socket socket;
+  private boolean armed = false;
+  private long deadline;
+  private int bytesLeft = -1;
+
+  DeadlineInputStream(Socket socket) throws IOException {
+    super(socket.getInputStream());
+    this.socket = socket;
+  }
+
+  /**
+   * Effect: sets the deadline to the given time from now
+   */
+  void arm(long timeout, TimeUnit unit) {
+    this.deadline = System.nanoTime() + unit.toNanos(timeout);
+    this.armed = true;
+  }
+
+  /**
+   * Effect: sets the deadline to the given time from now, and limits the number of bytes that can
+   *         be read until it is removed to the given number; reading more fails
+   */
+  void arm(long timeout, TimeUnit unit, int maxBytes) {
+    arm(timeout, unit);
+    this.bytesLeft = maxBytes;
+  }
+
+  /**
+   * Effect: removes the deadline and any limit, so that reads wait for as long as it takes
+   */
+  void disarm() {
+    this.armed = false;
+    this.bytesLeft = -1;
+  }
+
+  @Override
+  public int read() throws IOException {
+    setReadTimeout();
+    checkLimit();
+    int b = super.read();
+    if (b >= 0 && bytesLeft > 0) bytesLeft--;
+    return b;
+  }
+
+  @Override
+  public int read(byte[] b, int off, int len) throws IOException {
+    setReadTimeout();
+    checkLimit();
+    if (bytesLeft >= 0) len = Math.min(len, bytesLeft);
+    int n = super.read(b, off, len);
+    if (n > 0 && bytesLeft > 0) bytesLeft -= n;
+    return n;
+  }
+
+  /**
+   * Effect: fails if the limit on the number of bytes read has been reached
+   *
+   * @throws IOException if no more bytes can be read
+   */
+  private void checkLimit() throws IOException {
+    if (bytesLeft == 0) throw new IOException("Message is too long");
+  }
+
+  /**
+   * Effect: sets the socket's read timeout to the time left until the deadline, if there is one
+   *
+   * @throws SocketTimeoutException if the deadline has already passed
+   */
+  private void setReadTimeout() throws IOException {
+    if (!armed) {
+      socket.setSoTimeout(0);
+      return;
+    }
+
+    long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+    if (remaining <= 0) throw new SocketTimeoutException("Deadline passed");
+    socket.setSoTimeout((int) Math.min(remaining, Integer.MAX_VALUE));
+  }
+}
@@ -0,0 +1,105 @@
+package evo.remote;
+
+import evo.binary.BinaryCodec;
+
+import java.io.*;
+import java.net.ProtocolException;
+
+/**
+ * A connection carrying the frames of the {@link Protocol#BINARY} protocol. A frame is a varint
+ * length followed by that many bytes: a {@link Type} byte and then the message, as written by
+ * {@link BinaryCodec}. Outgoing frames are assembled in a reused buffer so that each one goes out
+ * in a single flush, and incoming frames are read whole before they are decoded.
+ */
+class FrameChannel {
+  private static final int MAX_FRAME_SIZE = 1 << 16;
+
+  enum Type {
+    OK,
+    START,
+    CHOOSE,
+    FEED_NEXT,
+    ACTION4,
+    FEED_RESPONSE,
+    FEED_DELTA
+  }
+
+  private final DataInputStream in;
+  private final DataOutputStream out;
+  private final ByteArrayOutputStream frame = new ByteArrayOutputStream();
+  private final DataOutputStream payload = new DataOutputStream(frame);
+  private byte[] received = new byte[MAX_FRAME_SIZE];
+  private DataInputStream receivedPayload;
+
+  FrameChannel(InputStream in, OutputStream out) {
+    this.in = new DataInputStream(new BufferedInputStream(in));
+    this.out = new DataOutputStream(new BufferedOutputStream(out));
+  }
+
+  /**
+   * Effect: starts a new outgoing frame of the given type, discarding any unsent one
+   *
+   * @param type the {@link Type} of the frame
+   * @return the {@link DataOutput} to write the message to
+   */
+  DataOutput begin(Type type) throws IOException {
+    frame.reset();
+    payload.writeByte(type.ordinal());
+    return payload;
+  }
+
+  /**
+   * Effect: sends the frame started by {@link #begin(Type)}, along with any queued ones
+   */
+  void send() throws IOException {
+    queue();
+    out.flush();
+  }
+
+  /**
+   * Effect: queues the frame started by {@link #begin(Type)}, to be sent by the next
+   *         {@link #send()}
+   */
+  void queue() throws IOException {
+    BinaryCodec.writeVarint(out, frame.size());
+    frame.writeTo(out);
+  }
+
+  /**
+   * Effect: reads the next frame, whose message is then available from {@link #payload()}
+   *
+   * @return the {@link Type} of the frame
+   * @throws EOFException if the other side closed the connection
+   * @throws ProtocolException if the frame is malformed
+   */
+  Type receive() throws IOException {
+    int size = BinaryCodec.readVarint(in);
+    if (size < 1 || size > MAX_FRAME_SIZE) throw new ProtocolException("Bad frame size: " + size);
+    in.readFully(received, 0, size);
+
+    int type = received[0];
+    if (type < 0 || type >= Type.values().length)
+      throw new ProtocolException("Unknown frame type: " + type);
+    receivedPayload = new DataInputStream(new ByteArrayInputStream(received, 1, size - 1));
+    return Type.values()[type];
+  }
+
+  /**
+   * Effect: reads the next frame, which must be of the given type
+   *
+   * @param expected the {@link Type} the frame must have
+   * @return the {@link DataInput} to read the message from
+   * @throws ProtocolException if the frame has another type
+   */
+  DataInput receive(Type expected) throws IOException {
+    Type actual = receive();
+    if (actual != expected)
+      throw new ProtocolException("Expected: " + expected + " Actual: " + actual);
+    return receivedPayload;
+  }
+
+  /**
+   * Gets the message of the last frame received
+   */
+  DataInput payload() { return receivedPayload; }
+}
@@ -0,0 +1,419 @@
+package evo.remote;
+
+import com.google.gson.stream.JsonReader;
+import evo.Constants;
+import evo.game.*;
+import evo.metrics.InMemoryMetrics;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A server that keeps accepting clients and runs any number of games side by side. Signed-up
+ * players are grouped into games by a {@link Matchmaker}, and every game gets its own
+ * {@link Dealer} and plays on the game executor. In keep-alive mode, the players still in a game
+ * when it ends go back into the matchmaking queue instead of being disconnected.
+ *
+ * By default, a single thread accepts connections and reads their sign-up messages through a
+ * {@link Selector}, so a client that is slow to sign up (or never does) holds no thread, and is
+ * dropped once {@link Constants#MAX_RESPONSE_TIME} has passed. The connections of signed-up
+ * players are then switched back to blocking I/O for the game.
+ *
+ * In thread-per-connection mode, every client instead signs up on its own thread (a virtual
+ * thread, where the runtime supports them) with plain blocking I/O, and its game queries it
+ * inline (or, when every player is asked at once, on a thread per player):
+ * {@link ProxyPlayer}s enforce the response deadline with socket read timeouts, so no decision
+ * has to be timed by another thread.
+ */
+public class GameServer {
+  private static final long SIGNUP_TIMEOUT =
+          Constants.TIME_UNIT.toNanos(Constants.MAX_RESPONSE_TIME);
+
+  private final int port;
+  private final boolean threadPerConnection;
+  private final boolean keepAlive;
+  private final ExecutorService games;
+  private final QueryService queries;
+  private final Matchmaker<ProxyPlayer> matchmaker;
+  private final Optional<GameJournal> journal;
+  private final InMemoryMetrics gameMetrics = new InMemoryMetrics();
+
+  private final Deque<SelectionKey> pending = new ArrayDeque<>();
+  private final List<SelectionKey> signedUp = new ArrayList<>();
+
+  private GameServer(int port, boolean threadPerConnection, boolean keepAlive,
+                     ExecutorService games, QueryService queries, long latencyBudget,
+                     TimeUnit budgetUnit, Optional<GameJournal> journal) {
+    this.port = port;
+    this.threadPerConnection = threadPerConnection;
+    this.keepAlive = keepAlive;
+    this.games = games;
+    this.queries = queries;
+    this.matchmaker = new Matchmaker<>(latencyBudget, budgetUnit, this::startGame);
+    this.journal = journal;
+  }
+
+  /**
+   * Gets the metrics of this server's matchmaking queue, which are updated as games start
+   */
+  public MatchmakingMetrics getMetrics() { return matchmaker.getMetrics(); }
+
+  /**
+   * Gets the metrics of every game this server has played, which are updated as games are played
+   */
+  public InMemoryMetrics getGameMetrics() { return gameMetrics; }
+
+  /**
+   * Effect: accepts clients on this server's port and starts games for them, until the server
+   *         fails
+   *
+   * @throws IOException if the server cannot listen on its port
+   */
+  public void serve() throws IOException {
+    if (threadPerConnection) serveThreads();
+    else serveSelector();
+  }
+
+  /**
+   * Effect: accepts clients with a blocking server socket, and signs each one up on its own thread
+   */
+  private void serveThreads() throws IOException {
+    ExecutorService connections = ThreadPools.newPerTaskExecutor("evo-connection");
+    try (ServerSocket server = new ServerSocket(port)) {
+      while (true) {
+        Socket client = server.accept();
+        connections.execute(() -> signUp(client));
+      }
+    }
+    finally { connections.shutdown(); }
+  }
+
+  /**
+   * Effect: reads the sign-up message of the given client on the calling thread, and adds the
+   *         client to the matchmaking queue if it signs up in time
+   */
+  private void signUp(Socket client) {
+    try {
+      ProxyPlayer proxy = new ProxyPlayer(client);
+      if (proxy.readSignup() && proxy.sendOK()) enqueue(proxy);
+      else client.close();
+    }
+    catch (IOException e) {
+      try { client.close(); }
+      catch (IOException ce) { System.out.println("Could not close client socket"); }
+    }
+  }
+
+  /**
+   * Effect: accepts clients and reads their sign-up messages on the calling thread, through a
+   *         {@link Selector}
+   */
+  private void serveSelector() throws IOException {
+    try (Selector selector = Selector.open();
+         ServerSocketChannel server = ServerSocketChannel.open()) {
+      server.bind(new InetSocketAddress(port));
+      server.configureBlocking(false);
+      server.register(selector, SelectionKey.OP_ACCEPT);
+
+      while (true) {
+        selector.select(millisUntilNextDeadline());
+
+        Iterator<SelectionKey> selected = selector.selectedKeys().iterator();
+        while (selected.hasNext()) {
+          SelectionKey key = selected.next();
+          selected.remove();
+          if (!key.isValid()) continue;
+          if (key.isAcceptable()) accept(server, selector);
+          else if (key.isReadable()) readSignup(key);
+        }
+
+        if (!signedUp.isEmpty()) {
+          selector.selectNow();
+          for (SelectionKey key : signedUp) join(key);
+          signedUp.clear();
+        }
+
+        dropExpiredSignups();
+      }
+    }
+  }
+
+  /**
+   * Effect: accepts every pending connection, and waits (without blocking) for its sign-up
+   */
+  private void accept(ServerSocketChannel server, Selector selector) throws IOException {
+    SocketChannel client;
+    while ((client = server.accept()) != null) {
+      client.configureBlocking(false);
+      pending.add(client.register(selector, SelectionKey.OP_READ, new PendingSignUp()));
+    }
+  }
+
+  /**
+   * Effect: reads whatever the client has sent of its sign-up message. Once the message is
+   *         complete, the client is set aside to join the queue; if the client closed the
+   *         connection or sent something other than a sign-up, it is dropped.
+   */
+  private void readSignup(SelectionKey key) {
+    SocketChannel client = (SocketChannel) key.channel();
+    PendingSignUp signup = (PendingSignUp) key.attachment();
+    try {
+      if (client.read(signup.buffer) < 0) throw new IOException("Connection closed");
+      if (signup.isComplete()) {
+        key.cancel();
+        signedUp.add(key);
+      }
+    }
+    catch (IOException | IllegalArgumentException e) { close(key); }
+  }
+
+  /**
+   * Effect: acknowledges the sign-up read on the given key and adds its client to the
+   *         matchmaking queue
+   */
+  private void join(SelectionKey key) {
+    SocketChannel client = (SocketChannel) key.channel();
+    try {
+      client.configureBlocking(true);
+      ProxyPlayer proxy = new ProxyPlayer(client.socket(),
+              ((PendingSignUp) key.attachment()).parse());
+      if (!proxy.sendOK()) throw new IOException("Could not acknowledge sign-up");
+      enqueue(proxy);
+    }
+    catch (IOException | IllegalArgumentException | IllegalStateException e) { close(key); }
+  }
+
+  /**
+   * Effect: adds a signed-up player to the matchmaking queue
+   */
+  private void enqueue(ProxyPlayer proxy) {
+    proxy.setKeepAlive(keepAlive);
+    matchmaker.enqueue(proxy);
+  }
+
+  /**
+   * Effect: starts playing a game between the given players on the game executor
+   */
+  private void startGame(int gameId, List<ProxyPlayer> roster) {
+    System.out.println("Starting game " + gameId + " with " + roster.size() + " players ("
+            + matchmaker.getMetrics() + ")");
+    games.execute(() -> playGame(gameId, roster));
+  }
+
+  /**
+   * Effect: plays a game between the given players and prints its results. The players who were
+   *         kicked from the game are disconnected, and in keep-alive mode the others go back into
+   *         the matchmaking queue.
+   */
+  private void playGame(int gameId, List<ProxyPlayer> roster) {
+    List<PlayerScore> rankings;
+    GameObserver observer = journal
+            .map(j -> GameObserver.all(gameMetrics, j.recorder()))
+            .orElse(gameMetrics);
+    try {
+      rankings = Dealer.builder().players(Collections.unmodifiableList(roster), queries).quiet()
+              .pipelined(true).observer(observer).build().playGame();
+    }
+    catch (RuntimeException e) {
+      System.out.println("Game " + gameId + " failed: " + e.getMessage());
+      roster.forEach(ProxyPlayer::disconnect);
+      return;
+    }
+
+    if (journal.isPresent()) {
+      try { journal.get().flush(); }
+      catch (IOException e) {
+        System.out.println("Could not write game " + gameId + " to journal: " + e.getMessage());
+      }
+    }
+
+    StringBuilder result = new StringBuilder("\nGame " + gameId + " Results\n");
+    if (rankings.isEmpty()) result.append("All players kicked from game\n");
+    for (int i = 0; i < rankings.size(); i++)
+      result.append(i + 1).append(" ").append(rankings.get(i)).append("\n");
+    System.out.print(result);
+
+    // players are numbered by their position in the roster, starting at 1
+    boolean[] survived = new boolean[roster.size()];
+    for (PlayerScore score : rankings) survived[score.getId() - 1] = true;
+    for (int i = 0; i < roster.size(); i++) {
+      if (!survived[i]) roster.get(i).disconnect();
+      else if (keepAlive) matchmaker.enqueue(roster.get(i));
+    }
+  }
+
+  /**
+   * Effect: drops the clients that have not finished signing up within the time limit. Clients
+   *         are timed from when they connected, so the oldest pending sign-ups come first.
+   */
+  private void dropExpiredSignups() {
+    long now = System.nanoTime();
+    while (!pending.isEmpty()) {
+      SelectionKey key = pending.peek();
+      if (key.isValid() && ((PendingSignUp) key.attachment()).deadline > now) break;
+      pending.remove();
+      if (key.isValid()) close(key);
+    }
+  }
+
+  /**
+   * Gets the time the selector may wait before the next sign-up expires (where 0 means to wait
+   * until a client is ready)
+   */
+  private long millisUntilNextDeadline() {
+    for (SelectionKey key : pending) {
+      if (key.isValid()) {
+        long deadline = ((PendingSignUp) key.attachment()).deadline;
+        return Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()) + 1);
+      }
+    }
+    return 0;
+  }
+
+  /**
+   * Effect: closes the connection of the given key
+   */
+  private static void close(SelectionKey key) {
+    key.cancel();
+    try { key.channel().close(); }
+    catch (IOException e) { System.out.println("Could not close client socket"); }
+  }
+
+  /**
+   * The part of a client's sign-up message read so far. The message is complete once the first
+   * JSON value has been closed, i.e. once a top-level string or array ends.
+   */
+  private static class PendingSignUp {
+    private final ByteBuffer buffer = ByteBuffer.allocate(Constants.MAX_SIGNUP_SIZE);
+    private final long deadline = System.nanoTime() + SIGNUP_TIMEOUT;
+    private int scanned = 0;
+    private int depth = 0;
+    private boolean inString = false;
+    private boolean escaped = false;
+    private int end = -1;
+
+    /**
+     * Determines whether the whole sign-up message has been read, scanning only the bytes read
+     * since the last call
+     *
+     * @throws IllegalArgumentException if the buffer is full but the message is not complete
+     */
+    boolean isComplete() {
+      for (; scanned < buffer.position() && end < 0; scanned++) {
+        byte b = buffer.get(scanned);
+        if (inString) {
+          if (escaped) escaped = false;
+          else if (b == '\\') escaped = true;
+          else if (b == '"') {
+            inString = false;
+            if (depth == 0) end = scanned + 1;
+          }
+        }
+        else if (b == '"') inString = true;
+        else if (b == '[') depth++;
+        else if (b == ']' && --depth <= 0) end = scanned + 1;
+      }
+      if (end < 0 && !buffer.hasRemaining())
+        throw new IllegalArgumentException("Sign-up message is too long");
+      return end >= 0;
+    }
+
+    /**
+     * Parses the complete sign-up message
+     *
+     * @return the {@link SignUp} sent by the client
+     */
+    SignUp parse() throws IOException {
+      String msg = new String(buffer.array(), 0, end, StandardCharsets.UTF_8);
+      JsonReader reader = new JsonReader(new StringReader(msg));
+      reader.setLenient(true);
+      return SignUp.read(reader);
+    }
+  }
+
+  public static GameServerBuilder builder() { return new GameServerBuilder(); }
+  public static class GameServerBuilder {
+    private int port = Constants.DEFAULT_PORT;
+    private boolean threadPerConnection = false;
+    private boolean keepAlive = false;
+    private long latencyBudget = Constants.SIGNUP_DELAY;
+    private TimeUnit budgetUnit = Constants.SIGNUP_UNIT;
+    private ExecutorService games = ThreadPools.newPerTaskExecutor("evo-game");
+    private QueryService queries = QueryService.shared();
+    private Optional<GameJournal> journal = Optional.empty();
+
+    public GameServer build() {
+      return new GameServer(port, threadPerConnection, keepAlive, games, queries, latencyBudget,
+              budgetUnit, journal);
+    }
+
+    public GameServerBuilder port(int port) {
+      if (port < 0 || port > Constants.MAX_PORT)
+        throw new IllegalArgumentException("Invalid port number");
+      this.port = port;
+      return this;
+    }
+
+    /**
+     * Sets the executor that games are played on; each game occupies one of its threads for as
+     * long as it lasts
+     */
+    public GameServerBuilder games(ExecutorService games) {
+      this.games = Objects.requireNonNull(games);
+      return this;
+    }
+
+    /**
+     * Signs up every client on its own thread, and queries players without a separate timer,
+     * relying on the {@link ProxyPlayer}s' socket read timeouts for the response deadline
+     */
+    public GameServerBuilder threadPerConnection() {
+      this.threadPerConnection = true;
+      this.queries = QueryService.selfTimed();
+      return this;
+    }
+
+    /**
+     * Keeps the connections of the players still in a game when it ends, and queues them up for
+     * another game
+     */
+    public GameServerBuilder keepAlive() {
+      this.keepAlive = true;
+      return this;
+    }
+
+    /**
+     * Records every game the server plays in the given {@link GameJournal}, which is flushed at
+     * the end of each game
+     */
+    public GameServerBuilder journal(GameJournal journal) {
+      this.journal = Optional.of(journal);
+      return this;
+    }
+
+    /**
+     * Sets the longest a waiting player is kept waiting for more players to join, once there are
+     * enough for a game
+     */
+    public GameServerBuilder latencyBudget(long budget, TimeUnit unit) {
+      if (budget < 0) throw new IllegalArgumentException("Invalid latency budget");
+      this.latencyBudget = budget;
+      this.budgetUnit = Objects.requireNonNull(unit);
+      return this;
+    }
+
+    public GameServerBuilder queries(QueryService queries) {
+      this.queries = Objects.requireNonNull(queries);
+      return this;
+    }
+  }
+}
@@ -0,0 +1,112 @@
+package evo.remote;
+
+import evo.Constants;
+
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+/**
+ * Forms games from a queue of waiting players. A game is formed as soon as
+ * {@link Constants#MAX_NUM_PLAYERS} players are waiting; with fewer (but at least
+ * {@link Constants#MIN_NUM_PLAYERS}), it is formed from everyone waiting once the player at the
+ * head of the queue has waited for the latency budget, so no player waits longer than that while
+ * a game is possible. Every game gets a roster of its own that later arrivals cannot change.
+ *
+ * Players may be queued from any thread, including players returning from a finished game.
+ *
+ * @param <P> the type of the queued players
+ */
+class Matchmaker<P> {
+  private final long budgetNanos;
+  private final BiConsumer<Integer, List<P>> startGame;
+  private final MatchmakingMetrics metrics = new MatchmakingMetrics();
+  private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(r -> {
+    Thread t = new Thread(r, "evo-matchmaker");
+    t.setDaemon(true);
+    return t;
+  });
+
+  private final Deque<Waiting<P>> queue = new ArrayDeque<>();
+  private ScheduledFuture<?> nextCheck;
+  private int nextGameId = 1;
+
+  /**
+   * @param budget the longest a player may wait for a game to fill up, once one is possible
+   * @param unit the {@link TimeUnit} of the budget
+   * @param startGame the action that starts a game, given its number and its roster of players
+   */
+  Matchmaker(long budget, TimeUnit unit, BiConsumer<Integer, List<P>> startGame) {
+    this.budgetNanos = unit.toNanos(budget);
+    this.startGame = startGame;
+  }
+
+  /**
+   * Effect: adds the given player to the back of the queue, and forms any games that are due
+   *
+   * @param player the signed-up player
+   */
+  synchronized void enqueue(P player) {
+    queue.add(new Waiting<>(player, System.nanoTime()));
+    formGames();
+  }
+
+  MatchmakingMetrics getMetrics() { return metrics; }
+
+  /**
+   * Effect: forms the games that are due when the scheduled check runs. The check is cleared
+   *         first, so that if the player it was scheduled for has since left the queue, a check
+   *         is scheduled for the new head.
+   */
+  private synchronized void check() {
+    nextCheck = null;
+    formGames();
+  }
+
+  /**
+   * Effect: forms every full game, then a smaller one if the head of the queue has used up its
+   *         budget; otherwise makes sure the queue is checked again no later than when it does.
+   *         A pending check may be early, since the head of the queue only ever gets younger.
+   */
+  private synchronized void formGames() {
+    long now = System.nanoTime();
+    while (queue.size() >= Constants.MAX_NUM_PLAYERS) formGame(Constants.MAX_NUM_PLAYERS, now);
+    if (queue.size() < Constants.MIN_NUM_PLAYERS) return;
+
+    long remaining = queue.peek().since + budgetNanos - now;
+    if (remaining <= 0) formGame(queue.size(), now);
+    else if (nextCheck == null || nextCheck.isDone())
+      nextCheck = timer.schedule(this::check, remaining, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Effect: starts a game with the given number of players from the head of the queue
+   */
+  private void formGame(int numPlayers, long now) {
+    List<P> roster = new ArrayList<>(numPlayers);
+    long waitNanos = 0;
+    for (int i = 0; i < numPlayers; i++) {
+      Waiting<P> next = queue.remove();
+      roster.add(next.player);
+      waitNanos += now - next.since;
+    }
+    metrics.recordGame(numPlayers, waitNanos);
+    startGame.accept(nextGameId++, Collections.unmodifiableList(roster));
+  }
+
+  /**
+   * A player in the queue, and when it joined the queue
+   */
+  private static class Waiting<P> {
+    private final P player;
+    private final long since;
+
+    private Waiting(P player, long since) {
+      this.player = player;
+      this.since = since;
+    }
+  }
+}
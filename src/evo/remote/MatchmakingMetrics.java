@@ -0,0 +1,62 @@
+package evo.remote;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the players a {@link Matchmaker} admits into games and how long they waited in its queue.
+ * The counters can be updated and read from any thread without locking.
+ */
+public final class MatchmakingMetrics {
+  private final long startNanos = System.nanoTime();
+  private final LongAdder playersAdmitted = new LongAdder();
+  private final LongAdder gamesStarted = new LongAdder();
+  private final LongAdder totalWaitNanos = new LongAdder();
+
+  /**
+   * Effect: records a game started with players who waited the given total time in the queue
+   *
+   * @param numPlayers the number of players admitted into the game
+   * @param waitNanos the sum of the times they waited, in nanoseconds
+   */
+  void recordGame(int numPlayers, long waitNanos) {
+    playersAdmitted.add(numPlayers);
+    gamesStarted.increment();
+    totalWaitNanos.add(waitNanos);
+  }
+
+  /**
+   * Gets the average number of players admitted into games per second since the metrics were
+   * created
+   */
+  public double getAdmissionRate() {
+    double seconds = (System.nanoTime() - startNanos) / (double) TimeUnit.SECONDS.toNanos(1);
+    return seconds > 0 ? playersAdmitted.sum() / seconds : 0;
+  }
+
+  /**
+   * Gets the average time an admitted player waited in the queue, in the given unit
+   */
+  public double getMeanQueueWait(TimeUnit unit) {
+    long admitted = playersAdmitted.sum();
+    if (admitted == 0) return 0;
+    return totalWaitNanos.sum() / (double) admitted / unit.toNanos(1);
+  }
+
+  /******************
+   * Getter methods *
+   ******************/
+  public long getPlayersAdmitted() {
+    return playersAdmitted.sum();
+  }
+  public long getGamesStarted() {
+    return gamesStarted.sum();
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%d players admitted into %d games, %.1f players/s, mean wait %.0f ms",
+            getPlayersAdmitted(), getGamesStarted(), getAdmissionRate(),
+            getMeanQueueWait(TimeUnit.MILLISECONDS));
+  }
+}
@@ -0,0 +1,32 @@
+package evo.remote;
+
+/**
+ * The wire protocols a client can negotiate when signing up. A client that signs up with a plain
+ * name gets {@link #JSON}; one that signs up with [name, protocol] gets the named protocol.
+ *
+ * {@link #DELTA} uses the frames of {@link #BINARY}, but only sends a player's full state at the
+ * start of each turn, and sends feedNext messages as changes to what the player has already seen.
+ */
+public enum Protocol {
+  JSON,
+  BINARY,
+  DELTA;
+
+  /**
+   * Determines whether this protocol exchanges binary frames after sign-up
+   */
+  public boolean isBinary() {
+    return this != JSON;
+  }
+
+  @Override
+  public String toString() {
+    return name().toLowerCase();
+  }
+
+  public static Protocol fromString(String str) {
+    for (Protocol protocol : values())
+      if (protocol.toString().equals(str)) return protocol;
+    throw new IllegalArgumentException("Unknown protocol: " + str);
+  }
+}
@@ -5,6 +5,8 @@ import com.google.gson.stream.JsonReader;
 import com.google.gson.stream.JsonToken;
 import com.google.gson.stream.JsonWriter;
 import evo.Constants;
+import evo.binary.BinaryCodec;
+import evo.binary.DeltaCodec;
 import evo.game.*;
 import evo.game.choose.Action4;
 import evo.game.feed.FeedResponse;
@@ -14,6 +16,7 @@ import evo.json.JFactory;
 import evo.json.JUtils;
 
 import java.io.*;
+import java.net.ProtocolException;
 import java.net.Socket;
 import java.util.List;
 
@@ -22,6 +25,7 @@ import java.util.List;
  */
 public class ProxyDealer {
   private final ExternalPlayer player;
+  private final Protocol protocol;
   private final Socket socket;
   private final BufferedReader br;
   private final BufferedWriter bw;
@@ -29,10 +33,16 @@ public class ProxyDealer {
   private JsonReader jr;
 
   public ProxyDealer(ExternalPlayer player, String host, int port) {
+    this(player, host, port, Protocol.JSON);
+  }
+
+  public ProxyDealer(ExternalPlayer player, String host, int port, Protocol protocol) {
     this.player = player;
+    this.protocol = protocol;
 
     try {
       socket = new Socket(host, port);
+      socket.setTcpNoDelay(true);
       DataOutputStream out = new DataOutputStream(socket.getOutputStream());
       DataInputStream in = new DataInputStream(socket.getInputStream());
       bw = new BufferedWriter(new OutputStreamWriter(out));
@@ -55,9 +65,16 @@ public class ProxyDealer {
    * Effect: Plays the Evolution game, first sending a readSignup message and verifying the "ok"
    * message from the server, then waiting for a start-of-turn message, a choose message, and then
    * either a feed-next message or a start-of-turn message, repeating this cycle until the
-   * connection to the server is no longer active
+   * connection to the server is no longer active. A pipelining server sends the start-of-turn and
+   * choose messages back to back in one write; messages are read from a buffered stream one at a
+   * time, so it makes no difference how they were split into packets.
    */
   public void play() {
+    if (protocol.isBinary()) {
+      playBinary();
+      return;
+    }
+
     try {
       signup();
       start();
@@ -70,6 +87,82 @@ public class ProxyDealer {
     finally { disconnect(); }
   }
 
+  /**
+   * Effect: Plays the Evolution game over one of the binary protocols: signs up asking for it, then
+   * answers whichever message the server sends until it closes the connection. In the
+   * {@link Protocol#DELTA} protocol, the state the server has sent so far is kept in a
+   * {@link DeltaCodec} and updated by every message.
+   */
+  private void playBinary() {
+    DeltaCodec delta = new DeltaCodec();
+    try {
+      FrameChannel channel = signupBinary();
+      while (true) {
+        FrameChannel.Type type;
+        try { type = channel.receive(); }
+        catch (EOFException e) { break; }
+        DataInput in = channel.payload();
+
+        switch (type) {
+          case START:
+            int wh = BinaryCodec.readNat(in);
+            player.start(wh, protocol == Protocol.DELTA ? delta.readStartState(in)
+                    : BinaryCodec.readPlayerState(in));
+            break;
+
+          case CHOOSE:
+            Action4 choice = player.choose(BinaryCodec.readLOB(in), BinaryCodec.readLOB(in));
+            BinaryCodec.writeAction4(channel.begin(FrameChannel.Type.ACTION4), choice);
+            channel.send();
+            break;
+
+          case FEED_NEXT:
+            BasePlayer state = BinaryCodec.readPlayerState(in);
+            int tokens = BinaryCodec.readNat(in);
+            FeedResponse response = player.feedNext(state, BinaryCodec.readLOB(in), tokens);
+            BinaryCodec.writeFeedResponse(channel.begin(FrameChannel.Type.FEED_RESPONSE), response);
+            channel.send();
+            break;
+
+          case FEED_DELTA:
+            BasePlayer current = delta.readFeedNextState(in);
+            int whTokens = BinaryCodec.readNat(in);
+            FeedResponse feedChoice =
+                    player.feedNext(current, delta.readFeedNextBoards(in), whTokens);
+            BinaryCodec.writeFeedResponse(channel.begin(FrameChannel.Type.FEED_RESPONSE),
+                    feedChoice);
+            channel.send();
+            break;
+
+          default:
+            throw new ProtocolException("Unexpected message: " + type);
+        }
+      }
+    }
+    catch (IOException e) { System.out.println(e.getMessage()); }
+    finally { disconnect(); }
+  }
+
+  /**
+   * Effect: Sends the sign-up message asking for this proxy's binary protocol, e.g.
+   * [name, "binary"], and waits for the server to acknowledge it with an OK frame
+   *
+   * @return the {@link FrameChannel} to play the rest of the game over
+   * @throws IOException
+   */
+  private FrameChannel signupBinary() throws IOException {
+    jw.beginArray();
+    jw.value(Constants.DEFAULT_NAME);
+    jw.value(protocol.toString());
+    jw.endArray();
+    jw.flush();
+
+    FrameChannel channel = new FrameChannel(socket.getInputStream(), socket.getOutputStream());
+    channel.receive(FrameChannel.Type.OK);
+    System.out.println("Signed up successfully");
+    return channel;
+  }
+
   /**
    * Effect: Sends the readSignup message (i.e. this player's name) to the server, receives the "ok"
    * message. Disconnects if anything other than the string "ok" is received.
@@ -1,9 +1,12 @@
 package evo.remote;
 
 import com.google.gson.JsonArray;
+import com.google.gson.JsonParseException;
 import com.google.gson.stream.JsonReader;
 import com.google.gson.stream.JsonWriter;
 import evo.Constants;
+import evo.binary.BinaryCodec;
+import evo.binary.DeltaCodec;
 import evo.game.*;
 import evo.game.choose.Action4;
 import evo.game.feed.FeedNothing;
@@ -15,22 +18,28 @@ import evo.json.JUtils;
 
 import java.io.*;
 import java.net.Socket;
+import java.net.SocketTimeoutException;
 import java.util.List;
-import java.util.concurrent.*;
 
 /**
  * Created by jackfriedson on 4/14/16.
  */
 public class ProxyPlayer implements ExternalPlayer {
   private final Socket socket;
+  private final DeadlineInputStream in;
   private final BufferedReader br;
   private final JsonReader jr;
   private final JsonWriter jw;
   private String name;
+  private Protocol protocol = Protocol.JSON;
+  private FrameChannel channel;
+  private final DeltaCodec delta = new DeltaCodec();
+  private volatile boolean keepAlive = false;
 
   public ProxyPlayer(Socket socket) throws IOException {
     this.socket = socket;
-    DataInputStream in = new DataInputStream(socket.getInputStream());
+    this.socket.setTcpNoDelay(true);
+    this.in = new DeadlineInputStream(socket);
     DataOutputStream out = new DataOutputStream(socket.getOutputStream());
     this.br = new BufferedReader(new InputStreamReader(in));
     this.jr = new JsonReader(br);
@@ -40,63 +49,171 @@ public class ProxyPlayer implements ExternalPlayer {
   }
 
   /**
-   * todo
-   * @return
+   * Creates a proxy for a client whose sign-up message has already been read (e.g. by a
+   * {@link GameServer}); it only remains to acknowledge it with {@link #sendOK()}
+   *
+   * @param socket the client's connection
+   * @param signup the client's {@link SignUp}
+   */
+  public ProxyPlayer(Socket socket, SignUp signup) throws IOException {
+    this(socket);
+    this.name = signup.getName();
+    this.protocol = signup.getProtocol();
+  }
+
+  /**
+   * Effect: sets whether the connection stays open at the end of a game, so that the client can
+   *         play another one; a kept-alive connection has to be closed with {@link #disconnect()}
+   */
+  public void setKeepAlive(boolean keepAlive) { this.keepAlive = keepAlive; }
+
+  /**
+   * Effect: acknowledges the sign-up in the protocol the client asked for; from here on, every
+   *         message to and from the client uses that protocol
+   *
+   * @return true if the acknowledgement was sent
    */
   public boolean sendOK() {
     try {
-      jw.value(Constants.OK_MSG);
-      jw.flush();
+      if (protocol.isBinary()) {
+        channel = new FrameChannel(in, socket.getOutputStream());
+        channel.begin(FrameChannel.Type.OK);
+        channel.send();
+      }
+      else {
+        jw.value(Constants.OK_MSG);
+        jw.flush();
+      }
       return true;
     } catch (IOException e) { return false; }
   }
 
   /**
-   * Reads the sign-up message sent by the client and returns it as a string, or times out after
-   * the predetermined amount of time.
+   * Reads the sign-up message sent by the client, or times out after the predetermined amount of
+   * time. The deadline is enforced by the socket, so the read runs on the calling thread. As in
+   * the {@link GameServer}'s selector, a sign-up longer than {@link Constants#MAX_SIGNUP_SIZE}
+   * bytes is rejected.
    *
-   * @return the {@link String} sent by the player
+   * @return true if the player signed up with a name (and a protocol it supports)
    */
   public boolean readSignup() {
-    ExecutorService executor = null;
+    in.arm(Constants.MAX_RESPONSE_TIME, Constants.TIME_UNIT, Constants.MAX_SIGNUP_SIZE);
     try {
-      executor = Executors.newSingleThreadExecutor();
-      Future<String> future = executor.submit(jr::nextString);
-      name = future.get(Constants.MAX_RESPONSE_TIME, Constants.TIME_UNIT);
+      SignUp signup = SignUp.read(jr);
+      name = signup.getName();
+      protocol = signup.getProtocol();
       return true;
     }
-    catch (InterruptedException | TimeoutException | ExecutionException e) { return false; }
-    finally { if (executor != null) executor.shutdownNow(); }
+    catch (IOException | IllegalArgumentException | IllegalStateException e) { return false; }
+    finally { in.disarm(); }
   }
 
   @Override
-  public void start(int wh, BasePlayer myState) {
-    try { JUtils.writeStartMsg(jw, wh, myState); }
+  public void start(int wh, BasePlayer myState) { start(wh, myState, true); }
+
+  /**
+   * Writes the start message without sending it, so that it goes out in the same write as the
+   * choose message that follows it
+   */
+  @Override
+  public void startPipelined(int wh, BasePlayer myState) { start(wh, myState, false); }
+
+  /**
+   * Effect: writes the start message to the client, and sends it if flush is true
+   */
+  private void start(int wh, BasePlayer myState, boolean flush) {
+    try {
+      if (protocol.isBinary()) {
+        DataOutput out = channel.begin(FrameChannel.Type.START);
+        if (protocol == Protocol.DELTA) delta.writeStartMsg(out, wh, myState);
+        else BinaryCodec.writeStartMsg(out, wh, myState);
+        if (flush) channel.send();
+        else channel.queue();
+      }
+      else {
+        JUtils.writeStart(jw, wh, myState);
+        if (flush) jw.flush();
+      }
+    }
     catch (IOException e) { throw new MessageSendFailure("Start: " + e); }
   }
 
+  /**
+   * Sends the choose message and reads the player's response, which must arrive within
+   * {@link Constants#MAX_RESPONSE_TIME}
+   *
+   * @throws IllegalResponseException if the player does not respond in time
+   */
   @Override
   public Action4 choose(List<SpeciesList> playersBefore, List<SpeciesList> playersAfter) {
+    in.arm(Constants.MAX_RESPONSE_TIME, Constants.TIME_UNIT);
     try {
+      if (protocol.isBinary()) {
+        BinaryCodec.writeChooseMsg(channel.begin(FrameChannel.Type.CHOOSE), playersBefore,
+                playersAfter);
+        channel.send();
+        return BinaryCodec.readAction4(channel.receive(FrameChannel.Type.ACTION4));
+      }
       JUtils.writeChooseMsg(jw, playersBefore, playersAfter);
       return JFactory.fromJson(jr, Action4.class);
     }
+    catch (SocketTimeoutException e) { throw new IllegalResponseException("Player timeout"); }
+    catch (JsonParseException e) { throw timeoutOr(e); }
     catch (IOException e) { throw new MessageSendFailure("Choose" + e); }
+    finally { in.disarm(); }
   }
 
+  /**
+   * Sends the feedNext message and reads the player's response, which must arrive within
+   * {@link Constants#MAX_RESPONSE_TIME}
+   *
+   * @throws IllegalResponseException if the player does not respond in time
+   */
   @Override
   public FeedResponse feedNext(BasePlayer myState, List<SpeciesList> otherBoards, int tokens) {
+    in.arm(Constants.MAX_RESPONSE_TIME, Constants.TIME_UNIT);
     try {
+      if (protocol == Protocol.DELTA) {
+        delta.writeFeedNextMsg(channel.begin(FrameChannel.Type.FEED_DELTA), myState, otherBoards,
+                tokens);
+        channel.send();
+        return BinaryCodec.readFeedResponse(channel.receive(FrameChannel.Type.FEED_RESPONSE));
+      }
+      if (protocol == Protocol.BINARY) {
+        BinaryCodec.writeFeedNextMsg(channel.begin(FrameChannel.Type.FEED_NEXT), myState,
+                otherBoards, tokens);
+        channel.send();
+        return BinaryCodec.readFeedResponse(channel.receive(FrameChannel.Type.FEED_RESPONSE));
+      }
       JUtils.writeFeedNextMsg(jw, myState, otherBoards, tokens);
 //      return JFactory.fromJson(jr, FeedResponse.class);
       //todo: fix FeedNone and FeedVeg bug (i.e. don't use hack)
       return readFeedResponse();
     }
+    catch (SocketTimeoutException e) { throw new IllegalResponseException("Player timeout"); }
+    catch (JsonParseException e) { throw timeoutOr(e); }
     catch (IOException e) { throw new MessageSendFailure("Feed: " + e); }
+    finally { in.disarm(); }
   }
 
   @Override
-  public void gameOver() { disconnect(); }
+  public void gameOver() {
+    if (!keepAlive) disconnect();
+  }
+
+  /**
+   * Gets the exception to report for a response that could not be parsed: Gson wraps the
+   * {@link SocketTimeoutException} of a player that did not respond in time, which is reported as
+   * a timeout, and any other failure is passed on
+   *
+   * @param e the {@link JsonParseException} thrown while reading the response
+   * @return the exception to throw
+   */
+  private static RuntimeException timeoutOr(JsonParseException e) {
+    if (e.getCause() instanceof SocketTimeoutException)
+      return new IllegalResponseException("Player timeout");
+    return e;
+  }
 
   @Override
   public String getName() { return name; }
@@ -104,11 +221,12 @@ public class ProxyPlayer implements ExternalPlayer {
   /**
    * Effect: disconnects from the client, closing all relevant resources
    */
-  private void disconnect() {
+  public void disconnect() {
     try {
       if (jr != null) jr.close();
       if (br != null) br.close();
-      if (jw != null) jw.close();
+      // a JsonWriter that was never written to (i.e. in the binary protocol) refuses to close
+      if (jw != null && protocol == Protocol.JSON) jw.close();
       if (socket != null) socket.close();
     }
     catch (IOException e) {
@@ -1,38 +1,41 @@
 package evo.remote;
 
 import evo.Constants;
-import evo.game.ExternalPlayer;
+import evo.game.GameJournal;
 
 import java.io.IOException;
-import java.net.ServerSocket;
-import java.net.Socket;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.concurrent.ScheduledFuture;
+import java.nio.file.Paths;
 
 /**
  * Created by jackfriedson on 4/14/16.
  */
 public class ServerMain {
-  private static ScheduledFuture game = null;
+  private static final String THREADS_MODE = "threads";
+  private static final String KEEP_ALIVE_MODE = "keep-alive";
+  private static final String JOURNAL_OPTION = "journal=";
 
   public static void main(String args[]) {
     int port = Constants.DEFAULT_PORT;
-    List<ExternalPlayer> players = new ArrayList<>();
 
     if (args.length > 0) port = Integer.valueOf(args[0]);
     if (port < 0 || port > Constants.MAX_PORT) throw new IllegalArgumentException("Invalid port number");
 
-    try (ServerSocket server = new ServerSocket(port)) {
-      while (players.size() < Constants.MAX_NUM_PLAYERS) {
-        Socket client = server.accept();
-        Thread handler = new SignUpHandler(client, players, game);
-        handler.start();
+    GameServer.GameServerBuilder builder = GameServer.builder().port(port);
+    try {
+      for (int i = 1; i < args.length; i++) {
+        if (args[i].equals(THREADS_MODE)) builder.threadPerConnection();
+        else if (args[i].equals(KEEP_ALIVE_MODE)) builder.keepAlive();
+        else if (args[i].startsWith(JOURNAL_OPTION)) {
+          String path = args[i].substring(JOURNAL_OPTION.length());
+          builder.journal(GameJournal.create(Paths.get(path)));
+        }
+        else throw new IllegalArgumentException("Unknown server option: " + args[i]);
       }
+      builder.build().serve();
     }
     catch (IOException e) {
       System.out.println("Error setting up server");
       System.exit(-1);
     }
   }
-}
\ No newline at end of file
+}
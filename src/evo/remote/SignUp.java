@@ -0,0 +1,47 @@
+package evo.remote;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+import java.util.Objects;
+
+/**
+ * A sign-up message sent by a client: the player's name and the {@link Protocol} it wants to play
+ * the rest of the game in.
+ */
+public class SignUp {
+  private final String name;
+  private final Protocol protocol;
+
+  public SignUp(String name, Protocol protocol) {
+    this.name = Objects.requireNonNull(name);
+    this.protocol = Objects.requireNonNull(protocol);
+  }
+
+  /**
+   * A SignUp is one of:
+   * - String, the player's name
+   * - [String, String], the player's name and the {@link Protocol} it wants to use
+   */
+
+  public static SignUp read(JsonReader in) throws IOException {
+    if (in.peek() != JsonToken.BEGIN_ARRAY) return new SignUp(in.nextString(), Protocol.JSON);
+
+    in.beginArray();
+    String name = in.nextString();
+    Protocol protocol = Protocol.fromString(in.nextString());
+    in.endArray();
+    return new SignUp(name, protocol);
+  }
+
+  /******************
+   * Getter methods *
+   ******************/
+  public String getName() {
+    return name;
+  }
+  public Protocol getProtocol() {
+    return protocol;
+  }
+}
@@ -0,0 +1,296 @@
+package evo.sim;
+
+import evo.Constants;
+import evo.game.Dealer;
+import evo.game.DealerCheckpoint;
+import evo.game.Deck;
+import evo.game.ExternalPlayer;
+import evo.game.GameJournal;
+import evo.game.GameObserver;
+import evo.game.PlayerScore;
+import evo.game.QueryService;
+import evo.game.SillyPlayer;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Plays many independent Evolution games in a single JVM, either one after another or side by
+ * side, and collects the final rankings of each game instead of printing them and exiting.
+ *
+ * Every game is dealt from a deck shuffled with its own seed, and the seeds are derived in order
+ * from the simulator's seed, so a run is reproducible no matter how many threads it uses.
+ *
+ * Games can also be checkpointed every few turns (see {@link DealerCheckpoint}), so that the games
+ * a crashed run left unfinished can be played to the end by {@link #resumeCheckpointed()}. A game
+ * that cannot be checkpointed is played to the end without checkpoints, and the first such error
+ * is kept (see {@link #getCheckpointError()}).
+ */
+public class GameSimulator {
+  private static final String CHECKPOINT_SUFFIX = ".ckpt";
+
+  private final Supplier<List<ExternalPlayer>> players;
+  private final int parallelism;
+  private final QueryService queries;
+  private final long seed;
+  private final GameObserver observer;
+  private final Optional<GameJournal> journal;
+  private final Optional<Path> checkpoints;
+  private final int checkpointTurns;
+  private final AtomicReference<IOException> checkpointError = new AtomicReference<>();
+
+  private GameSimulator(Supplier<List<ExternalPlayer>> players, int parallelism,
+                        QueryService queries, long seed, GameObserver observer,
+                        Optional<GameJournal> journal, Optional<Path> checkpoints,
+                        int checkpointTurns) {
+    this.players = players;
+    this.parallelism = parallelism;
+    this.queries = queries;
+    this.seed = seed;
+    this.observer = observer;
+    this.journal = journal;
+    this.checkpoints = checkpoints;
+    this.checkpointTurns = checkpointTurns;
+  }
+
+  /**
+   * Plays the given number of games, one after another, on the calling thread
+   *
+   * @param numGames the number of games to play
+   * @return the rankings of each game, in the order the games were played
+   */
+  public List<List<PlayerScore>> runSequential(int numGames) {
+    long[] seeds = gameSeeds(seed, numGames);
+    List<List<PlayerScore>> results = new ArrayList<>(numGames);
+    for (int i = 0; i < numGames; i++) results.add(playOne(seeds[i]));
+    return results;
+  }
+
+  /**
+   * Plays the given number of games on a pool of {@code parallelism} threads. Every game gets its
+   * own {@link Dealer}, deck, watering hole and players, so games share no mutable state.
+   *
+   * @param numGames the number of games to play
+   * @return the rankings of each game, in the order the games were submitted
+   */
+  public List<List<PlayerScore>> runParallel(int numGames) {
+    long[] seeds = gameSeeds(seed, numGames);
+    List<Callable<List<PlayerScore>>> games = new ArrayList<>(numGames);
+    for (int i = 0; i < numGames; i++) {
+      long gameSeed = seeds[i];
+      games.add(() -> playOne(gameSeed));
+    }
+
+    ExecutorService pool = Executors.newFixedThreadPool(parallelism);
+    try {
+      List<List<PlayerScore>> results = new ArrayList<>(numGames);
+      for (Future<List<PlayerScore>> game : pool.invokeAll(games)) results.add(game.get());
+      return results;
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Simulation interrupted", e);
+    }
+    catch (ExecutionException e) { throw new IllegalStateException("Game failed", e.getCause()); }
+    finally { pool.shutdownNow(); }
+  }
+
+  /**
+   * Plays a single game with a fresh set of players
+   *
+   * @param gameSeed the seed to shuffle the game's deck with
+   * @return the rankings of the game, highest score first
+   */
+  public List<PlayerScore> playOne(long gameSeed) {
+    Optional<Path> checkpoint = checkpointPath(String.format("game-%016x", gameSeed));
+    return Dealer.builder().players(players.get(), queries).deck(Deck.shuffled(gameSeed))
+            .quiet().observer(gameObserver(checkpoint)).build().playGame();
+  }
+
+  /**
+   * Plays the rest of every game left checkpointed in the checkpoint directory (e.g. by a run
+   * that crashed), one after another on the calling thread, with the first players of a fresh
+   * set in the seats of each game's players. The games keep being checkpointed as they go on.
+   *
+   * @return the rankings of each resumed game
+   * @throws IOException if the checkpoints cannot be read
+   * @throws IllegalStateException if the simulator does not checkpoint its games
+   */
+  public List<List<PlayerScore>> resumeCheckpointed() throws IOException {
+    Path dir = checkpoints.orElseThrow(
+            () -> new IllegalStateException("Simulator does not checkpoint its games"));
+    List<Path> games = new ArrayList<>();
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "*" + CHECKPOINT_SUFFIX)) {
+      files.forEach(games::add);
+    }
+    games.sort(null);
+
+    List<List<PlayerScore>> results = new ArrayList<>(games.size());
+    for (Path game : games) {
+      DealerCheckpoint checkpoint = DealerCheckpoint.read(game);
+      List<ExternalPlayer> seats = players.get();
+      if (seats.size() < checkpoint.getNumPlayers())
+        throw new IllegalStateException("Not enough players to resume " + game.getFileName());
+      results.add(checkpoint.toDealer(seats.subList(0, checkpoint.getNumPlayers()), queries)
+              .quiet().observer(gameObserver(Optional.of(game))).build().resumeGame());
+    }
+    return results;
+  }
+
+  /**
+   * Gets the path of the checkpoint file of the game with the given name, if games are
+   * checkpointed
+   */
+  private Optional<Path> checkpointPath(String name) {
+    return checkpoints.map(dir -> dir.resolve(name + CHECKPOINT_SUFFIX));
+  }
+
+  /**
+   * Creates the observer of a game: the simulator's observer, and the game's recorder and
+   * checkpoints, if any
+   */
+  private GameObserver gameObserver(Optional<Path> checkpoint) {
+    List<GameObserver> result = new ArrayList<>();
+    result.add(observer);
+    journal.ifPresent(j -> result.add(j.recorder()));
+    checkpoint.ifPresent(path -> result.add(DealerCheckpoint.every(checkpointTurns, path,
+            e -> checkpointError.compareAndSet(null, e))));
+    return result.size() == 1 ? observer : GameObserver.all(result.toArray(new GameObserver[0]));
+  }
+
+  /**
+   * Gets the first error that stopped a game from being checkpointed, if any
+   */
+  public Optional<IOException> getCheckpointError() {
+    return Optional.ofNullable(checkpointError.get());
+  }
+
+  public int getParallelism() { return parallelism; }
+  public long getSeed() { return seed; }
+
+  public static SimulatorBuilder builder() { return new SimulatorBuilder(); }
+  public static class SimulatorBuilder {
+    private Supplier<List<ExternalPlayer>> players = sillyPlayers(Constants.MIN_NUM_PLAYERS);
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    private QueryService queries = QueryService.inline();
+    private long seed = new SplittableRandom().nextLong();
+    private GameObserver observer = GameObserver.NONE;
+    private Optional<GameJournal> journal = Optional.empty();
+    private Optional<Path> checkpoints = Optional.empty();
+    private int checkpointTurns = 1;
+
+    public GameSimulator build() {
+      return new GameSimulator(players, parallelism, queries, seed, observer, journal,
+              checkpoints, checkpointTurns);
+    }
+
+    /**
+     * Sets the source of players for each game. The supplier is called once per game, and must
+     * return a new list of {@link ExternalPlayer}s every time.
+     */
+    public SimulatorBuilder players(Supplier<List<ExternalPlayer>> players) {
+      this.players = Objects.requireNonNull(players);
+      return this;
+    }
+
+    public SimulatorBuilder numPlayers(int numPlayers) {
+      if (numPlayers < Constants.MIN_NUM_PLAYERS || numPlayers > Constants.MAX_NUM_PLAYERS)
+        throw new IllegalArgumentException("Number of players must be between "
+                + Constants.MIN_NUM_PLAYERS + " and " + Constants.MAX_NUM_PLAYERS);
+      this.players = sillyPlayers(numPlayers);
+      return this;
+    }
+
+    public SimulatorBuilder parallelism(int parallelism) {
+      if (parallelism < 1) throw new IllegalArgumentException("Parallelism must be positive");
+      this.parallelism = parallelism;
+      return this;
+    }
+
+    /**
+     * Sets the {@link QueryService} that players are queried with. Every player in a simulation
+     * runs in this process, so by default they are queried inline on the game's own thread;
+     * simulations of players that must be held to the response deadline can use
+     * {@link QueryService#shared()} instead.
+     */
+    public SimulatorBuilder queries(QueryService queries) {
+      this.queries = Objects.requireNonNull(queries);
+      return this;
+    }
+
+    /**
+     * Sets the seed that the seeds of every game's deck are derived from (random by default)
+     */
+    public SimulatorBuilder seed(long seed) {
+      this.seed = seed;
+      return this;
+    }
+
+    /**
+     * Sets the {@link GameObserver} of every game (nothing by default); games played in parallel
+     * share it
+     */
+    public SimulatorBuilder observer(GameObserver observer) {
+      this.observer = Objects.requireNonNull(observer);
+      return this;
+    }
+
+    /**
+     * Records every game in the given {@link GameJournal}, in the order the games start
+     */
+    public SimulatorBuilder journal(GameJournal journal) {
+      this.journal = Optional.of(journal);
+      return this;
+    }
+
+    /**
+     * Checkpoints every game in the given directory at the end of every given number of turns,
+     * in a file of its own that is deleted when the game ends
+     */
+    public SimulatorBuilder checkpoints(Path dir, int turns) {
+      if (turns < 1) throw new IllegalArgumentException("Checkpoint interval must be positive");
+      this.checkpoints = Optional.of(dir);
+      this.checkpointTurns = turns;
+      return this;
+    }
+  }
+
+  /**
+   * Creates a supplier of new lists of {@link SillyPlayer}s
+   *
+   * @param numPlayers the number of players in each list
+   * @return the {@link Supplier} of players
+   */
+  static Supplier<List<ExternalPlayer>> sillyPlayers(int numPlayers) {
+    return () -> {
+      List<ExternalPlayer> result = new ArrayList<>(numPlayers);
+      for (int i = 0; i < numPlayers; i++) result.add(new SillyPlayer());
+      return result;
+    };
+  }
+
+  /**
+   * Derives the seeds of a run of games from a single seed. The seed of each game only depends on
+   * the given seed and the game's position in the run.
+   *
+   * @param seed the seed of the run
+   * @param numGames the number of games in the run
+   * @return the seed of each game, in order
+   */
+  static long[] gameSeeds(long seed, int numGames) {
+    SplittableRandom rng = new SplittableRandom(seed);
+    long[] result = new long[numGames];
+    for (int i = 0; i < numGames; i++) result[i] = rng.nextLong();
+    return result;
+  }
+}
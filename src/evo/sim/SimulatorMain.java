@@ -0,0 +1,55 @@
+package evo.sim;
+
+import evo.game.GameJournal;
+import evo.game.PlayerScore;
+import evo.metrics.InMemoryMetrics;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs a batch of games between silly players in one JVM and prints a short summary, followed by
+ * the {@link InMemoryMetrics} of the games. The games are also recorded in a new
+ * {@link GameJournal} if a path is given for it.
+ */
+public class SimulatorMain {
+
+  public static void main(String[] args) throws IOException {
+    if (args.length < 2)
+      throw new IllegalArgumentException("Must specify a number of players and a number of games");
+
+    int numPlayers = Integer.valueOf(args[0]);
+    int numGames = Integer.valueOf(args[1]);
+    InMemoryMetrics metrics = new InMemoryMetrics();
+    GameSimulator.SimulatorBuilder builder = GameSimulator.builder().numPlayers(numPlayers)
+            .observer(metrics);
+    if (args.length > 2) builder.parallelism(Integer.valueOf(args[2]));
+    if (args.length > 3) builder.seed(Long.valueOf(args[3]));
+    GameJournal journal = args.length > 4 ? GameJournal.create(Paths.get(args[4])) : null;
+    if (journal != null) builder.journal(journal);
+    GameSimulator simulator = builder.build();
+
+    long start = System.nanoTime();
+    List<List<PlayerScore>> results = simulator.getParallelism() == 1
+            ? simulator.runSequential(numGames) : simulator.runParallel(numGames);
+    long elapsed = System.nanoTime() - start;
+    if (journal != null) {
+      try { journal.close(); }
+      catch (IOException e) { System.out.println("Could not write the journal: " + e.getMessage()); }
+    }
+
+    long winningTotal = 0;
+    for (List<PlayerScore> game : results)
+      if (!game.isEmpty()) winningTotal += game.get(0).getScore();
+
+    double seconds = elapsed / (double) TimeUnit.SECONDS.toNanos(1);
+    System.out.println("Played " + results.size() + " games in " + String.format("%.2f", seconds)
+            + "s (" + String.format("%.1f", results.size() / seconds) + " games/s)");
+    System.out.println("Seed: " + simulator.getSeed());
+    System.out.println("Average winning score: "
+            + String.format("%.2f", winningTotal / (double) Math.max(1, results.size())));
+    System.out.print(metrics);
+  }
+}
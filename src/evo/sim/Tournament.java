@@ -0,0 +1,147 @@
+package evo.sim;
+
+import evo.Constants;
+import evo.game.Dealer;
+import evo.game.Deck;
+import evo.game.ExternalPlayer;
+import evo.game.QueryService;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Supplier;
+
+/**
+ * Plays a large number of independent games across all available cores using a work-stealing
+ * {@link ForkJoinPool}, and aggregates the results into a single {@link TournamentStats}.
+ *
+ * Every game owns its own {@link Dealer} (and thus its own deck, watering hole and player list)
+ * and runs quietly, so games never contend on shared state. Each task records into a private
+ * {@link TournamentStats}, and results are only combined as tasks are joined. The deck of every
+ * game is shuffled with a seed derived from the tournament's seed and the game's number, so a
+ * tournament is reproducible regardless of how its games are scheduled.
+ */
+public class Tournament {
+  /**
+   * The number of games below which a task plays its games itself instead of splitting
+   */
+  private static final int GAMES_PER_TASK = 8;
+
+  private final Supplier<List<ExternalPlayer>> players;
+  private final int numSeats;
+  private final int parallelism;
+  private final QueryService queries;
+  private final long seed;
+
+  private Tournament(Supplier<List<ExternalPlayer>> players, int numSeats, int parallelism,
+                     QueryService queries, long seed) {
+    this.players = players;
+    this.numSeats = numSeats;
+    this.parallelism = parallelism;
+    this.queries = queries;
+    this.seed = seed;
+  }
+
+  /**
+   * Plays the given number of games and returns the aggregated results
+   *
+   * @param numGames the number of games to play
+   * @return the {@link TournamentStats} of all games played
+   */
+  public TournamentStats run(int numGames) {
+    long[] seeds = GameSimulator.gameSeeds(seed, numGames);
+    ForkJoinPool pool = new ForkJoinPool(parallelism);
+    try { return pool.invoke(new GameRange(seeds, 0, numGames)); }
+    finally { pool.shutdown(); }
+  }
+
+  public long getSeed() { return seed; }
+
+  private class GameRange extends RecursiveTask<TournamentStats> {
+    private final long[] seeds;
+    private final int from;
+    private final int to;
+
+    private GameRange(long[] seeds, int from, int to) {
+      this.seeds = seeds;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected TournamentStats compute() {
+      if (to - from <= GAMES_PER_TASK) {
+        TournamentStats stats = new TournamentStats(numSeats);
+        for (int i = from; i < to; i++)
+          stats.record(Dealer.builder().players(players.get(), queries).deck(Deck.shuffled(seeds[i]))
+                  .quiet().build().playGame());
+        return stats;
+      }
+
+      int mid = (from + to) >>> 1;
+      GameRange left = new GameRange(seeds, from, mid);
+      left.fork();
+      TournamentStats right = new GameRange(seeds, mid, to).compute();
+      return left.join().merge(right);
+    }
+  }
+
+  public static TournamentBuilder builder() { return new TournamentBuilder(); }
+  public static class TournamentBuilder {
+    private Supplier<List<ExternalPlayer>> players = null;
+    private int numSeats = Constants.MIN_NUM_PLAYERS;
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    private QueryService queries = QueryService.inline();
+    private long seed = new SplittableRandom().nextLong();
+
+    public Tournament build() {
+      if (numSeats < Constants.MIN_NUM_PLAYERS || numSeats > Constants.MAX_NUM_PLAYERS)
+        throw new IllegalArgumentException("Number of players must be between "
+                + Constants.MIN_NUM_PLAYERS + " and " + Constants.MAX_NUM_PLAYERS);
+      Supplier<List<ExternalPlayer>> source = players == null
+              ? GameSimulator.sillyPlayers(numSeats) : players;
+      return new Tournament(source, numSeats, parallelism, queries, seed);
+    }
+
+    /**
+     * Sets the source of players for each game. The supplier is called once per game, and must
+     * return a new list of exactly {@code numSeats} {@link ExternalPlayer}s every time.
+     */
+    public TournamentBuilder players(int numSeats, Supplier<List<ExternalPlayer>> players) {
+      this.numSeats = numSeats;
+      this.players = Objects.requireNonNull(players);
+      return this;
+    }
+
+    public TournamentBuilder numPlayers(int numSeats) {
+      this.numSeats = numSeats;
+      this.players = null;
+      return this;
+    }
+
+    public TournamentBuilder parallelism(int parallelism) {
+      if (parallelism < 1) throw new IllegalArgumentException("Parallelism must be positive");
+      this.parallelism = parallelism;
+      return this;
+    }
+
+    /**
+     * Sets the {@link QueryService} that players are queried with; inline by default, as for a
+     * {@link GameSimulator} (see {@link GameSimulator.SimulatorBuilder#queries(QueryService)})
+     */
+    public TournamentBuilder queries(QueryService queries) {
+      this.queries = Objects.requireNonNull(queries);
+      return this;
+    }
+
+    /**
+     * Sets the seed that the seeds of every game's deck are derived from (random by default)
+     */
+    public TournamentBuilder seed(long seed) {
+      this.seed = seed;
+      return this;
+    }
+  }
+}
@@ -0,0 +1,46 @@
+package evo.sim;
+
+import evo.game.ExternalPlayer;
+import evo.game.MctsPlayer;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs a tournament of silly players across all available cores and prints the aggregated
+ * win rates and average scores of every seat. Given a search budget (in milliseconds), the first
+ * seat is taken by an {@link MctsPlayer} instead, so that running again with the same seed and no
+ * budget compares it against a silly player dealt the same cards.
+ */
+public class TournamentMain {
+
+  public static void main(String[] args) {
+    if (args.length < 2)
+      throw new IllegalArgumentException("Must specify a number of players and a number of games");
+
+    int numPlayers = Integer.valueOf(args[0]);
+    Tournament.TournamentBuilder builder = Tournament.builder()
+            .numPlayers(numPlayers);
+    if (args.length > 2) builder.parallelism(Integer.valueOf(args[2]));
+    if (args.length > 3) builder.seed(Long.valueOf(args[3]));
+    if (args.length > 4) {
+      long budget = Long.valueOf(args[4]);
+      builder.players(numPlayers, () -> {
+        List<ExternalPlayer> players = GameSimulator.sillyPlayers(numPlayers).get();
+        // games already run side by side, so each player searches with a single worker
+        players.set(0, MctsPlayer.builder().budget(budget, TimeUnit.MILLISECONDS).parallelism(1)
+                .build());
+        return players;
+      });
+    }
+    Tournament tournament = builder.build();
+
+    long start = System.nanoTime();
+    TournamentStats stats = tournament.run(Integer.valueOf(args[1]));
+    double seconds = (System.nanoTime() - start) / (double) TimeUnit.SECONDS.toNanos(1);
+
+    System.out.println("Seed: " + tournament.getSeed());
+    System.out.print(stats);
+    System.out.println(String.format("%.1f", stats.getGames() / seconds) + " games/s");
+  }
+}
@@ -0,0 +1,108 @@
+package evo.sim;
+
+import evo.game.PlayerScore;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Aggregated results of a set of games played between the same seats. Every seat is identified
+ * by its position in the roster (i.e. the player with id {@code seat + 1}).
+ *
+ * Instances are not thread-safe; each task in a {@link Tournament} records into its own
+ * {@link TournamentStats}, and the results are combined with {@link #merge} once the tasks finish.
+ */
+public class TournamentStats {
+  /**
+   * Scores at or above this value are counted in the last bucket of the histograms
+   */
+  public static final int MAX_TRACKED_SCORE = 128;
+
+  private final int numSeats;
+  private int games;
+  private final long[] wins;
+  private final long[] kicks;
+  private final long[] scoreTotals;
+  private final long[][] histograms;
+
+  public TournamentStats(int numSeats) {
+    this.numSeats = numSeats;
+    this.wins = new long[numSeats];
+    this.kicks = new long[numSeats];
+    this.scoreTotals = new long[numSeats];
+    this.histograms = new long[numSeats][MAX_TRACKED_SCORE + 1];
+  }
+
+  /**
+   * Effect: records the final rankings of one game. Every seat that shares the top score is
+   *         credited with a win, and every seat missing from the rankings is counted as kicked.
+   *
+   * @param rankings the {@link PlayerScore}s of one game, highest score first
+   */
+  public void record(List<PlayerScore> rankings) {
+    games++;
+    boolean[] present = new boolean[numSeats];
+    int topScore = rankings.isEmpty() ? 0 : rankings.get(0).getScore();
+
+    for (PlayerScore ps : rankings) {
+      int seat = ps.getId() - 1;
+      present[seat] = true;
+      scoreTotals[seat] += ps.getScore();
+      histograms[seat][Math.min(ps.getScore(), MAX_TRACKED_SCORE)]++;
+      if (ps.getScore() == topScore) wins[seat]++;
+    }
+
+    for (int seat = 0; seat < numSeats; seat++)
+      if (!present[seat]) kicks[seat]++;
+  }
+
+  /**
+   * Effect: adds the results recorded in the given {@link TournamentStats} to this one
+   *
+   * @param other the results to add
+   * @return this {@link TournamentStats}
+   */
+  public TournamentStats merge(TournamentStats other) {
+    if (other.numSeats != numSeats) throw new IllegalArgumentException("Seat counts differ");
+
+    games += other.games;
+    for (int seat = 0; seat < numSeats; seat++) {
+      wins[seat] += other.wins[seat];
+      kicks[seat] += other.kicks[seat];
+      scoreTotals[seat] += other.scoreTotals[seat];
+      for (int score = 0; score <= MAX_TRACKED_SCORE; score++)
+        histograms[seat][score] += other.histograms[seat][score];
+    }
+    return this;
+  }
+
+  /******************
+   * Getter methods *
+   ******************/
+  public int getNumSeats() { return numSeats; }
+  public int getGames() { return games; }
+  public long getWins(int seat) { return wins[seat]; }
+  public long getKicks(int seat) { return kicks[seat]; }
+  public double getWinRate(int seat) { return games == 0 ? 0 : wins[seat] / (double) games; }
+  public long[] getHistogram(int seat) {
+    return Arrays.copyOf(histograms[seat], histograms[seat].length);
+  }
+
+  public double getAverageScore(int seat) {
+    long finished = games - kicks[seat];
+    return finished == 0 ? 0 : scoreTotals[seat] / (double) finished;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder result = new StringBuilder("Games: ").append(games).append("\n");
+    for (int seat = 0; seat < numSeats; seat++) {
+      result.append("Seat ").append(seat + 1)
+              .append("  Win rate: ").append(String.format("%.3f", getWinRate(seat)))
+              .append("  Average score: ").append(String.format("%.2f", getAverageScore(seat)))
+              .append("  Kicks: ").append(kicks[seat])
+              .append("\n");
+    }
+    return result.toString();
+  }
+}
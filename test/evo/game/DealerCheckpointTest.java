@@ -0,0 +1,79 @@
+package evo.game;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the checkpointing observer of {@link DealerCheckpoint}
+ */
+public class DealerCheckpointTest {
+  private static final long SEED = 42;
+
+  /**
+   * A {@link DealerCheckpoint.Sink} that keeps its checkpoints in memory, and can be made to fail
+   */
+  private static class MemorySink implements DealerCheckpoint.Sink {
+    private final boolean failing;
+    private final List<DealerCheckpoint> saved = new ArrayList<>();
+    private int attempts = 0;
+    private boolean cleared = false;
+
+    private MemorySink(boolean failing) {
+      this.failing = failing;
+    }
+
+    @Override
+    public void save(DealerCheckpoint checkpoint) throws IOException {
+      attempts++;
+      if (failing) throw new IOException("Disk full");
+      saved.add(checkpoint);
+    }
+
+    @Override
+    public void clear() {
+      cleared = true;
+    }
+  }
+
+  /**
+   * Plays a game of silly players with the given observer
+   */
+  private static List<PlayerScore> playGame(GameObserver observer) {
+    List<ExternalPlayer> players = new ArrayList<>();
+    for (int i = 0; i < 4; i++) players.add(new SillyPlayer());
+    return Dealer.builder().players(players, QueryService.inline()).deck(Deck.shuffled(SEED))
+            .quiet().observer(observer).build().playGame();
+  }
+
+  @Test
+  public void testCheckpointsEveryTurns() {
+    MemorySink sink = new MemorySink(false);
+    List<IOException> errors = new ArrayList<>();
+    playGame(DealerCheckpoint.every(2, sink, errors::add));
+
+    assertTrue(errors.isEmpty());
+    assertFalse(sink.saved.isEmpty());
+    for (DealerCheckpoint checkpoint : sink.saved) assertEquals(0, checkpoint.getTurn() % 2);
+    assertTrue(sink.cleared);
+  }
+
+  @Test
+  public void testFailingSinkDoesNotEndGame() {
+    List<PlayerScore> expected = playGame(GameObserver.NONE);
+
+    MemorySink sink = new MemorySink(true);
+    List<IOException> errors = new ArrayList<>();
+    List<PlayerScore> rankings = playGame(DealerCheckpoint.every(1, sink, errors::add));
+
+    assertEquals(expected.toString(), rankings.toString());
+    assertEquals(1, errors.size());
+    assertEquals("Disk full", errors.get(0).getMessage());
+    assertEquals(1, sink.attempts);
+    assertTrue(sink.cleared);
+  }
+}
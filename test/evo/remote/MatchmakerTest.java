@@ -0,0 +1,93 @@
+package evo.remote;
+
+import evo.Constants;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link Matchmaker}, with integers standing in for the queued players
+ */
+public class MatchmakerTest {
+  private static final long BUDGET_MILLIS = 200;
+
+  private BlockingQueue<List<Integer>> games;
+  private Matchmaker<Integer> matchmaker;
+  private int nextPlayer;
+
+  @Before
+  public void setUp() {
+    games = new LinkedBlockingQueue<>();
+    matchmaker = new Matchmaker<>(BUDGET_MILLIS, TimeUnit.MILLISECONDS,
+            (id, roster) -> games.add(roster));
+    nextPlayer = 1;
+  }
+
+  /**
+   * Effect: queues the given number of new players, numbered in the order they arrive
+   */
+  private List<Integer> enqueue(int numPlayers) {
+    List<Integer> players = new ArrayList<>();
+    for (int i = 0; i < numPlayers; i++) {
+      players.add(nextPlayer);
+      matchmaker.enqueue(nextPlayer++);
+    }
+    return players;
+  }
+
+  @Test
+  public void testFullTableStartsImmediately() {
+    List<Integer> players = enqueue(Constants.MAX_NUM_PLAYERS);
+    assertEquals(players, games.poll());
+    assertEquals(1, matchmaker.getMetrics().getGamesStarted());
+    assertEquals(Constants.MAX_NUM_PLAYERS, matchmaker.getMetrics().getPlayersAdmitted());
+  }
+
+  @Test
+  public void testFullTableLeavesTheRestQueued() {
+    List<Integer> players = enqueue(Constants.MAX_NUM_PLAYERS + 2);
+    assertEquals(players.subList(0, Constants.MAX_NUM_PLAYERS), games.poll());
+    assertTrue(games.isEmpty());
+  }
+
+  @Test
+  public void testTooFewPlayersNeverStart() throws InterruptedException {
+    enqueue(Constants.MIN_NUM_PLAYERS - 1);
+    assertNull(games.poll(BUDGET_MILLIS * 3, TimeUnit.MILLISECONDS));
+    assertEquals(0, matchmaker.getMetrics().getGamesStarted());
+  }
+
+  @Test
+  public void testMinimumStartsAfterWait() throws InterruptedException {
+    long start = System.nanoTime();
+    List<Integer> players = enqueue(Constants.MIN_NUM_PLAYERS);
+    assertTrue(games.isEmpty());
+
+    assertEquals(players, games.poll(BUDGET_MILLIS * 10, TimeUnit.MILLISECONDS));
+    long waited = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    assertTrue("Started after " + waited + " ms", waited >= BUDGET_MILLIS);
+    assertTrue(matchmaker.getMetrics().getMeanQueueWait(TimeUnit.MILLISECONDS) >= BUDGET_MILLIS);
+  }
+
+  @Test
+  public void testHeadLeavesDuringPendingCheck() throws InterruptedException {
+    List<Integer> first = enqueue(Constants.MIN_NUM_PLAYERS);
+    Thread.sleep(BUDGET_MILLIS / 2);
+
+    // fills the table, so the players the pending check was scheduled for leave the queue
+    first.addAll(enqueue(Constants.MAX_NUM_PLAYERS - Constants.MIN_NUM_PLAYERS));
+    assertEquals(first, games.poll());
+
+    // these arrive before the pending check runs, and must still get a game once they have waited
+    List<Integer> second = enqueue(Constants.MIN_NUM_PLAYERS);
+    assertEquals(second, games.poll(BUDGET_MILLIS * 10, TimeUnit.MILLISECONDS));
+    assertEquals(2, matchmaker.getMetrics().getGamesStarted());
+  }
+}
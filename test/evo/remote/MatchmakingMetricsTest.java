@@ -0,0 +1,33 @@
+package evo.remote;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link MatchmakingMetrics}
+ */
+public class MatchmakingMetricsTest {
+
+  @Test
+  public void testEmpty() {
+    MatchmakingMetrics metrics = new MatchmakingMetrics();
+    assertEquals(0, metrics.getPlayersAdmitted());
+    assertEquals(0, metrics.getGamesStarted());
+    assertEquals(0, metrics.getMeanQueueWait(TimeUnit.MILLISECONDS), 0);
+  }
+
+  @Test
+  public void testRecordGame() {
+    MatchmakingMetrics metrics = new MatchmakingMetrics();
+    metrics.recordGame(3, TimeUnit.MILLISECONDS.toNanos(300));
+    metrics.recordGame(8, TimeUnit.MILLISECONDS.toNanos(800));
+
+    assertEquals(11, metrics.getPlayersAdmitted());
+    assertEquals(2, metrics.getGamesStarted());
+    assertEquals(100, metrics.getMeanQueueWait(TimeUnit.MILLISECONDS), 1e-9);
+    assertTrue(metrics.getAdmissionRate() > 0);
+  }
+}